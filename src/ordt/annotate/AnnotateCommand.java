@@ -3,6 +3,7 @@
  */
 package ordt.annotate;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,7 +11,8 @@ import ordt.extract.ModComponent;
 import ordt.extract.ModInstance;
 import ordt.extract.ModComponent.CompType;
 
-public class AnnotateCommand {
+public class AnnotateCommand implements Serializable {
+	private static final long serialVersionUID = 1L;
 
    private CompType commandTarget;
    private boolean pathUsesComponents = false;
@@ -6,6 +6,7 @@ package ordt.annotate;
 import ordt.extract.ModComponent.CompType;
 
 public class AnnotateNullCommand extends AnnotateCommand {
+	private static final long serialVersionUID = 1L;
 
 	public AnnotateNullCommand(CompType commandTarget, boolean pathUsesComponents,	String pathStr) {
 		super(commandTarget, pathUsesComponents, pathStr);
@@ -8,6 +8,8 @@ import ordt.extract.ModInstance;
 import ordt.extract.ModComponent.CompType;
 
 public class AnnotateSetCommand extends AnnotateCommand {
+	private static final long serialVersionUID = 1L;
+
 	   private String property;
 	   private String value;
 
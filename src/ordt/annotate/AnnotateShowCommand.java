@@ -8,6 +8,8 @@ import ordt.extract.ModInstance;
 import ordt.extract.ModComponent.CompType;
 
 public class AnnotateShowCommand extends AnnotateCommand {
+	private static final long serialVersionUID = 1L;
+
 	private boolean showInstanceComponent = false;
 	
 	/** create a set_property command 
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ordt.extract.RegNumber.NumBase;
+import ordt.extract.RegNumber.NumFormat;
+import ordt.output.AddressLayoutBuilder;
+import ordt.parameters.ExtParameters;
+
+/** index of model registers by address, built from the model address layout (see AddressLayout).
+ *  Each layout child table is indexed once as a list of groups sorted by offset, so a lookup is a binary search
+ *  at each level of hierarchy.  Replicated registers and regsets are matched using their stride rather than
+ *  expanded per rep, and addresses in the reserved range of an external group are matched to the external region.
+ */
+public class AddressIndex {
+	private final AddressLayout layout;
+	private final Map<Map<ModInstance, AddressLayout.Group>, Table> tables = new IdentityHashMap<Map<ModInstance, AddressLayout.Group>, Table>();
+
+	public AddressIndex(AddressLayout layout) {
+		this.layout = layout;
+		addTables(layout.getRoot());
+	}
+
+	/** return the address index of a model, computing the model address layout if needed */
+	public static AddressIndex getIndex(RegModelIntf model) {
+		AddressLayout layout = AddressLayout.getLayout(model);
+		if (layout == null) {
+			new AddressLayoutBuilder(model);
+			layout = AddressLayout.getLayout(model);
+		}
+		return layout.getIndex();
+	}
+
+	/** index each distinct child table in a layout group */
+	private void addTables(AddressLayout.Group group) {
+		for (int rep=0; rep<group.getRepCount(); rep++) {
+			Map<ModInstance, AddressLayout.Group> children = group.getChildMap(rep);
+			if ((children == null) || tables.containsKey(children)) continue;
+			tables.put(children, new Table(children.values()));
+			for (AddressLayout.Group child : children.values()) addTables(child);
+		}
+	}
+
+	/** find the register or external region containing an address
+	 *  @return the match or null if no register is at this address */
+	public Match find(RegNumber address) {
+		if ((address == null) || !address.isDefined()) return null;
+		AddressLayout.Group root = layout.getRoot();
+		return find(root.getChildMap(0), address.getValue(), BigInteger.ZERO, "");
+	}
+
+	/** find registers and external regions overlapping an address range.  Each match covers a contiguous set of
+	 *  reps of a register group, so arrays are not expanded.
+	 *  @param low - lowest address of range
+	 *  @param high - highest address of range (inclusive) */
+	public List<Match> findRange(RegNumber low, RegNumber high) {
+		List<Match> matches = new ArrayList<Match>();
+		if ((low == null) || !low.isDefined() || (high == null) || !high.isDefined()) return matches;
+		AddressLayout.Group root = layout.getRoot();
+		findRange(root.getChildMap(0), low.getValue(), high.getValue(), BigInteger.ZERO, "", matches);
+		return matches;
+	}
+
+	private Match find(Map<ModInstance, AddressLayout.Group> children, BigInteger address, BigInteger parentBase, String parentPath) {
+		Table table = (children == null)? null : tables.get(children);
+		if (table == null) return null;
+		int idx = table.floor(address.subtract(parentBase));
+		if (idx < 0) return null;
+		AddressLayout.Group group = table.groups[idx];
+		BigInteger groupStart = parentBase.add(table.starts[idx]);
+		if (address.compareTo(groupStart.add(table.sizes[idx])) >= 0) return null;  // in gap after group
+		int rep = getRep(group, address.subtract(parentBase));
+		BigInteger repBase = parentBase.add(group.getOffset(rep).getValue());
+		if (group.isRegister()) {
+			if (address.compareTo(repBase.add(BigInteger.valueOf(getRegBytes(group)))) < 0) return new Match(getPath(parentPath, group, rep, rep), group, rep, rep, repBase, false);
+			return group.isExternal()? new Match(getPath(parentPath, group, 0, group.getRepCount() - 1), group, 0, group.getRepCount() - 1, groupStart, true) : null;
+		}
+		String path = getPath(parentPath, group, rep, rep);
+		Match match = find(group.getChildMap(rep), address, repBase, path);
+		if ((match == null) && group.isExternal()) return new Match(path, group, rep, rep, repBase, true);
+		return match;
+	}
+
+	private void findRange(Map<ModInstance, AddressLayout.Group> children, BigInteger low, BigInteger high, BigInteger parentBase, String parentPath, List<Match> matches) {
+		Table table = (children == null)? null : tables.get(children);
+		if (table == null) return;
+		BigInteger relHigh = high.subtract(parentBase);
+		for (int idx = Math.max(table.floor(low.subtract(parentBase)), 0); (idx < table.groups.length) && (table.starts[idx].compareTo(relHigh) <= 0); idx++) {
+			AddressLayout.Group group = table.groups[idx];
+			BigInteger groupStart = parentBase.add(table.starts[idx]);
+			if (low.compareTo(groupStart.add(table.sizes[idx])) >= 0) continue;  // range starts after group
+			if (group.isRegister()) {
+				int[] reps = getRepRange(group, parentBase, low, high, BigInteger.valueOf(getRegBytes(group)));
+				if (reps != null) {
+					BigInteger repBase = parentBase.add(group.getOffset(reps[0]).getValue());
+					matches.add(new Match(getPath(parentPath, group, reps[0], reps[1]), group, reps[0], reps[1], repBase, false));
+				}
+				else if (group.isExternal())
+					matches.add(new Match(getPath(parentPath, group, 0, group.getRepCount() - 1), group, 0, group.getRepCount() - 1, groupStart, true));
+				continue;
+			}
+			int[] reps = getRepRange(group, parentBase, low, high, null);
+			if (reps == null) continue;
+			for (int rep=reps[0]; rep<=reps[1]; rep++) {
+				BigInteger repBase = parentBase.add(group.getOffset(rep).getValue());
+				String path = getPath(parentPath, group, rep, rep);
+				int matchCount = matches.size();
+				findRange(group.getChildMap(rep), low, high, repBase, path, matches);
+				if ((matches.size() == matchCount) && group.isExternal()) matches.add(new Match(path, group, rep, rep, repBase, true));
+			}
+		}
+	}
+
+	/** return the rep of a group containing an offset from the parent base (last rep if past end) */
+	private static int getRep(AddressLayout.Group group, BigInteger offset) {
+		int repCount = group.getRepCount();
+		if (repCount < 2) return 0;
+		BigInteger groupOffset = offset.subtract(group.getOffset(0).getValue());
+		if (groupOffset.signum() <= 0) return 0;
+		if (group.getStride() != null) {
+			BigInteger stride = group.getStride().getValue();
+			if (stride.signum() <= 0) return 0;
+			BigInteger rep = groupOffset.divide(stride);
+			return (rep.compareTo(BigInteger.valueOf(repCount)) >= 0)? repCount - 1 : rep.intValue();
+		}
+		// reps not evenly spaced, so binary search rep offsets
+		int lo = 0, hi = repCount - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (group.getOffset(mid).getValue().compareTo(offset) <= 0) lo = mid;
+			else hi = mid - 1;
+		}
+		return lo;
+	}
+
+	/** return first and last reps of a group overlapping an address range, or null if none
+	 *  @param repSize - bytes in each rep (if null, each rep extends to the next rep or group end) */
+	private static int[] getRepRange(AddressLayout.Group group, BigInteger parentBase, BigInteger low, BigInteger high, BigInteger repSize) {
+		int lastRep = getRep(group, high.subtract(parentBase));
+		int firstRep = getRep(group, low.subtract(parentBase));
+		// skip first rep if range starts past its end
+		BigInteger firstEnd = (repSize != null)? parentBase.add(group.getOffset(firstRep).getValue()).add(repSize) :
+			(firstRep + 1 < group.getRepCount())? parentBase.add(group.getOffset(firstRep + 1).getValue()) :
+				parentBase.add(group.getOffset(0).getValue()).add(group.getSize().getValue());
+		if (low.compareTo(firstEnd) >= 0) firstRep++;
+		// skip last rep if range ends before its start
+		if (high.compareTo(parentBase.add(group.getOffset(lastRep).getValue())) < 0) lastRep--;
+		return (firstRep <= lastRep)? new int[] {firstRep, lastRep} : null;
+	}
+
+	/** return bytes in a register */
+	private static int getRegBytes(AddressLayout.Group group) {
+		return (group.getRegWidth() + 7) / 8;
+	}
+
+	/** return instance path of a group rep range */
+	private static String getPath(String parentPath, AddressLayout.Group group, int firstRep, int lastRep) {
+		StringBuilder path = new StringBuilder(parentPath);
+		if (path.length() > 0) path.append('.');
+		path.append(group.getInstance().getId());
+		if (group.getInstance().getRepCount() > 1) {
+			if (firstRep == lastRep) path.append('[').append(firstRep).append(']');
+			else path.append('[').append(firstRep).append(':').append(lastRep).append(']');
+		}
+		return path.toString();
+	}
+
+	/** layout groups of a child table sorted by offset */
+	private static class Table {
+		private final AddressLayout.Group[] groups;
+		private final BigInteger[] starts;  // offset of each group from parent base
+		private final BigInteger[] sizes;  // bytes spanned by each group
+
+		Table(Collection<AddressLayout.Group> children) {
+			groups = children.toArray(new AddressLayout.Group[children.size()]);
+			final BigInteger[] offsets = new BigInteger[groups.length];
+			Integer[] order = new Integer[groups.length];
+			for (int idx=0; idx<groups.length; idx++) {
+				offsets[idx] = groups[idx].getOffset(0).getValue();
+				order[idx] = idx;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return offsets[a].compareTo(offsets[b]);
+				}
+			});
+			AddressLayout.Group[] sortedGroups = groups.clone();
+			starts = new BigInteger[groups.length];
+			sizes = new BigInteger[groups.length];
+			for (int idx=0; idx<groups.length; idx++) {
+				groups[idx] = sortedGroups[order[idx]];
+				starts[idx] = offsets[order[idx]];
+				sizes[idx] = groups[idx].getSize().getValue();
+			}
+		}
+
+		/** return index of the last group starting at or before an offset (-1 if none) */
+		int floor(BigInteger offset) {
+			int lo = 0, hi = starts.length - 1, found = -1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				if (starts[mid].compareTo(offset) <= 0) {
+					found = mid;
+					lo = mid + 1;
+				}
+				else hi = mid - 1;
+			}
+			return found;
+		}
+	}
+
+	/** a register group rep range or external region matching an address lookup */
+	public static class Match {
+		private final String path;
+		private final AddressLayout.Group group;
+		private final int firstRep;
+		private final int lastRep;
+		private final RegNumber baseAddress;
+		private final boolean region;
+
+		Match(String path, AddressLayout.Group group, int firstRep, int lastRep, BigInteger baseAddress, boolean region) {
+			this.path = path;
+			this.group = group;
+			this.firstRep = firstRep;
+			this.lastRep = lastRep;
+			this.baseAddress = new RegNumber(0);
+			this.baseAddress.setValue(baseAddress);
+			this.baseAddress.setNumBase(NumBase.Hex);
+			this.baseAddress.setNumFormat(NumFormat.Address);
+			this.region = region;
+		}
+
+		/** get instance path of the match relative to the root instance (root instance name is not included).
+		 *  Reps are indexed as [rep] or [first:last] */
+		public String getPath() {
+			return path;
+		}
+
+		/** get model instance of the matching register or regset */
+		public ModInstance getInstance() {
+			return group.getInstance();
+		}
+
+		/** get layout group of the matching register or regset */
+		public AddressLayout.Group getGroup() {
+			return group;
+		}
+
+		/** get first matching rep */
+		public int getFirstRep() {
+			return firstRep;
+		}
+
+		/** get last matching rep */
+		public int getLastRep() {
+			return lastRep;
+		}
+
+		/** get base address of the first matching rep (or of the region) */
+		public RegNumber getBaseAddress() {
+			return baseAddress;
+		}
+
+		/** get address offset between matching reps (null if single rep or reps are not evenly spaced) */
+		public RegNumber getStride() {
+			return (firstRep == lastRep)? null : group.getStride();
+		}
+
+		/** return true if the match is a register rather than an external region */
+		public boolean isRegister() {
+			return !region && group.isRegister();
+		}
+
+		/** return true if the match is the reserved/unmapped range of an external region */
+		public boolean isExternalRegion() {
+			return region;
+		}
+
+		/** get fields of the matching register (empty if a region) */
+		public List<AddressLayout.Field> getFields() {
+			if (!isRegister()) return Collections.emptyList();
+			return group.getFields();
+		}
+
+		/** get fields of the matching register in the minimum data size word containing an address */
+		public List<AddressLayout.Field> getFields(RegNumber address) {
+			List<AddressLayout.Field> wordFields = new ArrayList<AddressLayout.Field>();
+			if (!isRegister() || (address == null) || !address.isDefined()) return wordFields;
+			BigInteger repOffset = address.getValue().subtract(baseAddress.getValue());
+			if ((firstRep != lastRep) && (group.getStride() != null)) repOffset = repOffset.mod(group.getStride().getValue());
+			int wordBits = ExtParameters.getMinDataSize();
+			int lowBit = (repOffset.intValue() * 8 / wordBits) * wordBits;
+			for (AddressLayout.Field field : group.getFields()) {
+				if ((field.getLowIndex() < lowBit + wordBits) && (field.getHighIndex() >= lowBit)) wordFields.add(field);
+			}
+			return wordFields;
+		}
+
+		/** return a one line description of this match */
+		public String getDescription() {
+			StringBuilder desc = new StringBuilder(path);
+			if (region) desc.append(" external region at ");
+			else if (group.isRegister()) desc.append(group.isExternal()? " external " : " ").append(group.getRegWidth()).append("b register at ");
+			else desc.append(" register set at ");
+			desc.append(baseAddress);
+			RegNumber stride = getStride();
+			if (stride != null) desc.append(", stride ").append(stride.toFormat(NumBase.Hex, NumFormat.Address));
+			return desc.toString();
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** address layout of the registers and register sets in a model.  The layout is computed once after the model
+ *  is aligned and annotated so outputs and other tools can read addresses rather than recompute them.
+ *  Since a component may be instanced at several paths, layout is stored as a tree of instance groups
+ *  with offsets relative to the base address of the enclosing regset rep. */
+public class AddressLayout {
+	private final Group root = new Group(null);  // top level instances (base address 0)
+	private AddressIndex index;  // address index of this layout (built on first use)
+	private List<String> warnings = Collections.emptyList();  // warnings issued while computing this layout
+
+	public AddressLayout() {
+		root.addRep(new RegNumber(0));
+	}
+
+	/** return the group containing top level instances of the model */
+	public Group getRoot() {
+		return root;
+	}
+
+	/** get the address index of this layout, building it on first use */
+	public synchronized AddressIndex getIndex() {
+		if (index == null) index = new AddressIndex(this);
+		return index;
+	}
+
+	/** get warnings issued while computing this layout */
+	public List<String> getWarnings() {
+		return warnings;
+	}
+
+	/** save warnings issued while computing this layout so they can be re-issued if the model is reused */
+	public void setWarnings(List<String> warnings) {
+		this.warnings = Collections.unmodifiableList(new ArrayList<String>(warnings));
+	}
+
+	/** return the address layout of a model or null if it has not been computed */
+	public static AddressLayout getLayout(RegModelIntf model) {
+		ModComponent root = model.getRoot();
+		return (root instanceof ModRootComponent)? ((ModRootComponent) root).getAddressLayout() : null;
+	}
+
+	/** store the address layout of a model (null to clear) */
+	public static void setLayout(RegModelIntf model, AddressLayout layout) {
+		ModComponent root = model.getRoot();
+		if (root instanceof ModRootComponent) ((ModRootComponent) root).setAddressLayout(layout);
+	}
+
+	/** address layout of the reps of a register or regset instance at one path in the model.
+	 *  Reps of a regset having identical child layouts share a single child table. */
+	public static class Group {
+		private final ModInstance instance;
+		private int repCount = 0;
+		private RegNumber offset;  // offset of rep 0 from parent base address
+		private RegNumber stride;  // offset between reps (null if single rep or reps are not evenly spaced)
+		private List<RegNumber> repOffsets;  // offset of each rep from parent base if reps are not evenly spaced
+		private RegNumber size = new RegNumber(0);  // bytes spanned by all reps
+		private int regWidth = 0;  // register width in bits (0 if a regset)
+		private boolean external = false;  // is an external register group or regset
+		private List<Field> fields;  // register fields (null if a regset)
+		private List<Map<ModInstance, Group>> repChildren;  // child groups of each rep (null if no children)
+
+		Group(ModInstance instance) {
+			this.instance = instance;
+		}
+
+		/** get the model instance of this group */
+		public ModInstance getInstance() {
+			return instance;
+		}
+
+		/** get number of reps in this group.  Unevenly spaced external register groups have a single entry for all reps */
+		public int getRepCount() {
+			return repCount;
+		}
+
+		/** get offset of a rep base address from the base address of the parent regset rep */
+		public RegNumber getOffset(int rep) {
+			if (repOffsets != null) return new RegNumber(repOffsets.get(rep));
+			RegNumber repOffset = new RegNumber(offset);
+			if (rep > 0) {
+				RegNumber repIncrement = new RegNumber(stride);
+				repIncrement.multiply(rep);
+				repOffset.add(repIncrement);
+			}
+			return repOffset;
+		}
+
+		/** get offset between rep base addresses or null if reps are not evenly spaced */
+		public RegNumber getStride() {
+			return stride;
+		}
+
+		/** get bytes spanned by all reps of this group, including alignment and external reserved range */
+		public RegNumber getSize() {
+			return size;
+		}
+
+		/** set bytes spanned by all reps of this group */
+		public void setSize(RegNumber size) {
+			this.size = new RegNumber(size);
+		}
+
+		/** return true if this group is a register or external register group */
+		public boolean isRegister() {
+			return regWidth > 0;
+		}
+
+		/** get register width in bits (0 if a regset) */
+		public int getRegWidth() {
+			return regWidth;
+		}
+
+		/** set register width in bits */
+		public void setRegWidth(int regWidth) {
+			this.regWidth = regWidth;
+		}
+
+		/** return true if this is an external register group or regset */
+		public boolean isExternal() {
+			return external;
+		}
+
+		/** set external state of this group */
+		public void setExternal(boolean external) {
+			this.external = external;
+		}
+
+		/** get fields of this register (empty if a regset or fields were not visited) */
+		public List<Field> getFields() {
+			if (fields == null) return Collections.emptyList();
+			return Collections.unmodifiableList(fields);
+		}
+
+		/** add a field to this register */
+		public void addField(String name, int lowIndex, int width) {
+			if (fields == null) fields = new ArrayList<Field>();
+			fields.add(new Field(name, lowIndex, width));
+		}
+
+		/** get the layout group of a child instance in a rep of this group (null if not found) */
+		public Group getChild(int rep, ModInstance childInstance) {
+			Map<ModInstance, Group> children = getChildMap(rep);
+			return (children == null)? null : children.get(childInstance);
+		}
+
+		/** get the child layout groups of a rep of this group */
+		public Collection<Group> getChildren(int rep) {
+			Map<ModInstance, Group> children = getChildMap(rep);
+			if (children == null) return Collections.emptyList();
+			return Collections.unmodifiableCollection(children.values());
+		}
+
+		Map<ModInstance, Group> getChildMap(int rep) {
+			if ((repChildren == null) || (rep >= repCount)) return null;
+			return (repChildren.size() == 1)? repChildren.get(0) : repChildren.get(rep);
+		}
+
+		// ------------------- layout construction (used by layout pass)
+
+		/** add the next rep of this group with specified offset from the parent base address */
+		public void addRep(RegNumber repOffset) {
+			if (repCount == 0) offset = new RegNumber(repOffset);
+			else if (repOffsets == null) {
+				RegNumber delta = new RegNumber(repOffset);
+				delta.subtract(getOffset(repCount - 1));
+				if (repCount == 1) stride = delta;
+				else if (delta.compareTo(stride) != 0) {  // uneven reps, so save each offset
+					List<RegNumber> offsets = new ArrayList<RegNumber>();
+					for (int rep=0; rep<repCount; rep++) offsets.add(getOffset(rep));
+					repOffsets = offsets;
+					stride = null;
+				}
+			}
+			if (repOffsets != null) repOffsets.add(new RegNumber(repOffset));
+			repCount++;
+		}
+
+		/** add a child group to the last rep of this group */
+		public Group addChild(ModInstance childInstance) {
+			if (repChildren == null) repChildren = new ArrayList<Map<ModInstance, Group>>();
+			while (repChildren.size() < repCount) repChildren.add(new LinkedHashMap<ModInstance, Group>());
+			Group child = new Group(childInstance);
+			repChildren.get(repCount - 1).put(childInstance, child);
+			return child;
+		}
+
+		/** finish the last rep of this group, sharing the child layout of rep 0 if identical */
+		public void finishRep() {
+			if ((repChildren == null) || (repCount < 2)) return;
+			while (repChildren.size() < repCount) repChildren.add(new LinkedHashMap<ModInstance, Group>());
+			Map<ModInstance, Group> firstChildren = repChildren.get(0);
+			Map<ModInstance, Group> lastChildren = repChildren.get(repCount - 1);
+			if (sameLayout(firstChildren, lastChildren)) repChildren.set(repCount - 1, firstChildren);
+		}
+
+		/** finish this group, storing a single child table if shared by all reps */
+		public void finish() {
+			if ((repChildren == null) || (repChildren.size() == 1)) return;
+			Map<ModInstance, Group> firstChildren = repChildren.get(0);
+			for (Map<ModInstance, Group> children : repChildren) {
+				if (children != firstChildren) return;
+			}
+			repChildren = Collections.singletonList(firstChildren);
+		}
+
+		/** return true if another group has the same rep offsets, size, and child layout */
+		private boolean sameLayout(Group other) {
+			if ((repCount != other.repCount) || (size.compareTo(other.size) != 0) || (regWidth != other.regWidth) || (external != other.external)) return false;
+			if (!getFields().equals(other.getFields())) return false;
+			for (int rep=0; rep<repCount; rep++) {
+				if (getOffset(rep).compareTo(other.getOffset(rep)) != 0) return false;
+				Map<ModInstance, Group> children = getChildMap(rep), otherChildren = other.getChildMap(rep);
+				if ((children == null) != (otherChildren == null)) return false;
+				if ((children != null) && !sameLayout(children, otherChildren)) return false;
+			}
+			return true;
+		}
+
+		private static boolean sameLayout(Map<ModInstance, Group> children, Map<ModInstance, Group> otherChildren) {
+			if (children == otherChildren) return true;
+			if (children.size() != otherChildren.size()) return false;
+			for (Map.Entry<ModInstance, Group> entry : children.entrySet()) {
+				Group otherChild = otherChildren.get(entry.getKey());
+				if ((otherChild == null) || !entry.getValue().sameLayout(otherChild)) return false;
+			}
+			return true;
+		}
+	}
+
+	/** bit position of a register field */
+	public static class Field {
+		private final String name;
+		private final int lowIndex;
+		private final int width;
+
+		Field(String name, int lowIndex, int width) {
+			this.name = name;
+			this.lowIndex = lowIndex;
+			this.width = width;
+		}
+
+		/** get field name (including any fieldset prefix) */
+		public String getName() {
+			return name;
+		}
+
+		/** get lowest register bit of this field */
+		public int getLowIndex() {
+			return lowIndex;
+		}
+
+		/** get highest register bit of this field */
+		public int getHighIndex() {
+			return lowIndex + width - 1;
+		}
+
+		/** get width of this field in bits */
+		public int getWidth() {
+			return width;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Field)) return false;
+			Field other = (Field) obj;
+			return name.equals(other.name) && (lowIndex == other.lowIndex) && (width == other.width);
+		}
+
+		@Override
+		public int hashCode() {
+			return (name.hashCode() * 31 + lowIndex) * 31 + width;
+		}
+
+		@Override
+		public String toString() {
+			return name + "[" + getHighIndex() + ":" + lowIndex + "]";
+		}
+	}
+}
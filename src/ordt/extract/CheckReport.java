@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+/** diagnostics collected by a check-only run (-check), written as json.  While active, ordt warning/error
+ *  messages and lexer/parser syntax errors are saved in the order reported.  Each diagnostic has a severity
+ *  (error or warning), file, line, column (0 if not known), and message.
+ */
+public class CheckReport {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/** error listener saving lexer/parser syntax errors as diagnostics */
+	static final BaseErrorListener ERROR_LISTENER = new BaseErrorListener() {
+		@Override
+		public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+			String file = recognizer.getInputStream().getSourceName();
+			add("error", IntStream.UNKNOWN_SOURCE_NAME.equals(file)? null : file, line, charPositionInLine + 1, msg);
+		}
+	};
+
+	private static boolean active = false;
+	private static List<String[]> diagnostics = new ArrayList<String[]>();  // severity, file, line, column, message
+	private static int errorCount = 0;
+	private static int warningCount = 0;
+
+	/** clear diagnostics and enable collection if specified */
+	public static synchronized void init(boolean isActive) {
+		active = isActive;
+		diagnostics.clear();
+		errorCount = 0;
+		warningCount = 0;
+	}
+
+	/** return true if diagnostics are being collected */
+	public static boolean isActive() {
+		return active;
+	}
+
+	/** add syntax error reporting to a lexer/parser if collecting diagnostics */
+	static void addErrorListener(Recognizer<?, ?> recognizer) {
+		if (active) recognizer.addErrorListener(ERROR_LISTENER);
+	}
+
+	/** save a diagnostic without location info */
+	static void add(String severity, String msg) {
+		add(severity, null, 0, 0, msg);
+	}
+
+	/** save a diagnostic
+	 * @param severity - error or warning
+	 * @param file - file containing the problem (null if input file)
+	 * @param line - line number (0 if not known)
+	 * @param column - column number (0 if not known)
+	 * @param msg - diagnostic message */
+	static synchronized void add(String severity, String file, int line, int column, String msg) {
+		if (!active) return;
+		if ("error".equals(severity)) errorCount++;
+		else warningCount++;
+		diagnostics.add(new String[] {severity, file, String.valueOf(line), String.valueOf(column), msg});
+	}
+
+	/** return number of errors reported */
+	public static synchronized int getErrorCount() {
+		return errorCount;
+	}
+
+	/** write collected diagnostics to the specified file as json
+	 * @param inputFile - input file that was checked */
+	static synchronized void write(String fileName, String inputFile) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n");
+		json.append("  \"version\": " + RunStats.quote(Ordt.getVersion()) + ",\n");
+		json.append("  \"input\": " + RunStats.quote(inputFile) + ",\n");
+		json.append("  \"status\": " + RunStats.quote((errorCount > 0)? "fail" : "pass") + ",\n");
+		json.append("  \"errors\": " + errorCount + ",\n");
+		json.append("  \"warnings\": " + warningCount + ",\n");
+		json.append("  \"diagnostics\": [");
+		String sep = "\n";
+		for (String[] diag : diagnostics) {
+			json.append(sep + "    {\"severity\": " + RunStats.quote(diag[0]) + ", \"file\": " + RunStats.quote((diag[1] != null)? diag[1] : inputFile) +
+					", \"line\": " + diag[2] + ", \"column\": " + diag[3] + ", \"message\": " + RunStats.quote(diag[4]) + "}");
+			sep = ",\n";
+		}
+		json.append("\n  ]\n}\n");
+		try {
+			Files.write(Paths.get(fileName), json.toString().getBytes(utf8));
+		} catch (IOException e) {
+			Ordt.errorMessage("unable to write check report file " + fileName);
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ArrayPredictionContext;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.atn.SingletonPredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+import ordt.extract.Ordt.InputType;
+import ordt.parse.jspec.JSpecParser;
+import ordt.parse.systemrdl.SystemRDLParser;
+
+/** saves the prediction DFA states built by the rdl/jspec parser and preloads them in a new jvm, so a cold run
+ *  parses at warm speed.  The cache file name includes a hash of the antlr runtime version and serialized parser
+ *  ATN, so a regenerated parser uses a new cache.  States having semantic contexts (predicates) are not saved
+ *  and are rebuilt as needed.  Preloading is skipped if the parser DFA is already warm (eg later runs in a server).
+ */
+class DfaCache {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+	private static final String magic = "ordt dfa cache 1";
+	private static final int NO_STATE = -1;
+	private static final int ERROR_STATE = -2;
+
+	private File cacheFile;
+	private ATN atn;
+	private DFA[] dfas;
+	private int loadedStates = 0;  // state count after preload
+
+	/** create a dfa cache for the parser of specified input type
+	 * @param cacheDir - directory containing cache files */
+	DfaCache(String cacheDir, InputType inputType) {
+		Parser parser = (inputType == InputType.JSPEC)? new JSpecParser(null) : new SystemRDLParser(null);
+		atn = parser.getATN();
+		dfas = parser.getInterpreter().decisionToDFA;
+		String grammar = parser.getGrammarFileName().replace(".g4", "");
+		cacheFile = new File(cacheDir, grammar + "-" + getKey(parser.getSerializedATN()) + ".dfa");
+	}
+
+	/** return a hash of antlr runtime version and serialized ATN */
+	private static String getKey(String serializedATN) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((RuntimeMetaData.VERSION + "\n" + serializedATN).getBytes(utf8));
+			StringBuilder hex = new StringBuilder();
+			byte[] hash = digest.digest();
+			for (int idx=0; idx<8; idx++) hex.append(String.format("%02x", hash[idx] & 0xff));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return "nohash";
+		}
+	}
+
+	/** return number of DFA states in the parser */
+	private int getStateCount() {
+		int count = 0;
+		for (DFA dfa : dfas) count += dfa.states.size();
+		return count;
+	}
+
+	/** preload parser DFA states from the cache file if it exists and parser DFA is empty */
+	void load() {
+		synchronized (dfas) {
+			loadedStates = getStateCount();
+			if (!cacheFile.exists() || (loadedStates > 0)) return;
+			RunStats.Phase phase = RunStats.startPhase("load dfa cache");
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+				if (!magic.equals(in.readUTF())) throw new IOException("invalid cache file format");
+				PredictionContext[] contexts = readContexts(in);
+				int dfaCount = in.readInt();
+				if (dfaCount != dfas.length) throw new IOException("decision count mismatch");
+				for (DFA dfa : dfas) readDfa(in, dfa, contexts);
+			} catch (IOException | RuntimeException e) {
+				Ordt.warnMessage("ignoring invalid dfa cache file " + cacheFile + ". " + e.getMessage());
+				for (DFA dfa : dfas) clearDfa(dfa);
+			}
+			loadedStates = getStateCount();
+			phase.setCount("states", loadedStates);
+			phase.end();
+		}
+	}
+
+	/** save parser DFA states to the cache file if any states were added since load.  File is written to a
+	 *  temp file and moved so concurrent runs never see a partial file. */
+	void save() {
+		synchronized (dfas) {
+			int stateCount = getStateCount();
+			if (stateCount <= loadedStates) return;
+			RunStats.Phase phase = RunStats.startPhase("save dfa cache");
+			try {
+				cacheFile.getAbsoluteFile().getParentFile().mkdirs();
+				File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getAbsoluteFile().getParentFile());
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+					out.writeUTF(magic);
+					List<List<DFAState>> dfaStates = new ArrayList<List<DFAState>>();
+					for (DFA dfa : dfas) dfaStates.add(getSavedStates(dfa));
+					Map<PredictionContext, Integer> contextIds = writeContexts(out, dfaStates);
+					out.writeInt(dfas.length);
+					for (int idx=0; idx<dfas.length; idx++) writeDfa(out, dfas[idx], dfaStates.get(idx), contextIds);
+				}
+				Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Ordt.warnMessage("unable to save dfa cache file " + cacheFile + ". " + e.getMessage());
+			}
+			loadedStates = stateCount;
+			phase.setCount("states", stateCount);
+			phase.end();
+		}
+	}
+
+	// ------------------------ save methods
+
+	/** return states of a DFA that can be saved (no semantic contexts) in state number order */
+	private static List<DFAState> getSavedStates(DFA dfa) {
+		List<DFAState> states = new ArrayList<DFAState>();
+		for (DFAState state : dfa.states.keySet()) {
+			if (!state.configs.hasSemanticContext && (state.predicates == null)) states.add(state);
+		}
+		Collections.sort(states, new Comparator<DFAState>() {
+			public int compare(DFAState s1, DFAState s2) {
+				return Integer.compare(s1.stateNumber, s2.stateNumber);
+			}
+		});
+		return states;
+	}
+
+	/** write prediction contexts used by saved states, parents first
+	 * @return map of context to id */
+	private static Map<PredictionContext, Integer> writeContexts(DataOutputStream out, List<List<DFAState>> dfaStates) throws IOException {
+		List<PredictionContext> contexts = new ArrayList<PredictionContext>();
+		Map<PredictionContext, Integer> contextIds = new IdentityHashMap<PredictionContext, Integer>();
+		for (List<DFAState> states : dfaStates) {
+			for (DFAState state : states) {
+				for (ATNConfig config : state.configs) addContext(config.context, contexts, contextIds);
+			}
+		}
+		out.writeInt(contexts.size());
+		for (PredictionContext context : contexts) {
+			if (context == PredictionContext.EMPTY) out.writeByte(0);
+			else if (context instanceof SingletonPredictionContext) {
+				SingletonPredictionContext singleton = (SingletonPredictionContext) context;
+				out.writeByte(1);
+				out.writeInt(getContextId(singleton.parent, contextIds));
+				out.writeInt(singleton.returnState);
+			}
+			else {
+				ArrayPredictionContext array = (ArrayPredictionContext) context;
+				out.writeByte(2);
+				out.writeInt(array.returnStates.length);
+				for (int idx=0; idx<array.returnStates.length; idx++) {
+					out.writeInt(getContextId(array.parents[idx], contextIds));
+					out.writeInt(array.returnStates[idx]);
+				}
+			}
+		}
+		return contextIds;
+	}
+
+	/** add a context and its parents to the context list (parents first) */
+	private static void addContext(PredictionContext context, List<PredictionContext> contexts, Map<PredictionContext, Integer> contextIds) {
+		if ((context == null) || contextIds.containsKey(context)) return;
+		if (context instanceof SingletonPredictionContext) addContext(((SingletonPredictionContext) context).parent, contexts, contextIds);
+		else if (context instanceof ArrayPredictionContext) {
+			for (PredictionContext parent : ((ArrayPredictionContext) context).parents) addContext(parent, contexts, contextIds);
+		}
+		contextIds.put(context, contexts.size());
+		contexts.add(context);
+	}
+
+	private static int getContextId(PredictionContext context, Map<PredictionContext, Integer> contextIds) {
+		return (context == null)? -1 : contextIds.get(context);
+	}
+
+	/** write saved states of a DFA, their edges, and the DFA start state(s) */
+	private static void writeDfa(DataOutputStream out, DFA dfa, List<DFAState> states, Map<PredictionContext, Integer> contextIds) throws IOException {
+		Map<DFAState, Integer> stateIds = new IdentityHashMap<DFAState, Integer>();
+		for (DFAState state : states) stateIds.put(state, stateIds.size());
+		out.writeInt(states.size());
+		for (DFAState state : states) {
+			ATNConfigSet configs = state.configs;
+			out.writeBoolean(configs.fullCtx);
+			out.writeInt(configs.uniqueAlt);
+			out.writeBoolean(configs.dipsIntoOuterContext);
+			out.writeInt(configs.size());
+			for (ATNConfig config : configs) {
+				out.writeInt(config.state.stateNumber);
+				out.writeInt(config.alt);
+				out.writeInt(getContextId(config.context, contextIds));
+				out.writeInt(config.reachesIntoOuterContext);
+			}
+			out.writeBoolean(state.isAcceptState);
+			out.writeInt(state.prediction);
+			out.writeBoolean(state.requiresFullContext);
+		}
+		for (DFAState state : states) writeEdges(out, state.edges, stateIds);
+		// start state, or start state per precedence if a precedence dfa
+		DFAState s0 = dfa.s0;
+		if (dfa.isPrecedenceDfa()) writeEdges(out, (s0 != null)? s0.edges : null, stateIds);
+		else out.writeInt(getStateId(s0, stateIds));
+	}
+
+	private static void writeEdges(DataOutputStream out, DFAState[] edges, Map<DFAState, Integer> stateIds) throws IOException {
+		if (edges == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(edges.length);
+		for (DFAState edge : edges) out.writeInt(getStateId(edge, stateIds));
+	}
+
+	private static int getStateId(DFAState state, Map<DFAState, Integer> stateIds) {
+		if (state == ATNSimulator.ERROR) return ERROR_STATE;
+		Integer id = (state == null)? null : stateIds.get(state);
+		return (id == null)? NO_STATE : id;  // unsaved states are recomputed when needed
+	}
+
+	// ------------------------ load methods
+
+	/** read saved prediction contexts */
+	private static PredictionContext[] readContexts(DataInputStream in) throws IOException {
+		PredictionContext[] contexts = new PredictionContext[in.readInt()];
+		for (int idx=0; idx<contexts.length; idx++) {
+			int type = in.readByte();
+			if (type == 0) contexts[idx] = PredictionContext.EMPTY;
+			else if (type == 1) {
+				PredictionContext parent = getContext(in.readInt(), contexts);
+				contexts[idx] = SingletonPredictionContext.create(parent, in.readInt());
+			}
+			else {
+				int size = in.readInt();
+				PredictionContext[] parents = new PredictionContext[size];
+				int[] returnStates = new int[size];
+				for (int pidx=0; pidx<size; pidx++) {
+					parents[pidx] = getContext(in.readInt(), contexts);
+					returnStates[pidx] = in.readInt();
+				}
+				contexts[idx] = new ArrayPredictionContext(parents, returnStates);
+			}
+		}
+		return contexts;
+	}
+
+	private static PredictionContext getContext(int id, PredictionContext[] contexts) {
+		return (id < 0)? null : contexts[id];
+	}
+
+	/** read saved states of a DFA and set its start state(s) */
+	private void readDfa(DataInputStream in, DFA dfa, PredictionContext[] contexts) throws IOException {
+		DFAState[] states = new DFAState[in.readInt()];
+		for (int idx=0; idx<states.length; idx++) {
+			ATNConfigSet configs = new ATNConfigSet(in.readBoolean());
+			int uniqueAlt = in.readInt();
+			boolean dipsIntoOuterContext = in.readBoolean();
+			int configCount = in.readInt();
+			for (int cidx=0; cidx<configCount; cidx++) {
+				ATNConfig config = new ATNConfig(atn.states.get(in.readInt()), in.readInt(), getContext(in.readInt(), contexts), SemanticContext.NONE);
+				config.reachesIntoOuterContext = in.readInt();
+				configs.add(config);
+			}
+			configs.uniqueAlt = uniqueAlt;
+			configs.dipsIntoOuterContext = dipsIntoOuterContext;
+			configs.setReadonly(true);
+			DFAState state = new DFAState(configs);
+			state.isAcceptState = in.readBoolean();
+			state.prediction = in.readInt();
+			state.requiresFullContext = in.readBoolean();
+			state.stateNumber = dfa.states.size();
+			dfa.states.put(state, state);
+			states[idx] = state;
+		}
+		for (DFAState state : states) state.edges = readEdges(in, states);
+		if (dfa.isPrecedenceDfa()) {
+			DFAState[] startStates = readEdges(in, states);
+			if (startStates != null) {
+				for (int precedence=0; precedence<startStates.length; precedence++) {
+					if (startStates[precedence] != null) dfa.setPrecedenceStartState(precedence, startStates[precedence]);
+				}
+			}
+		}
+		else dfa.s0 = getState(in.readInt(), states);
+	}
+
+	private static DFAState[] readEdges(DataInputStream in, DFAState[] states) throws IOException {
+		int size = in.readInt();
+		if (size < 0) return null;
+		DFAState[] edges = new DFAState[size];
+		for (int idx=0; idx<size; idx++) edges[idx] = getState(in.readInt(), states);
+		return edges;
+	}
+
+	private static DFAState getState(int id, DFAState[] states) {
+		if (id == ERROR_STATE) return ATNSimulator.ERROR;
+		return (id == NO_STATE)? null : states[id];
+	}
+
+	/** remove all states of a partially loaded DFA */
+	private static void clearDfa(DFA dfa) {
+		dfa.states.clear();
+		if (dfa.isPrecedenceDfa()) dfa.s0.edges = new DFAState[0];
+		else dfa.s0 = null;
+	}
+}
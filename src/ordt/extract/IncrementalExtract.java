@@ -0,0 +1,821 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import ordt.parameters.ExtParameters;
+import ordt.parse.systemrdl.SystemRDLLexer;
+import ordt.parse.systemrdl.SystemRDLParser;
+
+/** incremental extraction of an rdl input using the model saved by a previous run.  The input is split into
+ *  top-level statements (component/enum definitions, root instances, property assigns, parameter blocks) and the
+ *  root components, instances, and enums created by each statement are saved along with its content hash, line
+ *  range, names defined, and names referenced.  On a rerun, only statements that changed, statements referencing
+ *  names defined by a changed statement (recursively), and root property assigns/parameter blocks are parsed and
+ *  extracted.  Saved model elements of the other statements are patched into the new root in input order.
+ *  A change to a root default assign or parameter block, or to parameters or library files, re-extracts all statements.
+ *  <p>
+ *  Model elements of each statement are serialized separately, with references to elements of other statements
+ *  saved by statement id and element index, so only re-extracted statements are serialized when the cache is updated.
+ */
+class IncrementalExtract {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+	private static final String cacheSuffix = ".ordtinc";
+	private static final String magic = "ordt extract cache 1";
+	private static final long libraryId = 0;  // element owner id of library definitions
+	private static final Set<String> compTypes = new HashSet<String>(Arrays.asList("addrmap", "regfile", "reg", "field", "signal"));
+
+	private enum StatementType { DEFINITION, POST_ASSIGN, ROOT_ASSIGN }  // root assigns include defaults and parameter blocks
+
+	private String inputFile;
+	private File cacheFile;
+	private String configKey;  // hash of ordt version, model format, input path, parameters, and library contents
+	private ModelSnapshot libraries;  // definitions extracted from library files (null if none)
+
+	private String text;  // input contents
+	private List<Statement> statements = new ArrayList<Statement>();
+	private Set<String> removedNames = new HashSet<String>();  // names defined by saved statements that were removed or moved
+	private long nextId = libraryId + 1;  // next statement id
+
+	/** create an incremental extractor
+	 * @param cacheDir - directory containing saved models
+	 * @param inputFile - rdl input file
+	 * @param libFiles - library files used to extract libraries
+	 * @param libraries - definitions extracted from library files (null if none) */
+	IncrementalExtract(String cacheDir, String inputFile, List<String> libFiles, ModelSnapshot libraries) throws IOException {
+		this.inputFile = inputFile;
+		this.libraries = libraries;
+		String path = new File(inputFile).getAbsolutePath();
+		cacheFile = new File(cacheDir, new File(inputFile).getName() + "-" + toHex(getDigest().digest(path.getBytes(utf8))).substring(0, 16) + cacheSuffix);
+		configKey = getConfigKey(path, libFiles);
+	}
+
+	/** extract the model, re-extracting only statements affected by changes since the saved model
+	 * @return the extracted model or null if input could not be split into statements (a normal extract should be used) */
+	RdlModelExtractor extract() throws IOException {
+		RunStats.Phase splitPhase = RunStats.startPhase("split rdl", new OrdtEvent.Parse().setInstancePath(inputFile));
+		CharStream input = MappedCharStream.open(inputFile);
+		text = input.getText(Interval.of(0, input.size() - 1));
+		boolean valid = split();
+		splitPhase.setCount("statements", statements.size());
+		splitPhase.end();
+		if (!valid) return null;
+		SavedModel saved = load();
+		// find statements needing extraction and parse them
+		RunStats.Phase parsePhase = RunStats.startPhase("parse rdl", new OrdtEvent.Parse().setInstancePath(inputFile));
+		if (!findDirty(!match(saved))) {
+			parsePhase.end();  // end so the phase is not left open
+			return null;
+		}
+		int parsed = 0;
+		for (Statement st : statements) if (st.tree != null) parsed++;
+		parsePhase.setCount("parsed_statements", parsed);
+		parsePhase.end();
+		// read saved elements of unchanged statements
+		ModRootComponent root = (ModRootComponent) ModComponent.createModComponent("root");
+		ModComponent libraryRoot = null;
+		if (saved != null) {
+			RunStats.Phase readPhase = RunStats.startPhase("read extract cache");
+			try {
+				libraryRoot = saved.readElements(root, statements);
+			} catch (IOException | ClassNotFoundException | ClassCastException e) {
+				Ordt.warnMessage("ignoring invalid extract cache file " + cacheFile + ". " + e.getMessage());
+				saved = null;
+				if (!findDirty(true)) {
+					readPhase.end();
+					return null;
+				}
+				root = (ModRootComponent) ModComponent.createModComponent("root");
+			}
+			readPhase.end();
+		}
+		if ((saved == null) && (libraries != null)) libraryRoot = libraries.getRoot();
+		if (libraryRoot != null) root.importLibrary(libraryRoot);  // add library definitions
+		// build the model
+		RunStats.Phase walkPhase = RunStats.startPhase("extract rdl", new OrdtEvent.Extract().setInstancePath(inputFile));
+		RdlModelExtractor model = new RdlModelExtractor(inputFile, root);
+		int errorCount = Ordt.getErrorMessageCount();
+		int extracted = rebuild(model);
+		walkPhase.setCount("statements", statements.size());
+		walkPhase.setCount("extracted_statements", extracted);
+		walkPhase.end();
+		System.out.println("Ordt: re-extracted " + extracted + " of " + statements.size() + " rdl statements...");
+		if ((Ordt.getErrorMessageCount() == errorCount) && ((extracted > 0) || hasChanges(saved))) save(root, libraryRoot, saved);
+		model.finishExtract();
+		return model;
+	}
+
+	// ------------------------ statement split/match methods
+
+	/** split input text into top-level statements.  Only comments, strings, identifiers, numbers, braces, and
+	 *  semicolons are scanned, so unchanged statements are not lexed.
+	 * @return false if text does not form complete statements */
+	private boolean split() throws IOException {
+		MessageDigest digest = getDigest();
+		int len = text.length();
+		int idx = 0, line = 1, lineStart = 0, depth = 0;
+		boolean inParms = false;
+		Statement st = null;
+		String prevId = null;  // previous token if an identifier
+		while (idx < len) {
+			char c = text.charAt(idx);
+			char next = (idx + 1 < len)? text.charAt(idx + 1) : 0;
+			if (c == '\n') {
+				line++;
+				lineStart = ++idx;
+				continue;
+			}
+			if ((c == ' ') || (c == '\t') || (c == '\r')) {
+				idx++;
+				continue;
+			}
+			// comments
+			if ((c == '/') && (next == '/')) {
+				while ((idx < len) && (text.charAt(idx) != '\n')) idx++;
+				continue;
+			}
+			if ((c == '/') && (next == '*')) {
+				int end = text.indexOf("*/", idx + 2);
+				if (end < 0) return false;
+				for (; idx < end + 2; idx++) if (text.charAt(idx) == '\n') { line++; lineStart = idx + 1; }
+				continue;
+			}
+			// start a new statement
+			if (st == null) {
+				st = new Statement(idx, line, idx - lineStart);
+				inParms = text.startsWith("<PARMS>", idx);
+				if (inParms) idx += 7;
+				prevId = null;
+				continue;
+			}
+			if (inParms && text.startsWith("</PARMS>", idx)) {
+				idx += 8;
+				st.setEnd(idx - 1, digest);
+				statements.add(st);
+				st = null;
+				inParms = false;
+				continue;
+			}
+			// strings
+			if (c == '"') {
+				for (idx++; (idx < len) && (text.charAt(idx) != '"'); idx++) {
+					if ((text.charAt(idx) == '\\') && (idx + 1 < len) && (text.charAt(idx + 1) == '"')) idx++;
+					else if (text.charAt(idx) == '\n') { line++; lineStart = idx + 1; }
+				}
+				if (idx++ >= len) return false;
+				prevId = null;
+				continue;
+			}
+			// identifiers and numbers
+			if (isIdStart(c) || ((c == '\\') && isIdStart(next))) {
+				int start = idx++;
+				while ((idx < len) && isIdChar(text.charAt(idx))) idx++;
+				prevId = text.substring(start, idx);
+				if (!inParms) st.refs.add(RdlModelExtractor.noEscapes(prevId));
+				continue;
+			}
+			if ((c >= '0') && (c <= '9')) {
+				while ((idx < len) && (isIdChar(text.charAt(idx)) || (text.charAt(idx) == '\''))) idx++;
+				prevId = null;
+				continue;
+			}
+			// braces and statement end
+			if (!inParms) {
+				if (c == '{') {
+					depth++;
+					if (compTypes.contains(prevId)) st.anonCount++;  // anonymous component definition
+				}
+				else if ((c == '}') && (--depth < 0)) return false;
+				else if ((c == ';') && (depth == 0)) {
+					st.setEnd(idx, digest);
+					statements.add(st);
+					st = null;
+				}
+			}
+			prevId = null;
+			idx++;
+		}
+		return st == null;
+	}
+
+	private static boolean isIdStart(char c) {
+		return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '_');
+	}
+
+	private static boolean isIdChar(char c) {
+		return isIdStart(c) || ((c >= '0') && (c <= '9'));
+	}
+
+	/** match statements to those of the saved model by content in input order
+	 * @return false if all statements must be extracted */
+	private boolean match(SavedModel saved) {
+		if (saved == null) return false;
+		nextId = saved.nextId;
+		Map<String, Deque<StatementRecord>> savedByHash = new HashMap<String, Deque<StatementRecord>>();
+		for (StatementRecord rec : saved.records) {
+			Deque<StatementRecord> recs = savedByHash.get(rec.hash);
+			if (recs == null) savedByHash.put(rec.hash, recs = new ArrayDeque<StatementRecord>());
+			recs.add(rec);
+		}
+		Set<StatementRecord> matched = Collections.newSetFromMap(new IdentityHashMap<StatementRecord, Boolean>());
+		int lastIndex = -1;
+		for (Statement st : statements) {
+			Deque<StatementRecord> recs = savedByHash.get(st.hash);
+			StatementRecord rec = (recs != null)? recs.poll() : null;
+			if (rec == null) continue;
+			if (rec.type != StatementType.POST_ASSIGN) {
+				if (rec.index < lastIndex) {
+					if (rec.type == StatementType.ROOT_ASSIGN) return false;  // root assigns were reordered
+					continue;  // moved definitions are extracted again
+				}
+				lastIndex = rec.index;
+			}
+			matched.add(rec);
+			st.record = rec;
+		}
+		for (StatementRecord rec : saved.records) {
+			if (matched.contains(rec)) continue;
+			if (rec.type == StatementType.ROOT_ASSIGN) return false;  // removed root assigns change defaults of following statements
+			removedNames.addAll(rec.defines);
+		}
+		return true;
+	}
+
+	/** mark statements needing extraction and parse them.  A statement is dirty if it has no matching saved statement,
+	 *  its anonymous component ids would change, or it references a name defined by a dirty or removed statement.
+	 *  Root assigns are always parsed.
+	 * @return false if parsed statements do not match the input split */
+	private boolean findDirty(boolean allDirty) {
+		int anonId = 0;
+		for (Statement st : statements) {
+			st.dirty = allDirty || (st.record == null) || ((st.anonCount > 0) && (st.record.anonStart != anonId));
+			st.anonStart = anonId;
+			anonId += st.anonCount;
+		}
+		Set<String> dirtyNames = new HashSet<String>(removedNames);
+		while (true) {
+			List<Statement> parseList = new ArrayList<Statement>();
+			for (Statement st : statements) {
+				if ((st.tree == null) && (st.dirty || (st.record.type != StatementType.DEFINITION))) parseList.add(st);
+			}
+			if (!parse(parseList)) return false;
+			// new root assigns change defaults of all following statements
+			if (!allDirty) {
+				for (Statement st : parseList) {
+					if ((st.record == null) && (st.type == StatementType.ROOT_ASSIGN)) return findDirty(true);
+				}
+			}
+			// mark statements referencing names defined by dirty statements
+			for (Statement st : statements) {
+				if (!st.dirty) continue;
+				dirtyNames.addAll(st.defines);
+				if (st.record != null) dirtyNames.addAll(st.record.defines);
+			}
+			boolean changed = false;
+			for (Statement st : statements) {
+				if (st.dirty || (st.record.type != StatementType.DEFINITION)) continue;
+				for (String ref : st.refs) {
+					if (dirtyNames.contains(ref)) {
+						st.dirty = true;
+						changed = true;
+						break;
+					}
+				}
+			}
+			if (!changed) return true;
+		}
+	}
+
+	/** lex each statement of a list and parse them together, saving the parse tree of each
+	 * @return false if parse does not contain one tree per statement */
+	private boolean parse(List<Statement> parseList) {
+		if (parseList.isEmpty()) return true;
+		List<Token> parseTokens = new ArrayList<Token>();
+		for (Statement st : parseList) {
+			ANTLRInputStream input = new ANTLRInputStream(text.substring(st.start, st.end + 1));
+			input.name = inputFile;
+			SystemRDLLexer lexer = new SystemRDLLexer(input);
+			lexer.setLine(st.startLine);
+			lexer.setCharPositionInLine(st.startColumn);
+			CheckReport.addErrorListener(lexer);
+			for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) parseTokens.add(token);
+		}
+		SystemRDLParser parser = new SystemRDLParser(new CommonTokenStream(new ListTokenSource(parseTokens, inputFile)));
+		CheckReport.addErrorListener(parser);
+		TwoStageParse.setSllMode(parser);
+		ParseTree tree;
+		try {
+			tree = parser.root();
+		} catch (ParseCancellationException e) {
+			TwoStageParse.setLlMode(parser);
+			tree = parser.root();
+		}
+		if (parser.getNumberOfSyntaxErrors() > 0) Ordt.errorExit("RDL parser errors detected.");
+		if (tree.getChildCount() != parseList.size() + 1) return false;  // statements and EOF
+		for (int idx=0; idx<parseList.size(); idx++) parseList.get(idx).setTree(tree.getChild(idx));
+		return true;
+	}
+
+	// ------------------------ model rebuild methods
+
+	/** add statement elements to the model root in input order, extracting dirty statements and root assigns
+	 * @return number of definition statements extracted */
+	private int rebuild(RdlModelExtractor model) {
+		ModComponent root = model.getRoot();
+		int extracted = 0;
+		List<String> warnings = new ArrayList<String>();
+		try {
+			Ordt.saveWarnings(warnings);
+			for (int idx=0; idx<statements.size(); idx++) {
+				Statement st = statements.get(idx);
+				if (!st.dirty && (st.record.type == StatementType.DEFINITION)) {
+					st.record.addTo(root, st.startLine);
+					for (String warning : st.record.warnings) Ordt.warnMessage(warning);
+				}
+				else if (!st.dirty) model.extractStatement(st.tree, st.anonStart);  // unchanged root assigns modify the new root
+				else {
+					// extract the statement and save what it adds to root
+					int compCount = root.childComponents.size(), instCount = root.childInstances.size(), enumCount = root.enums.size();
+					warnings.clear();
+					model.extractStatement(st.tree, st.anonStart);
+					StatementRecord rec = new StatementRecord(nextId++, st);
+					rec.comps.addAll(root.childComponents.subList(compCount, root.childComponents.size()));
+					rec.instances.addAll(root.childInstances.subList(instCount, root.childInstances.size()));
+					rec.enums.addAll(root.enums.subList(enumCount, root.enums.size()));
+					rec.warnings.addAll(warnings);
+					st.record = rec;
+					if (st.type == StatementType.DEFINITION) extracted++;
+				}
+				st.record.index = idx;
+			}
+		} finally {
+			Ordt.saveWarnings(null);
+		}
+		return extracted;
+	}
+
+	/** return true if there is no saved model or statements were added, removed, or moved since it was saved */
+	private boolean hasChanges(SavedModel saved) {
+		if ((saved == null) || (saved.records.size() != statements.size())) return true;
+		for (int idx=0; idx<statements.size(); idx++) {
+			StatementRecord rec = statements.get(idx).record;
+			if ((rec != saved.records.get(idx)) || (rec.startLine != rec.savedStartLine)) return true;
+		}
+		return false;
+	}
+
+	// ------------------------ saved model methods
+
+	/** load statement records of the saved model if it exists and was created with current parameters/libraries
+	 * @return saved model or null */
+	private SavedModel load() {
+		if (!cacheFile.exists()) return null;
+		RunStats.Phase phase = RunStats.startPhase("load extract cache");
+		SavedModel saved = null;
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), 65536))) {
+			if (!magic.equals(is.readUTF())) throw new IOException("invalid cache file format");
+			if (configKey.equals(is.readUTF())) saved = new SavedModel(is);
+		} catch (IOException e) {
+			Ordt.warnMessage("ignoring invalid extract cache file " + cacheFile + ". " + e.getMessage());
+		}
+		phase.end();
+		return saved;
+	}
+
+	/** save statement records and elements.  Elements of unchanged statements are saved as previously serialized.
+	 *  Cache is written to a temp file and moved so concurrent runs never see a partial file. */
+	private void save(ModComponent root, ModComponent libraryRoot, SavedModel saved) {
+		RunStats.Phase phase = RunStats.startPhase("save extract cache");
+		// find owner statement of each element
+		Map<Object, ElementRef> owners = new IdentityHashMap<Object, ElementRef>();
+		List<ModBaseComponent> libraryElements = new ArrayList<ModBaseComponent>();
+		if (libraryRoot != null) addElements(libraryRoot, libraryElements);
+		addOwner(owners, libraryId, libraryElements);
+		for (Statement st : statements) {
+			if (st.record.elements == null) st.record.elements = getElements(st.record.comps, st.record.instances, st.record.enums);
+			addOwner(owners, st.record.id, st.record.elements);
+		}
+		try {
+			File dir = cacheFile.getAbsoluteFile().getParentFile();
+			dir.mkdirs();
+			File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+			try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 65536))) {
+				os.writeUTF(magic);
+				os.writeUTF(configKey);
+				os.writeLong(nextId);
+				byte[] libraryBlob = (saved != null)? saved.libraryBlob : null;
+				if ((libraryBlob == null) && (libraryRoot != null)) libraryBlob = serialize(new Object[] {libraryRoot}, libraryId, libraryElements, root, owners);
+				writeBytes(os, libraryBlob);
+				os.writeInt(statements.size());
+				for (Statement st : statements) {
+					StatementRecord rec = st.record;
+					if ((rec.blob == null) && (rec.type == StatementType.DEFINITION)) {
+						rec.blob = serialize(new Object[] {rec.comps, rec.instances, rec.enums}, rec.id, rec.elements, root, owners);
+						rec.savedStartLine = rec.startLine;
+					}
+					rec.write(os);
+				}
+			}
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to save extract cache file " + cacheFile + ". " + e.getMessage());
+		}
+		phase.end();
+	}
+
+	private static void addOwner(Map<Object, ElementRef> owners, long ownerId, List<ModBaseComponent> elements) {
+		for (int idx=0; idx<elements.size(); idx++) owners.put(elements.get(idx), new ElementRef(ownerId, idx));
+	}
+
+	/** serialize elements of a statement, replacing references to root and elements of other statements
+	 * @return serialized bytes */
+	private static byte[] serialize(Object obj, long ownerId, List<ModBaseComponent> elements, ModComponent root, Map<Object, ElementRef> owners) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ElementOutputStream os = new ElementOutputStream(bytes, ownerId, elements, root, owners)) {
+			os.writeObject(obj);
+		}
+		return bytes.toByteArray();
+	}
+
+	/** return elements of a statement in a fixed order (each root component followed by its descendants, then root
+	 *  instances, then root enums) */
+	private static List<ModBaseComponent> getElements(List<ModComponent> comps, List<ModInstance> instances, List<ModEnum> enums) {
+		List<ModBaseComponent> elements = new ArrayList<ModBaseComponent>();
+		for (ModComponent comp : comps) addElements(comp, elements);
+		elements.addAll(instances);
+		for (ModEnum regEnum : enums) addElements(regEnum, elements);
+		return elements;
+	}
+
+	private static void addElements(ModComponent comp, List<ModBaseComponent> elements) {
+		elements.add(comp);
+		for (ModComponent child : comp.childComponents) addElements(child, elements);
+		elements.addAll(comp.childInstances);
+		for (ModEnum regEnum : comp.enums) addElements(regEnum, elements);
+	}
+
+	/** return hash of ordt version, model format, input path, parameter assignments, and library file contents */
+	private static String getConfigKey(String path, List<String> libFiles) throws IOException {
+		MessageDigest digest = getDigest();
+		digest.update((Ordt.getVersion() + "\n" + ModelSnapshot.MODEL_FORMAT_VERSION + "\n" + path + "\n").getBytes(utf8));
+		for (String[] assign : ExtParameters.getAssignments()) digest.update((assign[0] + "=" + assign[1] + "\n").getBytes(utf8));
+		byte [] buffer = new byte[65536];
+		for (String libFile : libFiles) {
+			try (InputStream is = new FileInputStream(libFile)) {
+				int count;
+				while ((count = is.read(buffer)) > 0) digest.update(buffer, 0, count);
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest getDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("unable to compute hash (" + e.getMessage() + ")");
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) hex.append(String.format("%02x", b & 0xff));
+		return hex.toString();
+	}
+
+	private static void writeBytes(DataOutputStream os, byte[] bytes) throws IOException {
+		os.writeInt((bytes != null)? bytes.length : -1);
+		if (bytes != null) os.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream is) throws IOException {
+		int len = is.readInt();
+		if (len < 0) return null;
+		byte[] bytes = new byte[len];
+		is.readFully(bytes);
+		return bytes;
+	}
+
+	private static void writeStrings(DataOutputStream os, Iterable<String> strs, int count) throws IOException {
+		os.writeInt(count);
+		for (String str : strs) os.writeUTF(str);
+	}
+
+	private static void readStrings(DataInputStream is, Collection<String> strs) throws IOException {
+		int count = is.readInt();
+		for (int idx=0; idx<count; idx++) strs.add(is.readUTF());
+	}
+
+	// ------------------------ statement classes
+
+	/** top-level statement of the current input */
+	private class Statement {
+		private int start;  // index of first char
+		private int end;  // index of last char
+		private int startLine;
+		private int startColumn;
+		private String hash;  // hash of statement text
+		private int anonCount = 0;  // number of anonymous component definitions
+		private Set<String> refs = new HashSet<String>();  // identifiers used in the statement
+		private int anonStart;  // first anonymous component id
+		private boolean dirty;
+		private StatementRecord record;  // matching statement of saved model (null if none)
+		// parse info (null/empty if not parsed)
+		private ParseTree tree;
+		private StatementType type;
+		private Set<String> defines = new HashSet<String>();  // root component, instance, and enum names defined
+
+		private Statement(int start, int startLine, int startColumn) {
+			this.start = start;
+			this.startLine = startLine;
+			this.startColumn = startColumn;
+		}
+
+		/** set index of last char and compute hash of statement text */
+		private void setEnd(int end, MessageDigest digest) {
+			this.end = end;
+			hash = toHex(digest.digest(text.substring(start, end + 1).getBytes(utf8)));
+		}
+
+		/** save parse tree and find statement type and names defined */
+		private void setTree(ParseTree tree) {
+			this.tree = tree;
+			if (tree instanceof SystemRDLParser.Component_defContext) {
+				type = StatementType.DEFINITION;
+				if (!"{".equals(tree.getChild(1).getText())) defines.add(RdlModelExtractor.noEscapes(tree.getChild(1).getText()));
+				for (int idx=0; idx<tree.getChildCount(); idx++) {
+					if (tree.getChild(idx) instanceof SystemRDLParser.Anonymous_component_inst_elemsContext) addInstanceNames(tree.getChild(idx));
+				}
+			}
+			else if (tree instanceof SystemRDLParser.Enum_defContext) {
+				type = StatementType.DEFINITION;
+				defines.add(RdlModelExtractor.noEscapes(tree.getChild(1).getText()));
+			}
+			else if (tree instanceof SystemRDLParser.Explicit_component_instContext) {
+				type = StatementType.DEFINITION;
+				addInstanceNames(tree);
+			}
+			else if ((tree instanceof SystemRDLParser.Property_assignContext) && (tree.getChild(0) instanceof SystemRDLParser.Post_property_assignContext))
+				type = StatementType.POST_ASSIGN;
+			else type = StatementType.ROOT_ASSIGN;
+		}
+
+		/** add names of instances in a rule containing component_inst_elems */
+		private void addInstanceNames(ParseTree instRule) {
+			for (int idx=0; idx<instRule.getChildCount(); idx++) {
+				if (instRule.getChild(idx) instanceof SystemRDLParser.Component_inst_elemContext)
+					defines.add(RdlModelExtractor.noEscapes(instRule.getChild(idx).getChild(0).getText()));
+			}
+		}
+	}
+
+	/** saved info for a top-level statement and the root model elements it created */
+	private static class StatementRecord {
+		private long id;  // unique id used in element references
+		private String hash;
+		private int index;  // statement position in input
+		private int startLine;
+		private int savedStartLine;  // start line when elements were serialized
+		private StatementType type;
+		private int anonStart;
+		private Set<String> defines;
+		private List<String> warnings = new ArrayList<String>();  // warnings issued when extracted
+		private byte[] blob;  // serialized elements (null if not serialized)
+		// elements (read from blob if an unchanged definition)
+		private List<ModComponent> comps = new ArrayList<ModComponent>();
+		private List<ModInstance> instances = new ArrayList<ModInstance>();
+		private List<ModEnum> enums = new ArrayList<ModEnum>();
+		private List<ModBaseComponent> elements;  // all elements in fixed order
+
+		private StatementRecord(long id, Statement st) {
+			this.id = id;
+			this.hash = st.hash;
+			this.startLine = st.startLine;
+			this.type = st.type;
+			this.anonStart = st.anonStart;
+			this.defines = st.defines;
+		}
+
+		private StatementRecord(DataInputStream is, int index) throws IOException {
+			this.index = index;
+			id = is.readLong();
+			hash = is.readUTF();
+			startLine = is.readInt();
+			savedStartLine = is.readInt();
+			type = StatementType.values()[is.readByte()];
+			anonStart = is.readInt();
+			defines = new HashSet<String>();
+			readStrings(is, defines);
+			readStrings(is, warnings);
+			blob = readBytes(is);
+		}
+
+		private void write(DataOutputStream os) throws IOException {
+			os.writeLong(id);
+			os.writeUTF(hash);
+			os.writeInt(startLine);
+			os.writeInt(savedStartLine);
+			os.writeByte(type.ordinal());
+			os.writeInt(anonStart);
+			writeStrings(os, defines, defines.size());
+			writeStrings(os, warnings, warnings.size());
+			writeBytes(os, blob);
+		}
+
+		/** read elements from blob */
+		@SuppressWarnings("unchecked")
+		private void readElements(ModComponent root, Map<Long, List<ModBaseComponent>> elementTables) throws IOException, ClassNotFoundException {
+			try (ElementInputStream is = new ElementInputStream(new ByteArrayInputStream(blob), root, elementTables)) {
+				Object[] lists = (Object[]) is.readObject();
+				comps = (List<ModComponent>) lists[0];
+				instances = (List<ModInstance>) lists[1];
+				enums = (List<ModEnum>) lists[2];
+			}
+			elements = getElements(comps, instances, enums);
+			elementTables.put(id, elements);
+		}
+
+		/** add saved elements to a root component, adjusting input line numbers if statement has moved */
+		private void addTo(ModComponent root, int newStartLine) {
+			int lineDelta = newStartLine - savedStartLine;
+			startLine = newStartLine;
+			for (ModComponent comp : comps) {
+				root.addChildComponent(comp);
+				comp.setParent(root);
+			}
+			for (ModInstance inst : instances) {
+				root.addCompInstance(inst);
+				inst.setParent(root);
+			}
+			for (ModEnum regEnum : enums) {
+				root.addCompEnum(regEnum);
+				regEnum.setParent(root);
+			}
+			// add instances of components defined in other statements to instancesOf lists, shift line numbers
+			Set<ModBaseComponent> owned = Collections.newSetFromMap(new IdentityHashMap<ModBaseComponent, Boolean>());
+			owned.addAll(elements);
+			for (ModBaseComponent elem : elements) {
+				if ((elem instanceof ModInstance) && !owned.contains(((ModInstance) elem).getRegComp())) ((ModInstance) elem).getRegComp().addInstanceOf((ModInstance) elem);
+				if ((lineDelta != 0) && (elem.getInputLineNumber() != null)) elem.setInputLineNumber(elem.getInputLineNumber() + lineDelta);
+			}
+		}
+	}
+
+	/** statement records and library elements of a saved model */
+	private static class SavedModel {
+		private long nextId;
+		private byte[] libraryBlob;  // serialized library root (null if no libraries)
+		private List<StatementRecord> records = new ArrayList<StatementRecord>();
+
+		private SavedModel(DataInputStream is) throws IOException {
+			nextId = is.readLong();
+			libraryBlob = readBytes(is);
+			int count = is.readInt();
+			for (int idx=0; idx<count; idx++) records.add(new StatementRecord(is, idx));
+		}
+
+		/** read library root and elements of unchanged definition statements
+		 * @return library root or null if none */
+		private ModComponent readElements(ModComponent root, List<Statement> statements) throws IOException, ClassNotFoundException {
+			Map<Long, List<ModBaseComponent>> elementTables = new HashMap<Long, List<ModBaseComponent>>();
+			ModComponent libraryRoot = null;
+			if (libraryBlob != null) {
+				try (ElementInputStream is = new ElementInputStream(new ByteArrayInputStream(libraryBlob), root, elementTables)) {
+					libraryRoot = (ModComponent) ((Object[]) is.readObject())[0];
+				}
+				List<ModBaseComponent> libraryElements = new ArrayList<ModBaseComponent>();
+				addElements(libraryRoot, libraryElements);
+				elementTables.put(libraryId, libraryElements);
+			}
+			for (Statement st : statements) {
+				if (!st.dirty && (st.record.type == StatementType.DEFINITION)) st.record.readElements(root, elementTables);
+			}
+			return libraryRoot;
+		}
+	}
+
+	// ------------------------ element serialization classes
+
+	/** reference to the model root */
+	private static class RootRef implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/** reference to an element of another statement */
+	private static class ElementRef implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private long ownerId;
+		private int index;
+
+		private ElementRef(long ownerId, int index) {
+			this.ownerId = ownerId;
+			this.index = index;
+		}
+	}
+
+	/** stream serializing elements of a statement.  References to the root and to elements of other statements are
+	 *  replaced, and instancesOf lists only include instances of the statement. */
+	private static class ElementOutputStream extends ObjectOutputStream {
+		private static final RootRef rootRef = new RootRef();
+		private long ownerId;
+		private ModComponent root;
+		private Map<Object, ElementRef> owners;
+		private Set<Object> instancesOfLists = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+		private ElementOutputStream(OutputStream out, long ownerId, List<ModBaseComponent> elements, ModComponent root, Map<Object, ElementRef> owners) throws IOException {
+			super(out);
+			this.ownerId = ownerId;
+			this.root = root;
+			this.owners = owners;
+			for (ModBaseComponent elem : elements) if (elem instanceof ModComponent) instancesOfLists.add(((ModComponent) elem).instancesOf);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) {
+			if (obj == root) return rootRef;
+			if (obj instanceof ModBaseComponent) {
+				ElementRef ref = owners.get(obj);
+				return ((ref != null) && (ref.ownerId != ownerId))? ref : obj;
+			}
+			if (instancesOfLists.contains(obj)) {
+				List<ModInstance> ownedInstances = new ArrayList<ModInstance>();
+				for (Object inst : (List<?>) obj) {
+					ElementRef ref = owners.get(inst);
+					if ((ref != null) && (ref.ownerId == ownerId)) ownedInstances.add((ModInstance) inst);
+				}
+				return ownedInstances;
+			}
+			return obj;
+		}
+	}
+
+	/** stream reading elements of a statement, resolving root and element references */
+	private static class ElementInputStream extends ObjectInputStream {
+		private ModComponent root;
+		private Map<Long, List<ModBaseComponent>> elementTables;
+
+		private ElementInputStream(InputStream in, ModComponent root, Map<Long, List<ModBaseComponent>> elementTables) throws IOException {
+			super(in);
+			this.root = root;
+			this.elementTables = elementTables;
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof RootRef) return root;
+			if (obj instanceof ElementRef) {
+				ElementRef ref = (ElementRef) obj;
+				List<ModBaseComponent> elements = elementTables.get(ref.ownerId);
+				if ((elements == null) || (ref.index >= elements.size())) throw new InvalidObjectException("unresolved element reference");
+				return elements.get(ref.index);
+			}
+			return obj;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** runs ordt tasks on a bounded work-stealing pool.  Since ordt run and parameter state is static, each worker
+ *  thread loads its own copy of the ordt classes so concurrent tasks are isolated.  A task is a static Ordt
+ *  method returning null on success or an error message.
+ */
+class IsolatedRunner {
+
+	private int maxThreads;
+	private URL ordtClassLocation;  // location of ordt classes to be loaded per worker (null if not available)
+	private List<URLClassLoader> loaders = Collections.synchronizedList(new ArrayList<URLClassLoader>());  // all created loaders
+	private ThreadLocal<Class<?>> ordtClass = new ThreadLocal<Class<?>>();  // Ordt class in worker's class copy
+
+	IsolatedRunner(int maxThreads) {
+		this.maxThreads = maxThreads;
+		CodeSource source = Ordt.class.getProtectionDomain().getCodeSource();
+		if (source != null) ordtClassLocation = source.getLocation();
+	}
+
+	/** run a task for each set of args and wait for completion
+	 * @param methodName - name of static Ordt method to be run
+	 * @param paramTypes - parameter types of the method
+	 * @param taskArgs - list of args for each task
+	 * @return list of task results (null if task completed, otherwise an error message) */
+	List<String> run(final String methodName, final Class<?>[] paramTypes, List<Object[]> taskArgs) throws IOException {
+		// without a class location, tasks can't be isolated so run them one at a time
+		int threads = (ordtClassLocation == null)? 1 : Math.max(1, Math.min(maxThreads, taskArgs.size()));
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		List<String> errors = new ArrayList<String>();
+		try {
+			// submit each task
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (final Object[] args : taskArgs) {
+				results.add(pool.submit(new Callable<String>() {
+					public String call() {
+						return runTask(methodName, paramTypes, args);
+					}
+				}));
+			}
+			// wait for completion and save results
+			for (Future<String> result : results) {
+				try {
+					errors.add(result.get());
+				} catch (ExecutionException e) {
+					errors.add(e.getCause().toString());
+				} catch (InterruptedException e) {
+					errors.add("interrupted");
+				}
+			}
+		} finally {
+			pool.shutdown();
+			for (URLClassLoader loader : loaders) loader.close();
+			loaders.clear();
+		}
+		return errors;
+	}
+
+	/** run a task using the current worker's copy of ordt */
+	private String runTask(String methodName, Class<?>[] paramTypes, Object[] args) {
+		try {
+			Method method = getOrdtClass().getDeclaredMethod(methodName, paramTypes);
+			method.setAccessible(true);
+			return (String) method.invoke(null, args);
+		} catch (InvocationTargetException e) {
+			return e.getCause().toString();
+		} catch (ReflectiveOperationException e) {
+			return "unable to start task (" + e + ")";
+		}
+	}
+
+	/** return Ordt class from the current worker's copy of ordt classes, loading the copy if needed */
+	private Class<?> getOrdtClass() throws ClassNotFoundException {
+		Class<?> workerOrdtClass = ordtClass.get();
+		if (workerOrdtClass == null) {
+			workerOrdtClass = Ordt.class;
+			if (ordtClassLocation != null) {
+				URLClassLoader loader = new IsolatingClassLoader(ordtClassLocation, Ordt.class.getClassLoader());
+				loaders.add(loader);
+				workerOrdtClass = loader.loadClass(Ordt.class.getName());
+			}
+			ordtClass.set(workerOrdtClass);
+		}
+		return workerOrdtClass;
+	}
+
+	/** class loader that loads its own copy of ordt classes (so static state is not shared) and delegates others to parent */
+	private static class IsolatingClassLoader extends URLClassLoader {
+
+		private IsolatingClassLoader(URL location, ClassLoader parent) {
+			super(new URL[] { location }, parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith("ordt.")) return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					try {
+						loaded = findClass(name);
+					} catch (ClassNotFoundException e) {
+						return super.loadClass(name, resolve);  // not at ordt location, so use parent copy
+					}
+				}
+				if (resolve) resolveClass(loaded);
+				return loaded;
+			}
+		}
+	}
+}
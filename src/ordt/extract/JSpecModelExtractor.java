@@ -3,14 +3,15 @@
  */
 package ordt.extract;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import ordt.extract.ModComponent.CompType;
@@ -21,9 +22,12 @@ import ordt.parse.jspec.JSpecLexer;
 import ordt.parse.jspec.JSpecParser;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.misc.NotNull;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
@@ -42,7 +46,7 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 	private String jspecInputFile;                 // input jspec file name used for model extract 
 		
 	//private static int anonCompId = 0;   // id for anonymous components
-	private static int numExpessionDepth = 0;  // nest level of num_expressions
+	private int numExpessionDepth = 0;  // nest level of num_expressions
 	private HashMap<String, RegNumber> numConstants = new HashMap<String, RegNumber>();  // defined numeric constants
 	private RegNumber lastResolvedNum;  // value of last resolved integer num_expression
 	private Integer lastResolvedArrayIndex;  // value of last resolved integer array index
@@ -50,7 +54,9 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 	
 	private Integer registerWidth;  // TODO- needed? now that aligned-size info in model? 
 	private Stack<Integer> fieldOffsets = new Stack<Integer>();
-	private static int anonCompId = 0;
+	private int anonCompId = 0;
+	private String anonCompPrefix = "";  // id prefix for anonymous components
+	private ModelSnapshot libraries;  // definitions extracted from library files (null if none)
 	private static HashSet<String> ignoredParameters = getIgnoredParameters();  // list of ignored jspec params
 	
 	private Integer accumulated_constant_width;
@@ -61,14 +67,34 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 	 * @param moduleName to be used as default name for addrmap instances
 	 * */
 	public JSpecModelExtractor (String rdlFile) {
+		this(rdlFile, null);
+	}
+	
+	/** create data model from a reader providing jspec file contents
+	 * @param rdlFile name of the input (used for messages and output headers)
+	 * @param inputReader reader providing the input (if null, rdlFile is read)
+	 * */
+	public JSpecModelExtractor (String rdlFile, Reader inputReader) {
+		this(rdlFile, inputReader, null);
+	}
+	
+	/** create data model from a jspec file or reader using definitions from library files
+	 * @param rdlFile name of the input (used for messages and output headers)
+	 * @param inputReader reader providing the input (if null, rdlFile is read)
+	 * @param libraries definitions and constants to be added before extraction (null if none)
+	 * */
+	public JSpecModelExtractor (String rdlFile, Reader inputReader, ModelSnapshot libraries) {
         this.jspecInputFile = rdlFile;  // save rdl file
+        this.libraries = libraries;
 
         try {
-        	InputStream is = System.in;
-        	if ( rdlFile!=null ) is = new FileInputStream(jspecInputFile);
-        
-        	ANTLRInputStream input = new ANTLRInputStream(is);
+        	RunStats.Phase parsePhase = RunStats.startPhase("parse jspec", new OrdtEvent.Parse().setInstancePath(jspecInputFile));  // lex/parse stats
+        	CharStream input;
+        	if (inputReader != null) input = new ANTLRInputStream(inputReader);
+        	else if (rdlFile != null) input = MappedCharStream.open(jspecInputFile);  // map input file rather than copying it
+        	else input = new ANTLRInputStream(System.in);
         	JSpecLexer lexer = new JSpecLexer(input);
+        	CheckReport.addErrorListener(lexer);  // save syntax errors if checking
 
         	// check input post lexer
         	//List<? extends Token> toks = lexer.getAllTokens();
@@ -76,7 +102,8 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
         	//    System.out.println(t);
         	//System.out.println("tokenizer size=" + toks.size());
 
-        	CommonTokenStream tokens = new CommonTokenStream(lexer);
+        	boolean streaming = Ordt.isStreamingExtract();
+        	TokenStream tokens = streaming? StreamingExtractListener.createTokenStream(lexer) : new CommonTokenStream(lexer);
 
         	// check input post tokenizer
         	//List<Token> toks2 = tokens.getTokens();
@@ -84,20 +111,45 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 
         	JSpecParser parser; // = new SystemRDLParser(null);
         	parser = new JSpecParser(tokens);
+        	CheckReport.addErrorListener(parser);
+        	if (ParseProfile.isActive()) parser.setProfile(true);  // collect decision stats
 
-        	ParseTree tree = parser.root(); //compilationUnit(); // parse
+        	boolean llReparse = false;
+        	ParseTree tree;
+        	if (streaming) {
+        		// extract rules as they are parsed, so full token stream and tree aren't retained
+        		int[] containerRules = new int[] {JSpecParser.RULE_register_set_def, JSpecParser.RULE_type_definition};
+        		int[] statementRules = new int[] {JSpecParser.RULE_num_constant_def, JSpecParser.RULE_string_constant_def, JSpecParser.RULE_type_definition, JSpecParser.RULE_typedef_instance, JSpecParser.RULE_register_set_def, JSpecParser.RULE_register_def, JSpecParser.RULE_value_assign, JSpecParser.RULE_test_group_def};
+        		StreamingExtractListener.setStreamingMode(parser, this, containerRules, statementRules);
+        		tree = parser.root();
+        	}
+        	else if (ParseProfile.isActive()) tree = parser.root();  // profile using full LL prediction
+        	else {
+        		// parse with fast SLL prediction, re-parsing with full LL if SLL fails
+        		TwoStageParse.setSllMode(parser);
+        		try {
+        			tree = parser.root(); //compilationUnit(); // parse
+        		} catch (ParseCancellationException e) {
+        			TwoStageParse.setLlMode(parser);
+        			tree = parser.root();
+        			llReparse = true;
+        		}
+        	}
+        	parsePhase.setCount("tokens", streaming? tokens.index() + 1 : tokens.size());
+        	parsePhase.setCount("ll_reparse", llReparse? 1 : 0);
+        	ParseProfile.add(jspecInputFile, parser);
+        	parsePhase.end();
         	//System.out.println(tree.toStringTree());
+        	RunStats.Phase walkPhase = RunStats.startPhase("extract jspec", new OrdtEvent.Extract().setInstancePath(jspecInputFile));  // listener walk stats
         	ParseTreeWalker walker = new ParseTreeWalker(); // create standard
-        	walker.walk(this, tree); // initiate walk of tree with listener
-        	if (parser.getNumberOfSyntaxErrors() > 0) {
-        		Ordt.errorExit("Jspec parser errors detected.");  
-        		System.exit(8);
-        	}
+        	if (!streaming) walker.walk(this, tree); // initiate walk of tree with listener
+        	if (parser.getNumberOfSyntaxErrors() > 0) Ordt.errorExit("Jspec parser errors detected.");
 
         	// if typedefs are specified for processing, find each and create an instance  
         	if (ExtParameters.hasJspecProcessTypedefs()) processTypedefs();
         	else if (root.getFirstChildInstance() == null)
         		Ordt.errorExit("No jspec structures instanced or typedefs specified for processing.");
+        	walkPhase.end();
 
         	//root.display(true);
 
@@ -108,6 +160,56 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
         }		
 	}
 	
+	/** extract definitions and constants from a parsed jspec library file
+	 * @param library parsed library file
+	 * @param libraries definitions of previous library files (null if none)
+	 * */
+	JSpecModelExtractor (LibraryLoader.ParsedLibrary library, ModelSnapshot libraries) {
+		this.jspecInputFile = library.getFileName();
+		this.libraries = libraries;
+		this.anonCompPrefix = "lib" + library.getIndex() + "_";  // keep anonymous ids unique across libraries
+		RunStats.Phase walkPhase = RunStats.startPhase("extract jspec library", new OrdtEvent.Extract().setInstancePath(jspecInputFile));
+		ParseTreeWalker walker = new ParseTreeWalker();
+		walker.walk(this, library.getTree());
+		if (library.getSyntaxErrors() > 0) Ordt.errorExit("Jspec parser errors detected in library " + jspecInputFile + ".");
+		walkPhase.end();
+	}
+	
+	/** lex/parse a jspec library file without extraction (may be called concurrently)
+	 * @param libFile library file name
+	 * @param index position of the library in library list */
+	static LibraryLoader.ParsedLibrary parseLibrary(String libFile, int index) throws IOException {
+		RunStats.Phase parsePhase = RunStats.startPhase("parse jspec library", new OrdtEvent.Parse().setInstancePath(libFile));
+		JSpecLexer lexer = new JSpecLexer(MappedCharStream.open(libFile));
+		CheckReport.addErrorListener(lexer);  // save syntax errors if checking
+		CommonTokenStream tokens = new CommonTokenStream(lexer);
+		JSpecParser parser = new JSpecParser(tokens);
+		CheckReport.addErrorListener(parser);
+		ParseTree tree;
+		if (ParseProfile.isActive()) {
+			parser.setProfile(true);
+			tree = parser.root();
+		}
+		else {
+			TwoStageParse.setSllMode(parser);
+			try {
+				tree = parser.root();
+			} catch (ParseCancellationException e) {
+				TwoStageParse.setLlMode(parser);
+				tree = parser.root();
+			}
+		}
+		parsePhase.setCount("tokens", tokens.size());
+		ParseProfile.add(libFile, parser);
+		parsePhase.end();
+		return new LibraryLoader.ParsedLibrary(libFile, index, tree, parser.getNumberOfSyntaxErrors());
+	}
+	
+	/** return numeric constants defined during extraction */
+	Map<String, RegNumber> getNumConstants() {
+		return numConstants;
+	}
+	
 
 	/** if typedefs are specified for processing, find each and create an instance.
 	 *  root_regset_is_addrmap value will be ignored for typedefs - always false  */  
@@ -569,6 +671,11 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 		root = (ModRootComponent) ModComponent.createModComponent("root");
 		activeCompDefs.push(root);   // push onto the active definition stack
 		typeDefActiveStates.push(false);  // typedef state
+		// add library definitions and constants
+		if (libraries != null) {
+			root.importLibrary(libraries.getRoot());
+			numConstants.putAll(libraries.getNumConstants());
+		}
 	}
 	
 	/**
@@ -732,6 +839,11 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 		return false;
 	}
 
+	/** return index of registers by address **/
+	public AddressIndex getAddressIndex() {
+		return AddressIndex.getIndex(this);
+	}
+
     // ------------------------------------------------------------------------------------------------
 	
 	/** set the indices for current field instance - return true if 
@@ -1052,7 +1164,7 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
         // if non-null (not a nop field) nameIndex extract component id, name
 		if (nameIndex != null) {
 			if (idIndex != null) id = ctx.getChild(1).getText();  // set name if specified else create one
-			else id = cType + anonCompId++;
+			else id = cType + anonCompPrefix + anonCompId++;
 			
 			name = ctx.getChild(nameIndex).getText(); 
 			if (name.length() > 2) name = name.substring(1, name.length() - 1);  // remove quotes
@@ -1187,158 +1299,67 @@ public class JSpecModelExtractor extends JSpecBaseListener implements RegModelIn
 	
 	/** 
 	 * return resolved numeric value of a simple expression
-	 * @param ctx context containing numeric expression
+	 * @param exprString numeric expression string
 	 * @return resolved numeric value
 	 */
 	private RegNumber resolveNumExpresion(String exprString) {
-		// extract extression tokens and resolve constants
-		String [] expArray = tokenizeNumExprString(exprString);
-		//System.out.println("JSpecModelExtractor: resolveNumExpresion, expArray=" + join(expArray));				
-		// resolve expression to a regNumber;
-		RegNumber regNum = new RegNumber(expArray);
-		if (regNum != null) {
-			if (!regNum.isDefined()) return null;
-			regNum.setNumBase(RegNumber.NumBase.Hex);
-			regNum.setNumFormat(RegNumber.NumFormat.Address);
-		}
-		//System.out.println("JSpecModelExtractor: resolveNumExpresion, new=" + regNum + ", expr=" + exprString);					
-		return regNum;
-	}
-
-/*	
-	private String join(String[] expArray) {
-		if (expArray == null) return null;
-		String str="";
-		for (int i=0; i<expArray.length; i++) {
-			str +=  " " + expArray[i];
-		}
-		return str;
-	}
-*/
-	
-	/** split a numeric expression string into a token array and resolve any constants/width functions
-	 * 
-	 * @param exprString - numeric expression string to be resolved
-	 * @return string[] of tokens
-	 */
-	private String[] tokenizeNumExprString(String exprString) {
 		boolean inhibitCheck = inhibitNextResolveCheck;
 		inhibitNextResolveCheck = false;
-		// split the string into a token list
-		exprString = exprString.replace("+", " + "); // pad operators
-		exprString = exprString.replace("-", " - ");
-		exprString = exprString.replace("*", " * ");
-		exprString = exprString.replace("/", " / ");
-		exprString = exprString.replace("^", " ^ ");
-		exprString = exprString.replace("<<", " << ");
-		exprString = exprString.replace(">>", " >> ");
-		exprString = exprString.replace("&", " & ");
-		exprString = exprString.replace("|", " | ");
-		exprString = exprString.replace("(", " ( ");
-		exprString = exprString.replace(")", " ) ");
-		exprString = exprString.trim();
-		//System.out.println("JSpecModelExtractor tokenizeNumExprString: post replace=" + exprString);
-		String [] expArray = exprString.split("\\s+");
-		//System.out.println("JSpecModelExtractor tokenizeNumExprString: post create, expArray=" + join(expArray));				
-		// resolve WIDTH function
-		expArray = resolveNumWidths(expArray, inhibitCheck);
-		//System.out.println("JSpecModelExtractor tokenizeNumExprString: post width, expArray=" + join(expArray));				
-		if (expArray == null) return null;	
+		NumExpression expr = NumExpression.compile(exprString);
+		// resolve WIDTH functions
+		List<String> widthRefs = expr.getWidthRefs();
+		BigInteger [] widthValues = new BigInteger[widthRefs.size()];
+		for (int idx=0; idx<widthRefs.size(); idx++) {
+			Integer width = resolveNumWidth(widthRefs.get(idx), inhibitCheck);
+			if (width == null) return null;
+			widthValues[idx] = BigInteger.valueOf(width);
+		}
 		// resolve any constants
-		expArray = resolveNumConstants(expArray, inhibitCheck);
-		//System.out.println("JSpecModelExtractor tokenizeNumExprString: post const, expArray=" + join(expArray));				
-		if (expArray == null) return null;
-		return expArray;
-	}
-	
-	/** resolve width functions and return resolved token string array
-	 * 
-	 * @param expArray - input expession array to be resolved
-	 * @return string array with resolved width functions
-	 */
-	private String[] resolveNumWidths(String[] expArray, boolean inhibitCheck) {
-		List<String> newExpArrayList = new ArrayList<String>();
-		// loop through string array and generate resolved list
-		for (int idx=0; idx<expArray.length; idx++) {  
-			String elem = expArray[idx];
-			// if width keyword detected in first token, resolve, otherwise error
-			if (elem.equals("WIDTH")) {
-				//System.out.println("JSpecModelExtractor: tokenizeNumExprString, WIDTH detected, idx=" + idx + ", elem=" + elem + "."); 
-				//if (idx == 0) {
-					// evaluate width of the function parm
-					String constId = expArray[idx + 2];
-					// first check the set of defined constants for a match and use it's width if found
-					RegNumber constVal = numConstants.get(constId);  // get defined constant value or null if not found
-					if ((constVal != null) && constVal.isDefined()) {
-						if (!constVal.isDefinedVector()) return null;  // no width defined
-						Integer constWidth = constVal.getVectorLen();
-						//System.out.println("JSpecModelExtractor: resolveNumWidths, WIDTH() of constant " + constId + " resolved to " + constWidth + "."); 
-						elem = constWidth.toString(); // overwrite elem with resolved value 
-						// skip past width width tokens
-						idx += 3;
-					}
-					// else check for a valid field/fieldset width
-					else {
-			        	Integer width = findFieldWidth(constId);
-			        	if (width != null) {
-							//System.out.println("JSpecModelExtractor: resolveNumWidths, WIDTH() of field/fieldset " + constId + " resolved to " + width + "."); 
-							elem = width.toString(); // overwrite elem with resolved value 
-							// skip past width tokens
-							idx += 3;
-			        	}
-			        	// no match found so exit with error 
-						else {
-							if (!inhibitCheck) Ordt.warnMessage("WIDTH(" + constId + ") could not be resolved."); 
-							return null;
-						}
-
-					}
-				//}
-				//else {
-				//	Jrdl.errorMessage("----> Non-standard WIDTH function could not be resolved.");  
-				//	return null;  // WIDTH is only allowed as first token
-				//}
+		List<String> constRefs = expr.getConstantRefs();
+		BigInteger [] constValues = new BigInteger[constRefs.size()];
+		boolean validConstants = true;
+		for (int idx=0; idx<constRefs.size(); idx++) {
+			String constId = constRefs.get(idx);
+			RegNumber constVal = numConstants.get(constId);  // get defined constant value or null if not found
+			if ((constVal == null) || !constVal.isDefined()) {
+				if (!inhibitCheck) Ordt.errorMessage("Constant " + constId + " could not be resolved.");  
+				return null;
 			}
-			newExpArrayList.add(elem);  //add the token to the list 
-		} //for
-		
-		// return result as a string array
-		String [] newExpArray = new String[newExpArrayList.size()];
-		int idx=0;
-		for (String str: newExpArrayList) newExpArray[idx++] = str;
-		return newExpArray;
+			if (constVal.getValue().signum() < 0) validConstants = false;  // negative constants are not valid expression values
+			constValues[idx] = constVal.getValue();
+		}
+		// evaluate the expression
+		BigInteger value = validConstants? expr.evaluate(widthValues, constValues) : null;
+		if (value == null) return null;
+		RegNumber regNum = new RegNumber(0);
+		regNum.setValue(value);
+		regNum.setNumBase(RegNumber.NumBase.Hex);
+		regNum.setNumFormat(RegNumber.NumFormat.Address);
+		//System.out.println("JSpecModelExtractor: resolveNumExpresion, new=" + regNum + ", expr=" + exprString);					
+		return regNum;
 	}
-	
-	/** resolve numeric constants and return resloved expression string array
+
+	/** resolve a WIDTH function using width of a constant or field/fieldset
 	 * 
-	 * @param expArray - input expession array to be resolved
-	 * @return string array with resolved width functions
+	 * @param constId - id of constant or field/fieldset
+	 * @return resolved width or null if not found
 	 */
-	private String[] resolveNumConstants(String[] expArray, boolean inhibitCheck) {
-		String [] newExpArray = expArray;
-		// loop through string array and generate resolved list
-		for (int idx=0; idx<expArray.length; idx++) {  
-			String elem = expArray[idx];  
-			// if not an operator or number then look for a defined constant
-			if (!("+-*/()<<>>|&^".contains(elem) || elem.matches("^(0[bx][_0-9A-Fa-f]+|\\d+)")) ) {
-				//System.out.println("JSpecModelExtractor: tokenizeNumExprString,    var=" + elem);	
-				RegNumber constVal = numConstants.get(elem);  // get defined constant value or null if not found
-				// if a defined constant, then update token
-				if ((constVal != null) && constVal.isDefined()) {
-					//System.out.println("JSpecModelExtractor resolveNumConstants: Constant " + elem + " resolved to " + constVal + ".");  
-					newExpArray[idx] = constVal.toString();
-				}
-				else {
-					if (!inhibitCheck) Ordt.errorMessage("Constant " + elem + " could not be resolved.");  
-					return null;
-				}
-			}
-		}  // for
-		
-		// return result as a string array
-		return newExpArray;
+	private Integer resolveNumWidth(String constId, boolean inhibitCheck) {
+		// first check the set of defined constants for a match and use it's width if found
+		RegNumber constVal = numConstants.get(constId);  // get defined constant value or null if not found
+		if ((constVal != null) && constVal.isDefined()) {
+			if (!constVal.isDefinedVector()) return null;  // no width defined
+			//System.out.println("JSpecModelExtractor: resolveNumWidth, WIDTH() of constant " + constId + " resolved to " + constVal.getVectorLen() + "."); 
+			return constVal.getVectorLen();
+		}
+		// else check for a valid field/fieldset width
+		Integer width = findFieldWidth(constId);
+		if (width == null) {
+			// no match found so exit with error 
+			if (!inhibitCheck) Ordt.warnMessage("WIDTH(" + constId + ") could not be resolved."); 
+		}
+		return width;
 	}
-
 	
 	/** remove escapes from instance/component id strings */
 	public static String noEscapes(String ref) {
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import ordt.annotate.AnnotateCommand;
+import ordt.extract.Ordt.InputType;
+import ordt.parameters.ExtParameters;
+
+/** loads library files whose definitions are added to the model root before the input file is extracted, as if
+ *  libraries were prepended to the input in order.  Libraries are lexed/parsed concurrently and then extracted in
+ *  order, since extraction can set parameters and later libraries can use earlier definitions.  If a cache directory
+ *  is specified, the definitions extracted through each library are saved as a model snapshot keyed by a hash of
+ *  ordt version, parameter assignments, and contents of the library and all preceding libraries, so libraries
+ *  shared by many blocks are only parsed once.
+ */
+class LibraryLoader {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+	private static final String cacheSuffix = ".ordtlib";
+
+	private List<String> libFiles;
+	private String cacheDir;  // directory of cached library snapshots (null if no caching)
+	private InputType inputType;
+
+	LibraryLoader(List<String> libFiles, String cacheDir, InputType inputType) {
+		this.libFiles = libFiles;
+		this.cacheDir = cacheDir;
+		this.inputType = inputType;
+	}
+
+	/** load libraries and apply parameter assignments/annotations defined in them
+	 * @return snapshot of definitions, constants, and input parameters/annotations of all libraries */
+	ModelSnapshot load() throws IOException {
+		for (String libFile : libFiles) {
+			if (libFile.endsWith("js") != (inputType == InputType.JSPEC))
+				throw new IOException("library file " + libFile + " type does not match input file");
+		}
+		List<String> keys = getCacheKeys();
+		// start with the longest cached list of libraries
+		ModelSnapshot libraries = null;
+		int firstUncached = 0;
+		if (cacheDir != null) {
+			new File(cacheDir).mkdirs();
+			for (int idx = libFiles.size() - 1; (idx >= 0) && (libraries == null); idx--) {
+				File cacheFile = new File(cacheDir, keys.get(idx) + cacheSuffix);
+				if (!cacheFile.exists()) continue;
+				try {
+					libraries = ModelSnapshot.load(cacheFile.getPath());
+					firstUncached = idx + 1;
+				} catch (IOException e) {
+					Ordt.warnMessage("ignoring invalid library cache file " + cacheFile + ". " + e.getMessage());
+				}
+			}
+		}
+		if (libraries != null) {
+			System.out.println("Ordt: using cached definitions of " + firstUncached + " library files...");
+			for (String[] assign : libraries.getInputAssignments()) ExtParameters.assignParameter(assign[0], assign[1]);
+			ExtParameters.getAnnotations().addAll(libraries.getInputAnnotations());
+		}
+		// parse remaining libraries concurrently, then extract in order
+		List<ParsedLibrary> parsedLibs = parse(firstUncached);
+		for (ParsedLibrary parsedLib : parsedLibs) {
+			List<String[]> assigns = ExtParameters.getAssignments();
+			List<AnnotateCommand> annotations = ExtParameters.getAnnotations();
+			int assignCount = assigns.size(), annotationCount = annotations.size();
+			RegModelIntf lib = (inputType == InputType.JSPEC)? new JSpecModelExtractor(parsedLib, libraries) : new RdlModelExtractor(parsedLib, libraries);
+			// save cumulative definitions and parameters/annotations of libraries so far
+			List<String[]> libAssigns = new ArrayList<String[]>();
+			List<AnnotateCommand> libAnnotations = new ArrayList<AnnotateCommand>();
+			if (libraries != null) {
+				libAssigns.addAll(libraries.getInputAssignments());
+				libAnnotations.addAll(libraries.getInputAnnotations());
+			}
+			libAssigns.addAll(assigns.subList(assignCount, assigns.size()));
+			libAnnotations.addAll(annotations.subList(annotationCount, annotations.size()));
+			libraries = new ModelSnapshot(lib, inputType, libAssigns, libAnnotations);
+			if (inputType == InputType.JSPEC) libraries.setNumConstants(((JSpecModelExtractor) lib).getNumConstants());
+			if (cacheDir != null) saveCacheFile(libraries, keys.get(parsedLib.getIndex()));
+		}
+		return libraries;
+	}
+
+	/** lex/parse libraries starting at specified index concurrently
+	 * @return list of parsed libraries in library order */
+	private List<ParsedLibrary> parse(int first) throws IOException {
+		List<ParsedLibrary> parsedLibs = new ArrayList<ParsedLibrary>();
+		if (first >= libFiles.size()) return parsedLibs;
+		int threads = Math.min(libFiles.size() - first, Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			// submit a parse task per library
+			List<Future<ParsedLibrary>> results = new ArrayList<Future<ParsedLibrary>>();
+			for (int idx = first; idx < libFiles.size(); idx++) {
+				final String libFile = libFiles.get(idx);
+				final int libIndex = idx;
+				results.add(pool.submit(new Callable<ParsedLibrary>() {
+					public ParsedLibrary call() throws IOException {
+						if (inputType == InputType.JSPEC) return JSpecModelExtractor.parseLibrary(libFile, libIndex);
+						return RdlModelExtractor.parseLibrary(libFile, libIndex);
+					}
+				}));
+			}
+			// wait for completion and pass along any failure
+			for (Future<ParsedLibrary> result : results) {
+				try {
+					parsedLibs.add(result.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+					if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+					throw new IOException(e.getCause());
+				} catch (InterruptedException e) {
+					throw new IOException("library parse interrupted");
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return parsedLibs;
+	}
+
+	/** return cache key of each library.  Key of a library is a hash of ordt version, model format, input type, current
+	 *  parameter assignments, and contents of the library and all preceding libraries. */
+	private List<String> getCacheKeys() throws IOException {
+		List<String> keys = new ArrayList<String>();
+		if (cacheDir == null) return keys;
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((Ordt.getVersion() + "\n" + ModelSnapshot.MODEL_FORMAT_VERSION + "\n" + inputType + "\n").getBytes(utf8));
+			for (String[] assign : ExtParameters.getAssignments()) digest.update((assign[0] + "=" + assign[1] + "\n").getBytes(utf8));
+			byte [] buffer = new byte[65536];
+			for (String libFile : libFiles) {
+				InputStream is = new FileInputStream(libFile);
+				try {
+					int count;
+					while ((count = is.read(buffer)) > 0) digest.update(buffer, 0, count);
+				} finally {
+					is.close();
+				}
+				keys.add(toHex(((MessageDigest) digest.clone()).digest()));
+			}
+		} catch (NoSuchAlgorithmException | CloneNotSupportedException e) {
+			throw new IOException("unable to compute library hash (" + e.getMessage() + ")");
+		}
+		return keys;
+	}
+
+	/** save a library snapshot in cache dir.  Snapshot is written to a temp file and moved so concurrent runs
+	 *  never see a partial file. */
+	private void saveCacheFile(ModelSnapshot libraries, String key) {
+		File cacheFile = new File(cacheDir, key + cacheSuffix);
+		try {
+			File tempFile = File.createTempFile(key, ".tmp", new File(cacheDir));
+			libraries.save(tempFile.getPath());
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to save library cache file " + cacheFile + ". " + e.getMessage());
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) hex.append(String.format("%02x", b & 0xff));
+		return hex.toString();
+	}
+
+	// ------------------------ parsed library class
+
+	/** parse tree of a library file */
+	static class ParsedLibrary {
+		private String fileName;
+		private int index;  // position in library list
+		private ParseTree tree;
+		private int syntaxErrors;
+
+		ParsedLibrary(String fileName, int index, ParseTree tree, int syntaxErrors) {
+			this.fileName = fileName;
+			this.index = index;
+			this.tree = tree;
+			this.syntaxErrors = syntaxErrors;
+		}
+
+		String getFileName() {
+			return fileName;
+		}
+
+		int getIndex() {
+			return index;
+		}
+
+		ParseTree getTree() {
+			return tree;
+		}
+
+		int getSyntaxErrors() {
+			return syntaxErrors;
+		}
+	}
+}
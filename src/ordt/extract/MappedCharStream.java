@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/** lexer char stream reading directly from a memory mapped input file, so the file is not copied to the heap 
+ *  and decoded before lexing.  Bytes are returned as chars while input is ascii.  At the first non-ascii byte 
+ *  read, the mapped file is decoded once using the default charset (as ANTLRInputStream would) and the stream 
+ *  continues from the decoded chars.  size() and getText() also decode the file if they find a non-ascii byte 
+ *  not yet read, so they always return decoded sizes and text.  Files too large to map are read using an 
+ *  ANTLRInputStream.
+ */
+class MappedCharStream implements CharStream {
+
+	private static final Charset latin1 = Charset.forName("ISO-8859-1");
+
+	private ByteBuffer data;  // mapped file contents
+	private CharBuffer chars;  // decoded file contents, set once a non-ascii byte is read
+	private int n;  // number of chars in the stream
+	private int p = 0;  // index of next char
+	private String name;  // source file name
+
+	private MappedCharStream(ByteBuffer data, String name) {
+		this.data = data;
+		this.n = data.limit();
+		this.name = name;
+	}
+
+	/** return a char stream for the specified file, mapping the file if it is small enough */
+	static CharStream open(String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+			FileChannel channel = file.getChannel();
+			if (channel.size() <= Integer.MAX_VALUE) {
+				ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());  // mapping stays valid after close
+				return new MappedCharStream(data, fileName);
+			}
+		}
+		try (InputStream is = new FileInputStream(fileName)) {
+			ANTLRInputStream input = new ANTLRInputStream(is);
+			input.name = fileName;
+			return input;
+		}
+	}
+
+	/** decode the mapped file on first non-ascii byte read.  The lexer reads each char before consuming it, so 
+	 *  all bytes before the current index are ascii and the index is unchanged in the decoded chars */
+	private void decode() {
+		chars = Charset.defaultCharset().decode(data.duplicate());  // malformed input is replaced, as in ANTLRInputStream
+		n = chars.limit();
+		data = null;
+	}
+
+	@Override
+	public void consume() {
+		if (p >= n) throw new IllegalStateException("cannot consume EOF");
+		p++;
+	}
+
+	@Override
+	public int LA(int i) {
+		if (i == 0) return 0;  // undefined
+		if (i < 0) i++;  // LA(-1) is previous char
+		int idx = p + i - 1;
+		if ((idx < 0) || (idx >= n)) return IntStream.EOF;
+		if (chars == null) {
+			byte b = data.get(idx);
+			if (b >= 0) return b;
+			decode();
+			if (idx >= n) return IntStream.EOF;
+		}
+		return chars.get(idx);
+	}
+
+	/** buffer is always available, so marks are not needed */
+	@Override
+	public int mark() {
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return p;
+	}
+
+	@Override
+	public void seek(int index) {
+		p = Math.min(index, n);
+	}
+
+	/** return size in chars, decoding the file if any byte not yet read is non-ascii */
+	@Override
+	public int size() {
+		if (chars == null) {
+			for (int idx = p; idx < n; idx++) {
+				if (data.get(idx) < 0) {
+					decode();
+					break;
+				}
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public String getSourceName() {
+		return name;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		int start = interval.a;
+		int stop = Math.min(interval.b, n - 1);
+		if (start >= n) return "";
+		int count = stop - start + 1;
+		if (count <= 0) return "";
+		if (chars != null) return chars.subSequence(start, start + count).toString();  // relative to position 0
+		byte[] bytes = new byte[count];
+		for (int idx = 0; idx < count; idx++) {
+			byte b = data.get(start + idx);
+			if (b < 0) {  // text not yet read is non-ascii, so return decoded chars
+				decode();
+				return getText(interval);
+			}
+			bytes[idx] = b;
+		}
+		return new String(bytes, latin1);
+	}
+
+	@Override
+	public String toString() {
+		return getText(Interval.of(0, n - 1));
+	}
+}
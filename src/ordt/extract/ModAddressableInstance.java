@@ -5,6 +5,8 @@ package ordt.extract;
 
 /** class of addressable model component instance (addrmap, regset, reg) */
 public class ModAddressableInstance extends ModInstance {
+	private static final long serialVersionUID = 1L;
+
 	// address elements
     private RegNumber address;
     private RegNumber addressIncrement;
@@ -3,12 +3,11 @@
  */
 package ordt.extract;
 
-import java.util.HashMap;
-
-import ordt.extract.PropertyList.PropertyValue;
+import java.io.Serializable;
 
 /** model base class (ModComponent and ModInstance are child types) */
-abstract class ModBaseComponent {
+abstract class ModBaseComponent implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	protected String id = "";   // id (type) of component
 	protected ModComponent parent;   // parent component of this entity
@@ -125,15 +124,15 @@ abstract class ModBaseComponent {
 	/** get properties
 	 *  @return the properties
 	 */
-	public HashMap<String, PropertyValue> getProperties() {
-		return properties.getProperties();
+	public PropertyList getProperties() {
+		return properties;
 	}
 	
 	/** get defaultProperties
 	 *  @return the defaultProperties
 	 */
-	public HashMap<String, PropertyValue> getDefaultProperties() {
-		return defaultProperties.getProperties();
+	public PropertyList getDefaultProperties() {
+		return defaultProperties;
 	}
 	
 	/** set a property  
@@ -188,10 +187,10 @@ abstract class ModBaseComponent {
 		defaultProperties.removeProperty(name);
 	}
 	
-	/** update default properties using values in supplied hashmap
-	 *  @param hashmap of properties to be set
+	/** update default properties using values in supplied list
+	 *  @param list of properties to be set
 	 */
-	public void updateDefaultProperties(HashMap<String, PropertyValue> updates) {
+	public void updateDefaultProperties(PropertyList updates) {
 		defaultProperties.updateProperties(updates);
 	}	
 
@@ -3,12 +3,16 @@
  */
 package ordt.extract;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import ordt.annotate.AnnotateCommand;
 import ordt.output.InstanceProperties;
@@ -16,6 +20,7 @@ import ordt.output.OutputBuilder;
 
 /** extracted model component type that can contain children */
 public abstract class ModComponent extends ModBaseComponent {
+	private static final long serialVersionUID = 1L;
 
 	protected List<ModComponent> childComponents;   // sub-component definitions contained in this component
 	protected List<ModInstance> childInstances;   // instances contained in this component
@@ -27,6 +32,10 @@ public abstract class ModComponent extends ModBaseComponent {
 	protected CompType compType = CompType.DEFAULT;
 	//protected boolean addressMap = false;   // regset is an address map
 	protected RegNumber alignedSize;   // size of this component in bytes assuming js alignment rules (used for addr alignment)
+	private transient ChildIndex<ModComponent> compDefIndex;  // child component definitions by id
+	private transient ChildIndex<ModInstance> instanceIndex;  // child instances by id
+	private transient ChildIndex<ModEnum> enumIndex;  // child enums by id
+	private static final Pattern repSuffixPattern = Pattern.compile("(\\S+)_\\d+$");  // replicated element in an instance path
 	
 	protected ModComponent() {
 		childComponents = new ArrayList<ModComponent>();
@@ -272,6 +281,7 @@ public abstract class ModComponent extends ModBaseComponent {
 	public void addChildComponent(ModComponent regComp) {
 		if (findLocalCompDef(regComp.getId()) != null) Ordt.errorMessage("Duplicate component (" + regComp.getId() + ") declared in component " + getId());
 		childComponents.add(regComp);		
+		compDefIndex.add(regComp);  // index is current after find
 	}
 	
 	/** get instancesOf
@@ -294,6 +304,7 @@ public abstract class ModComponent extends ModBaseComponent {
 	public void addCompInstance(ModInstance regInst) {
 		if (findLocalInstance(regInst.getId()) != null) Ordt.errorMessage("Duplicate instance (" + regInst.getId() + ") declared in component " + getId());
 		childInstances.add(regInst);		
+		instanceIndex.add(regInst);  // index is current after find
 	}
 
 	/** add a child enum
@@ -302,6 +313,7 @@ public abstract class ModComponent extends ModBaseComponent {
 	public void addCompEnum(ModEnum regEnum) {
 		if (findLocalEnum(regEnum.getId()) != null) Ordt.errorMessage("Duplicate enum (" + regEnum.getId() + ") declared in component " + getId());
 		enums.add(regEnum);		
+		enumIndex.add(regEnum);  // index is current after find
 	}
 	
 	/** get list of child enums for this comp
@@ -336,26 +348,28 @@ public abstract class ModComponent extends ModBaseComponent {
 	 *  @param id of component
 	 */
 	public ModComponent findLocalCompDef(String id) {
-		//System.out.println("*** looking for comp" + id + " in " + this.getId());
-		// loop through child components
-		for (ModComponent regComp : childComponents) {
-			//System.out.println("  * looking for " + id + ", found " + regComp.getId());
-			if ((regComp != null) && (regComp.getId().equals(id))) return regComp;
-		}
-		return null;
+		if ((compDefIndex == null) || !compDefIndex.isCurrent(childComponents)) compDefIndex = new ChildIndex<ModComponent>(childComponents);
+		return compDefIndex.get(id);
 	}
 
 	/** search for an instance in the child inst list
 	 *  @param id of inst
 	 */
 	public ModInstance findLocalInstance(String id) {    
-		//System.out.println("*** looking for inst" + id + " in " + this.getId());
-		// loop through child instances
-		for (ModInstance regInst : childInstances) {
-			//System.out.println("  * looking for " + id + ", found " + regComp.getId());
-			if ((regInst != null) && (regInst.getId().equals(id))) return regInst;
+		if ((instanceIndex == null) || !instanceIndex.isCurrent(childInstances)) instanceIndex = new ChildIndex<ModInstance>(childInstances);
+		return instanceIndex.get(id);
+	}
+
+	/** search for an instance in the child inst list, removing any rep suffix if not found
+	 *  @param id of inst or replicated inst (id_rep)
+	 */
+	public ModInstance findLocalPathInstance(String id) {
+		ModInstance regInst = findLocalInstance(id);
+		if ((regInst == null) && (id.indexOf('_') >= 0)) {
+			Matcher matcher = repSuffixPattern.matcher(id);
+			if (matcher.matches()) regInst = findLocalInstance(matcher.group(1));
 		}
-		return null;
+		return regInst;
 	}
 
 	/** search for an instance in local scope having specified path 
@@ -397,13 +411,8 @@ public abstract class ModComponent extends ModBaseComponent {
 	 *  @param id of enum
 	 */
 	private ModEnum findLocalEnum(String id) {     
-		//System.out.println("*** looking for enum" + id + " in " + this.getId());
-		// loop through child enums
-		for (ModEnum regEnum : enums) {
-			//System.out.println("  * looking for " + id + ", found " + regEnum.getId());
-			if ((regEnum != null) && (regEnum.getId().equals(id))) return regEnum;
-		}
-		return null;
+		if ((enumIndex == null) || !enumIndex.isCurrent(enums)) enumIndex = new ChildIndex<ModEnum>(enums);
+		return enumIndex.get(id);
 	}
 	
 	/** return all ancestor components in specified instance path
@@ -432,15 +441,7 @@ public abstract class ModComponent extends ModBaseComponent {
 		String baseInstName = instances.remove(0);
 		// search for this instance locally
 		//System.out.println("  * looking for inst=" + baseInstName);
-		ModInstance regInst = findLocalInstance(baseInstName);
-		// if not found then try assuming a replicated element in instance path
-		if (regInst == null) {
-			String newBaseInstName = "";
-			if (baseInstName.matches("\\S+_\\d+$")) {
-				newBaseInstName = baseInstName.replaceFirst("_\\d+$", "");
-				regInst = findLocalInstance(newBaseInstName);
-			}
-		}
+		ModInstance regInst = findLocalPathInstance(baseInstName);  // if not found then try assuming a replicated element in instance path
 		//if (regInst == null) {System.out.println("RegComponent: unable to find inst=" + baseInstName+ ",inst list size=" + instances.size()); this.display(this.getId()); System.exit(0); }
 		if (regInst == null) return compList;
 		//System.out.println("RegComponent: foound inst=" + baseInstName+ ",inst list size=" + instances.size());
@@ -470,6 +471,7 @@ public abstract class ModComponent extends ModBaseComponent {
 
 	/** get the post property assigns in this component parents given an instance path */
 	public PropertyList getPostPropertyAssigns(List<String> instPath) {
+		if (postPropertyAssignLists.isEmpty()) return null;
 		// build a string to match
 		Iterator<String> iter = instPath.iterator();
 		String path = "";
@@ -483,10 +485,41 @@ public abstract class ModComponent extends ModBaseComponent {
 	
 	// ------------------------------------ inner classes ----------------------------------------
 
+	/** hashed index of child elements by id.  The index is rebuilt if the indexed list is replaced or resized directly,
+	 *  and the first element having an id is found as in a list search */
+	private static class ChildIndex<T extends ModBaseComponent> {
+		private final List<T> elements;  // indexed list
+		private final Map<String, T> ids;
+		private int size;  // list size when last indexed
+
+		ChildIndex(List<T> elements) {
+			this.elements = elements;
+			ids = new HashMap<String, T>(elements.size() * 2);
+			for (T elem : elements) add(elem);
+		}
+
+		/** return true if the index is current for the specified list */
+		boolean isCurrent(List<T> list) {
+			return (list == elements) && (list.size() == size);
+		}
+
+		/** index an element added to the end of the list */
+		void add(T elem) {
+			size++;
+			if ((elem != null) && !ids.containsKey(elem.getId())) ids.put(elem.getId(), elem);
+		}
+
+		T get(String id) {
+			return ids.get(id);
+		}
+	}
+
 	/**
 	 *  parameter assign lists for all instances of a component
 	 */
-	public class CompParameterLists {
+	public class CompParameterLists implements Serializable {
+		private static final long serialVersionUID = 1L;
+
 		private HashMap<String, PropertyList> parmLists = new HashMap<String, PropertyList>();  // saved parm lists
 		
 		/** return parmList for the specified instance path
@@ -496,6 +529,11 @@ public abstract class ModComponent extends ModBaseComponent {
 		public PropertyList getParmList(String inst) {
 			return parmLists.get(inst);
 		}
+
+		/** return true if no parameter lists are saved */
+		public boolean isEmpty() {
+			return parmLists.isEmpty();
+		}
 		
 		public void display() {
 			System.out.println("    post assigned properties:");
@@ -511,6 +549,19 @@ public abstract class ModComponent extends ModBaseComponent {
 		public void addParmList(String inst, PropertyList pList) {
 			parmLists.put(inst, pList);
 		}
+
+		/** add copies of the parameter lists of another component.  Properties already assigned here take
+		 *  precedence, as if the added assigns preceded them
+		 *  @param lists - parameter lists to add
+		 */
+		public void addParmListsBefore(CompParameterLists lists) {
+			for (Map.Entry<String, PropertyList> entry : lists.parmLists.entrySet()) {
+				PropertyList pList = new PropertyList();  // copy, so added lists are not modified by later assigns
+				pList.updateProperties(entry.getValue());
+				pList.updateProperties(parmLists.get(entry.getKey()));
+				parmLists.put(entry.getKey(), pList);
+			}
+		}
 	}
 	
 	/** add a new parameter assignment
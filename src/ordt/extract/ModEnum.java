@@ -12,6 +12,8 @@ import java.util.List;
  *
  */
 public class ModEnum extends ModComponent {
+	private static final long serialVersionUID = 1L;
+
 	private List<ModEnumElement> enumElements = new ArrayList<ModEnumElement>();;   // enum elements contained in this enum
 	private Integer width;  // width of this enum encoding
 	
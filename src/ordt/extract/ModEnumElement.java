@@ -3,8 +3,12 @@
  */
 package ordt.extract;
 
+import java.io.Serializable;
+
 /** class containing info for an enum value within a RegENum */
-public class ModEnumElement {
+public class ModEnumElement implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	String id;    // id of this enumElement
 	RegNumber value = null;    // value of this enumElement
 	String name;     
@@ -3,7 +3,6 @@
  */
 package ordt.extract;
 
-import java.util.HashSet;
 import java.util.Iterator;
 
 import ordt.extract.Ordt.InputType;
@@ -12,6 +11,10 @@ import ordt.output.OutputBuilder;
 
 
 public class ModFieldSet extends ModComponent {
+	private static final long serialVersionUID = 1L;
+
+	private static final PropertyRegistry.NameSet implicitDefaultProperties = new PropertyRegistry.NameSet("dontcompare");
+	private static final PropertyRegistry.NameSet jspecImplicitDefaultProperties = new PropertyRegistry.NameSet(implicitDefaultProperties, "js_attributes", "sub_category");  // jspec also treats these as implicit defaults
 	boolean union = false;
 	
 	public ModFieldSet() {
@@ -31,14 +34,7 @@ public class ModFieldSet extends ModComponent {
 	/** default check for implicit default property assignments - overridden by child types */
 	@Override
 	protected boolean isImplicitDefaultProperty(String propertyName) {
-		HashSet<String> implicitDefaultProperties = new HashSet<String>();
-		// implicit default properties...
-		implicitDefaultProperties.add("dontcompare");
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-			implicitDefaultProperties.add("js_attributes");
-			implicitDefaultProperties.add("sub_category");			
-		}
-		return implicitDefaultProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecImplicitDefaultProperties : implicitDefaultProperties).contains(propertyName);
 	}
 
     /** return true if a union fieldset */
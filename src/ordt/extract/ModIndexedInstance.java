@@ -7,6 +7,8 @@ import ordt.parameters.Utils;
 
 /** class of indexed model component instances (fieldset, field, signal) */
 public class ModIndexedInstance extends ModInstance {
+	private static final long serialVersionUID = 1L;
+
 	// store indeces by width and offset (from high or low boolean set in model extractor)
 	protected Integer width = 1;   // bit width of this instance 
 	protected Integer offset;   // offset of this instance relative to parent
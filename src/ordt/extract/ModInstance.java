@@ -3,16 +3,16 @@
  */
 package ordt.extract;
 
-import java.util.HashMap;
-import java.util.HashSet;
-
 import ordt.annotate.AnnotateCommand;
 import ordt.extract.Ordt.InputType;
-import ordt.extract.PropertyList.PropertyValue;
 import ordt.output.OutputBuilder;
 
 /** class of model component instance */
 public class ModInstance extends ModBaseComponent {
+	private static final long serialVersionUID = 1L;
+
+	private static final PropertyRegistry.NameSet implicitDefaultProperties = new PropertyRegistry.NameSet("donttest", "dontcompare");
+	private static final PropertyRegistry.NameSet jspecImplicitDefaultProperties = new PropertyRegistry.NameSet(implicitDefaultProperties, "js_attributes", "category", "sub_category");  // jspec also treats these as implicit defaults
 	
 	protected ModComponent regComp;  // reg component to be instanced (vs parent, which a component that contains this inst)
 	protected boolean isAddressable = false;
@@ -69,17 +69,7 @@ public class ModInstance extends ModBaseComponent {
 	/** default check for implicit default property assignments - overridden by child types */
     @Override
 	protected boolean isImplicitDefaultProperty(String propertyName) {
-		HashSet<String> implicitDefaultProperties = new HashSet<String>();
-		// implicit default properties...
-		implicitDefaultProperties.add("donttest");
-		implicitDefaultProperties.add("dontcompare");
-		// if jspec, interpret as implicit default
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-			implicitDefaultProperties.add("js_attributes");
-			implicitDefaultProperties.add("category");
-			implicitDefaultProperties.add("sub_category");			
-		}
-		return implicitDefaultProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecImplicitDefaultProperties : implicitDefaultProperties).contains(propertyName);
 	}
 	
 	/** return a string representing this sub-class for messages - overridden by child types */
@@ -131,19 +121,19 @@ public class ModInstance extends ModBaseComponent {
 		return parent.isRoot();
 	}
 
-	/** update parms using values in supplied hashmap
+	/** update parms using values in supplied list
 	 *  @param parms the parms to set
 	 *
 	@Override */
-	public void updateProperties(HashMap<String, PropertyValue> updates) {
+	public void updateProperties(PropertyList updates) {
 		//if (getId().equals("str")) System.out.println("ModInstance updateProperties: " + this.getFullId() + ", updates=" + updates);
-		for (String key: updates.keySet()) {
-			PropertyValue prop = updates.get(key);
-			String val = prop.getValue();
-			int depth = prop.getDepth();
+		for (int idx=0; idx<updates.size(); idx++) {
+			String key = updates.getName(idx);
+			String val = updates.getValue(idx);
+			int depth = updates.getDepth(idx);
 			//if (getId().equals("spin") && "category".equals(key)) System.out.println("ModInstance updateProperties: " + this.getFullId() + ", cat update=" + val);
 			// only update if instance doesnt already have the property
-			if (!properties.getProperties().containsKey(key)) {     // TODO - simplify this?
+			if (!properties.hasProperty(key)) {
 				// update numeric instance var values (info passed from components)
 				if ("repcount".equals(key)) setRepCount(Integer.valueOf(val));
 				// set other numerics (overriden by child classes)
@@ -3,15 +3,23 @@
  */
 package ordt.extract;
 
-import java.util.HashSet;
-
 import ordt.extract.Ordt.InputType;
+import ordt.extract.RegNumber.NumBase;
+import ordt.extract.RegNumber.NumFormat;
 import ordt.output.OutputBuilder;
 import ordt.output.RegProperties;
 import ordt.output.RegSetProperties;
 import ordt.parameters.ExtParameters;
 
 public class ModRegSet extends ModComponent {
+	private static final long serialVersionUID = 1L;
+
+	private static final PropertyRegistry.NameSet validProperties = new PropertyRegistry.NameSet("name", "desc", "donttest", "dontcompare", "js_superset_check", "external", "external_decode",
+			"repcount", "use_interface", "use_new_interface");
+	private static final PropertyRegistry.NameSet jspecValidProperties = new PropertyRegistry.NameSet(validProperties, "sub_category", "js_attributes", "category", "regwidth", "address", "arrayidx1",
+			"addrinc");  // jspec also allows these
+	private static final PropertyRegistry.NameSet implicitDefaultProperties = new PropertyRegistry.NameSet("donttest", "dontcompare");
+	private static final PropertyRegistry.NameSet jspecImplicitDefaultProperties = new PropertyRegistry.NameSet(implicitDefaultProperties, "js_attributes", "sub_category", "category", "regwidth");  // jspec also treats these as implicit defaults
 	
 	protected ModRegSet() {
 		super();
@@ -30,49 +38,13 @@ public class ModRegSet extends ModComponent {
 	/** default check on valid property assignments - overridden by child types */
 	@Override
 	protected boolean isValidProperty(String propertyName) {
-		HashSet<String> validProperties = new HashSet<String>();
-		validProperties.add("name");
-		validProperties.add("desc");
-		// implicit default properties...
-		validProperties.add("donttest");
-		validProperties.add("dontcompare");
-		validProperties.add("js_superset_check");
-		// 
-		validProperties.add("external");
-		validProperties.add("external_decode");
-		validProperties.add("repcount");
-		validProperties.add("use_interface");
-		validProperties.add("use_new_interface");
-		// if jspec, allow these 
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-		  validProperties.add("sub_category");
-		  validProperties.add("js_attributes");
-		  validProperties.add("category");
-		  validProperties.add("regwidth");
-		  // allow the following properties for jspec (specified in reg component but passed to instance)
-		  validProperties.add("address");
-		  validProperties.add("arrayidx1");
-		  validProperties.add("addrinc");
-		}
-		return validProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecValidProperties : validProperties).contains(propertyName);
 	}
 	
 	/** default check for implicit default property assignments - overridden by child types */
     @Override
 	protected boolean isImplicitDefaultProperty(String propertyName) {
-		HashSet<String> implicitDefaultProperties = new HashSet<String>();
-		// implicit default properties...
-		implicitDefaultProperties.add("donttest");
-		implicitDefaultProperties.add("dontcompare");
-		// if jspec, interpret as implicit default
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-			implicitDefaultProperties.add("js_attributes");
-			implicitDefaultProperties.add("sub_category");
-			//implicitDefaultProperties.add("js_superset_check");
-			implicitDefaultProperties.add("category");
-			implicitDefaultProperties.add("regwidth");
-		}
-		return implicitDefaultProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecImplicitDefaultProperties : implicitDefaultProperties).contains(propertyName);
 	}
 	
 	/** return a string representing this sub-class for messages - overridden by child types */
@@ -105,6 +77,8 @@ public class ModRegSet extends ModComponent {
 			}
 		}
 		newAlignedSize.setNextHighestPowerOf2();  // round size to next power of 2  
+		newAlignedSize.setNumBase(NumBase.Hex);  // sizes are displayed as hex addresses
+		newAlignedSize.setNumFormat(NumFormat.Address);
 		this.alignedSize = newAlignedSize;
 	}
 
@@ -3,9 +3,9 @@
  */
 package ordt.extract;
 
-import java.util.HashSet;
-
 import ordt.extract.Ordt.InputType;
+import ordt.extract.RegNumber.NumBase;
+import ordt.extract.RegNumber.NumFormat;
 import ordt.output.OutputBuilder;
 import ordt.output.RegProperties;
 import ordt.output.RegSetProperties;
@@ -13,6 +13,14 @@ import ordt.parameters.ExtParameters;
 
 /** register class extracted from definition lang */
 public class ModRegister extends ModComponent  {
+	private static final long serialVersionUID = 1L;
+
+	private static final PropertyRegistry.NameSet validProperties = new PropertyRegistry.NameSet("name", "desc", "donttest", "dontcompare", "category", "js_attributes", "js_superset_check",
+			"external", "aliasedId", "regwidth", "repcount", "uvmreg_is_mem", "use_interface",
+			"use_new_interface", "cppmod_prune");
+	private static final PropertyRegistry.NameSet jspecValidProperties = new PropertyRegistry.NameSet(validProperties, "sub_category", "address", "arrayidx1", "addrinc");  // jspec also allows these
+	private static final PropertyRegistry.NameSet implicitDefaultProperties = new PropertyRegistry.NameSet("dontcompare");
+	private static final PropertyRegistry.NameSet jspecImplicitDefaultProperties = new PropertyRegistry.NameSet(implicitDefaultProperties, "js_attributes", "sub_category");  // jspec also treats these as implicit defaults
 		
 	private int padBits = 0;  // number of unused bits in this reg / used to compute field offsets for inputs that allow pad (jspec)   
 	
@@ -24,45 +32,13 @@ public class ModRegister extends ModComponent  {
 	/** default check on valid property assignments - overridden by child types */
 	@Override
 	protected boolean isValidProperty(String propertyName) {
-		HashSet<String> validProperties = new HashSet<String>();
-		validProperties.add("name");
-		validProperties.add("desc");
-		validProperties.add("donttest");
-		validProperties.add("dontcompare");
-		validProperties.add("category");
-		validProperties.add("js_attributes");
-		validProperties.add("js_superset_check");
-		validProperties.add("external");
-		validProperties.add("aliasedId");
-		validProperties.add("regwidth");
-		validProperties.add("repcount");
-		validProperties.add("uvmreg_is_mem");
-		validProperties.add("use_interface");
-		validProperties.add("use_new_interface");
-		validProperties.add("cppmod_prune");
-		// if jspec, allow these 
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-		  validProperties.add("sub_category");
-		  // allow the following properties for jspec (specified in reg component but passed to instance)
-		  validProperties.add("address");
-		  validProperties.add("arrayidx1");
-		  validProperties.add("addrinc");
-		}
-		return validProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecValidProperties : validProperties).contains(propertyName);
 	}
 	
 	/** default check for implicit default property assignments - overridden by child types */
     @Override
 	protected boolean isImplicitDefaultProperty(String propertyName) {
-		HashSet<String> implicitDefaultProperties = new HashSet<String>();
-		// implicit default properties...
-		implicitDefaultProperties.add("dontcompare");
-		// if jspec, interpret as implicit default
-		if (Ordt.hasInputType(InputType.JSPEC)) {
-			implicitDefaultProperties.add("js_attributes");
-			implicitDefaultProperties.add("sub_category");
-		}
-		return implicitDefaultProperties.contains(propertyName);
+		return (Ordt.hasInputType(InputType.JSPEC)? jspecImplicitDefaultProperties : implicitDefaultProperties).contains(propertyName);
 	}
 	
 	/** return a string representing this sub-class for messages - overridden by child types */
@@ -101,6 +77,8 @@ public class ModRegister extends ModComponent  {
 		//System.out.println("ModRegister setMinSize, register instance=" + getId() + ", regwidth=" + newMinSize);
 		newMinSize.setNextHighestPowerOf2();  // round to next power of 2
 		//System.out.println("ModRegister setMinSize, register instance=" + getId() + ", regwidth=" + newMinSize);
+		newMinSize.setNumBase(NumBase.Hex);  // sizes are displayed as hex addresses
+		newMinSize.setNumFormat(NumFormat.Address);
 		this.alignedSize = newMinSize;
 	}
 	
@@ -3,9 +3,19 @@
  */
 package ordt.extract;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import ordt.output.OutputBuilder;
 
 public class ModRootComponent extends ModComponent {
+	private static final long serialVersionUID = 1L;
+
+	private transient AddressLayout addressLayout;  // address layout computed after model alignment/annotation
+	private transient volatile Map<String, List<ModComponent>> pathIndex;  // components in path of each non-register instance
 
 	ModRootComponent () {
 		setId("root");  // set root name
@@ -17,6 +27,98 @@ public class ModRootComponent extends ModComponent {
 		childInstances.clear();
 	}
 
+	/** add component definitions, instances, enums, default properties, and post property assigns of a library
+	 *  root to this root.  Library elements are re-parented to this root. */
+	public void importLibrary(ModComponent libraryRoot) {
+		for (ModComponent regComp : libraryRoot.childComponents) {
+			addChildComponent(regComp);
+			regComp.setParent(this);
+		}
+		for (ModInstance regInst : libraryRoot.childInstances) {
+			addCompInstance(regInst);
+			regInst.setParent(this);
+		}
+		for (ModEnum regEnum : libraryRoot.enums) {
+			addCompEnum(regEnum);
+			regEnum.setParent(this);
+		}
+		updateDefaultProperties(libraryRoot.getDefaultProperties());
+		postPropertyAssignLists.addParmListsBefore(libraryRoot.postPropertyAssignLists);
+	}
+
+	/** get the address layout of this model (null if not computed) */
+	public AddressLayout getAddressLayout() {
+		return addressLayout;
+	}
+
+	/** set the address layout of this model */
+	public void setAddressLayout(AddressLayout addressLayout) {
+		this.addressLayout = addressLayout;
+	}
+
+	/** index the components in the instance path of each regset/fieldset in the model so paths are resolved by hash lookup.
+	 *  Register and field paths are not stored, so are resolved from their parent path */
+	public void buildPathIndex() {
+		Map<String, List<ModComponent>> index = new HashMap<String, List<ModComponent>>();
+		List<ModComponent> rootComps = Collections.<ModComponent>singletonList(this);
+		for (ModInstance regInst : childInstances) addPathIndex(index, regInst.getId(), rootComps, regInst);
+		pathIndex = index;
+	}
+
+	/** add the path components of an instance and its non-register descendants to a path index */
+	private static void addPathIndex(Map<String, List<ModComponent>> index, String path, List<ModComponent> parentComps, ModInstance regInst) {
+		ModComponent regComp = regInst.getRegComp();
+		if ((regComp == null) || regComp.isReg() || regComp.isField() || index.containsKey(path)) return;  // first instance having a path is used
+		List<ModComponent> comps = new ArrayList<ModComponent>(parentComps.size() + 1);
+		comps.addAll(parentComps);
+		comps.add(regComp);
+		comps = Collections.unmodifiableList(comps);
+		index.put(path, comps);
+		for (ModInstance childInst : regComp.childInstances) addPathIndex(index, path + "." + childInst.getId(), comps, childInst);
+	}
+
+	/** return components containing each element of an instance path starting at root (same as getPathComponents
+	 *  with a path list).  The returned list should not be modified.
+	 *  @param instPath - instance path string with elements separated by '.' 
+	 */
+	public List<ModComponent> getPathComponents(String instPath) {
+		Map<String, List<ModComponent>> index = pathIndex;
+		if (index == null) {
+			buildPathIndex();
+			index = pathIndex;
+		}
+		int lastDot = instPath.lastIndexOf('.');
+		if (lastDot < 0) return Collections.<ModComponent>singletonList(this);
+		String parentPath = instPath.substring(0, lastDot);
+		return getIndexedPathComponents(index, parentPath, countPathElements(parentPath));
+	}
+
+	/** return components containing each element of an instance path plus the component of the last element.
+	 *  The list is truncated at the first element not found */
+	private List<ModComponent> getIndexedPathComponents(Map<String, List<ModComponent>> index, String instPath, int elements) {
+		List<ModComponent> comps = index.get(instPath);
+		if (comps != null) return comps;
+		// not indexed (register or replicated element), so find last element in parent path components
+		int lastDot = instPath.lastIndexOf('.');
+		List<ModComponent> parentComps = (lastDot < 0)? Collections.<ModComponent>singletonList(this) : getIndexedPathComponents(index, instPath.substring(0, lastDot), elements - 1);
+		if (parentComps.size() != elements) return parentComps;  // parent path not found
+		ModInstance regInst = parentComps.get(elements - 1).findLocalPathInstance(instPath.substring(lastDot + 1));
+		if (regInst == null) return parentComps;
+		comps = new ArrayList<ModComponent>(elements + 1);
+		comps.addAll(parentComps);
+		comps.add(regInst.getRegComp());
+		return comps;
+	}
+
+	/** return the number of elements in an instance path */
+	private static int countPathElements(String instPath) {
+		int elements = 1;
+		for (int idx=0; idx<instPath.length(); idx++) {
+			if (instPath.charAt(idx) == '.') elements++;
+		}
+		return elements;
+	}
+
 	/** compute min size of all instanced subcomponents */  
 	public void setAlignedSize() {
         // only use first instance for size computation (assumes no addr/shift/mod on root inst)
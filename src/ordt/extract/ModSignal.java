@@ -7,6 +7,7 @@ import ordt.output.OutputBuilder;
 import ordt.output.SignalProperties;
 
 public class ModSignal extends ModComponent {
+	private static final long serialVersionUID = 1L;
 	
 	/** create a new indexed model instance of this component */
 	@Override
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ordt.annotate.AnnotateCommand;
+import ordt.extract.Ordt.InputType;
+
+/** binary snapshot of an extracted model (pre annotation) that can be loaded in place of rdl/jspec input
+ *  or used to copy a parsed model.  Parameter assignments and annotate commands defined in the original input
+ *  file are saved so they can be restored on load.  A snapshot is rejected on load if written by a different
+ *  ordt version or model format.  Model classes declare fixed serialVersionUIDs, so MODEL_FORMAT_VERSION must
+ *  be bumped whenever serialized fields of a model class (ModComponent, ModInstance, RegNumber, PropertyList,
+ *  AnnotateCommand, etc) change.
+ */
+public class ModelSnapshot implements RegModelIntf, Serializable {
+	private static final long serialVersionUID = 1L;
+	/** version of the serialized model class layout, written ahead of each snapshot and saved model fragment */
+	public static final int MODEL_FORMAT_VERSION = 1;
+
+	private String version;  // ordt version that created this snapshot
+	private ModComponent root;
+	private String ordtInputFile;
+	private boolean fieldOffsetsFromZero;
+	private InputType inputType;
+	private List<String[]> inputAssignments;  // parameter assignments made in the input file
+	private List<AnnotateCommand> inputAnnotations;  // annotate commands defined in the input file
+	private Map<String, RegNumber> numConstants = new HashMap<String, RegNumber>();  // numeric constants defined in the input (jspec)
+
+	public ModelSnapshot(RegModelIntf model, InputType inputType, List<String[]> inputAssignments, List<AnnotateCommand> inputAnnotations) {
+		this.version = Ordt.getVersion();
+		this.root = model.getRoot();
+		this.ordtInputFile = model.getOrdtInputFile();
+		this.fieldOffsetsFromZero = model.fieldOffsetsFromZero();
+		this.inputType = inputType;
+		this.inputAssignments = new ArrayList<String[]>(inputAssignments);
+		this.inputAnnotations = new ArrayList<AnnotateCommand>(inputAnnotations);
+	}
+
+	/** write this snapshot to specified file */
+	public void save(String fileName) throws IOException {
+		write(new BufferedOutputStream(new FileOutputStream(fileName)));
+	}
+
+	/** return this snapshot as a byte array */
+	public byte[] toBytes() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		write(bytes);
+		return bytes.toByteArray();
+	}
+
+	/** load a snapshot from specified file */
+	public static ModelSnapshot load(String fileName) throws IOException {
+		return read(new BufferedInputStream(new FileInputStream(fileName)));
+	}
+
+	/** load a snapshot from a byte array created by toBytes */
+	public static ModelSnapshot fromBytes(byte[] bytes) throws IOException {
+		return read(new ByteArrayInputStream(bytes));
+	}
+
+	/** write this snapshot to a stream and close it */
+	private void write(OutputStream stream) throws IOException {
+		ObjectOutputStream os = new ObjectOutputStream(stream);
+		try {
+			os.writeInt(MODEL_FORMAT_VERSION);  // checked before model classes are read
+			os.writeObject(this);
+		} finally {
+			os.close();
+		}
+	}
+
+	/** read a snapshot from a stream and close it */
+	private static ModelSnapshot read(InputStream stream) throws IOException {
+		ObjectInputStream is = new ObjectInputStream(stream);
+		try {
+			int format;
+			try {
+				format = is.readInt();
+			} catch (IOException e) {
+				throw new IOException("snapshot has no model format version (created by an older ordt build)");
+			}
+			if (format != MODEL_FORMAT_VERSION)
+				throw new IOException("snapshot model format " + format + " does not match current format " + MODEL_FORMAT_VERSION);
+			ModelSnapshot snapshot = (ModelSnapshot) is.readObject();
+			if (!Ordt.getVersion().equals(snapshot.version))
+				throw new IOException("snapshot was created by ordt version " + snapshot.version);
+			return snapshot;
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("invalid model snapshot (" + e.getMessage() + ")");
+		} finally {
+			is.close();
+		}
+	}
+
+	/** return true if specified file is a model snapshot (starts with java serialization stream header) */
+	public static boolean isSnapshot(String fileName) {
+		DataInputStream is = null;
+		try {
+			is = new DataInputStream(new FileInputStream(fileName));
+			return is.readShort() == ObjectStreamConstants.STREAM_MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			try {
+				if (is != null) is.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/** return the input type of the original model */
+	public InputType getInputType() {
+		return inputType;
+	}
+
+	/** return parameter assignments made in the original input file */
+	public List<String[]> getInputAssignments() {
+		return inputAssignments;
+	}
+
+	/** return annotate commands defined in the original input file */
+	public List<AnnotateCommand> getInputAnnotations() {
+		return inputAnnotations;
+	}
+
+	/** return numeric constants defined in the original input file */
+	public Map<String, RegNumber> getNumConstants() {
+		return numConstants;
+	}
+
+	/** save numeric constants defined in the original input file */
+	public void setNumConstants(Map<String, RegNumber> numConstants) {
+		this.numConstants = new HashMap<String, RegNumber>(numConstants);
+	}
+
+	// ------------------------ RegModelIntf methods
+
+	@Override
+	public ModComponent getRoot() {
+		return root;
+	}
+
+	@Override
+	public ModInstance getRootInstance() {
+		return getRoot().getFirstChildInstance();
+	}
+
+	@Override
+	public ModComponent getRootInstancedComponent() {
+		if (getRootInstance() != null) return getRootInstance().getRegComp();
+		return null;
+	}
+
+	@Override
+	public String getOrdtInputFile() {
+		return ordtInputFile;
+	}
+
+	@Override
+	public boolean fieldOffsetsFromZero() {
+		return fieldOffsetsFromZero;
+	}
+
+	@Override
+	public AddressIndex getAddressIndex() {
+		return AddressIndex.getIndex(this);
+	}
+}
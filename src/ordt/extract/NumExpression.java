@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** compiled jspec numeric expression.  An expression string is compiled once into a tree with literal
+ *  subexpressions folded, and the list of constant and WIDTH() references it uses.  The caller resolves the
+ *  references and evaluates the tree using long arithmetic, falling back to BigInteger on overflow.
+ *  Operator precedence matches RegNumber(String[]): ^ first, then * /, then + - << >> & | (all left associative).
+ */
+class NumExpression {
+
+	private static final int maxCachedExpressions = 65536;
+	private static Map<String, NumExpression> compiledExpressions = new ConcurrentHashMap<String, NumExpression>();
+
+	private enum NodeType {LITERAL, CONSTANT, WIDTH, OPERATOR}
+
+	private List<String> widthRefs = new ArrayList<String>();  // ids used in WIDTH() functions in expression order
+	private List<String> constantRefs = new ArrayList<String>();  // constant ids in expression order
+	private Node root;  // expression tree (null if expression is invalid)
+
+	// compile state
+	private List<String> tokens;
+	private int pos;
+	private boolean valid = true;
+
+	private NumExpression() {}
+
+	/** return compiled form of an expression string, compiling it if not previously seen */
+	static NumExpression compile(String exprString) {
+		NumExpression expr = compiledExpressions.get(exprString);
+		if (expr == null) {
+			expr = new NumExpression();
+			expr.build(exprString);
+			if (compiledExpressions.size() < maxCachedExpressions) compiledExpressions.put(exprString, expr);
+		}
+		return expr;
+	}
+
+	/** return ids used in WIDTH() functions in the order they appear */
+	List<String> getWidthRefs() {
+		return widthRefs;
+	}
+
+	/** return ids of referenced constants in the order they appear */
+	List<String> getConstantRefs() {
+		return constantRefs;
+	}
+
+	/** evaluate the expression
+	 * @param widthValues - resolved value of each WIDTH() reference
+	 * @param constantValues - resolved value of each constant reference
+	 * @return expression value or null if expression is invalid */
+	BigInteger evaluate(BigInteger[] widthValues, BigInteger[] constantValues) {
+		if (root == null) return null;
+		long[] widths = toLongs(widthValues), constants = toLongs(constantValues);
+		if ((widths != null) && (constants != null)) {
+			try {
+				return BigInteger.valueOf(root.evaluate(widths, constants));
+			} catch (ArithmeticException e) {
+				// overflow, so evaluate using BigInteger
+			}
+		}
+		return root.evaluate(widthValues, constantValues);
+	}
+
+	/** convert values to longs (null if any value does not fit) */
+	private static long[] toLongs(BigInteger[] values) {
+		long[] longs = new long[values.length];
+		for (int idx=0; idx<values.length; idx++) {
+			if (values[idx].bitLength() > 63) return null;
+			longs[idx] = values[idx].longValue();
+		}
+		return longs;
+	}
+
+	// ------------------------ compile methods
+
+	/** tokenize and parse an expression string */
+	private void build(String exprString) {
+		tokens = tokenize(exprString);
+		pos = 0;
+		Node node = parseExpression(0);
+		if (valid && (node != null) && (pos == tokens.size())) root = node;
+		tokens = null;
+	}
+
+	/** split expression string into operator, paren, and literal/id tokens */
+	private static List<String> tokenize(String exprString) {
+		List<String> tokens = new ArrayList<String>();
+		int len = exprString.length();
+		int idx = 0;
+		while (idx < len) {
+			char c = exprString.charAt(idx);
+			if (Character.isWhitespace(c)) idx++;
+			else if (exprString.startsWith("<<", idx) || exprString.startsWith(">>", idx)) {
+				tokens.add(exprString.substring(idx, idx + 2));
+				idx += 2;
+			}
+			else if ("+-*/^&|()".indexOf(c) >= 0) {
+				tokens.add(String.valueOf(c));
+				idx++;
+			}
+			else {
+				int start = idx;
+				while ((idx < len) && !Character.isWhitespace(exprString.charAt(idx)) && ("+-*/^&|()".indexOf(exprString.charAt(idx)) < 0) &&
+						!exprString.startsWith("<<", idx) && !exprString.startsWith(">>", idx)) idx++;
+				tokens.add(exprString.substring(start, idx));
+			}
+		}
+		return tokens;
+	}
+
+	/** return operator precedence level of a token (-1 if not a binary operator) */
+	private static int getPrecedence(String token) {
+		if ("^".equals(token)) return 2;
+		if ("*".equals(token) || "/".equals(token)) return 1;
+		if ("+".equals(token) || "-".equals(token) || "<<".equals(token) || ">>".equals(token) || "&".equals(token) || "|".equals(token)) return 0;
+		return -1;
+	}
+
+	/** parse a left associative expression containing operators of specified precedence and higher */
+	private Node parseExpression(int precedence) {
+		Node lhs = (precedence > 2)? parsePrimary() : parseExpression(precedence + 1);
+		if ((precedence > 2) || (lhs == null)) return lhs;
+		while ((pos < tokens.size()) && (getPrecedence(tokens.get(pos)) == precedence)) {
+			String op = tokens.get(pos++);
+			Node rhs = parseExpression(precedence + 1);
+			if (rhs == null) return null;
+			lhs = Node.newOperator(op, lhs, rhs);
+		}
+		return lhs;
+	}
+
+	/** parse a literal, constant, WIDTH() function, or parenthesized expression */
+	private Node parsePrimary() {
+		if (pos >= tokens.size()) return null;
+		String token = tokens.get(pos++);
+		if ("(".equals(token)) {
+			Node node = parseExpression(0);
+			if ((node == null) || (pos >= tokens.size()) || !")".equals(tokens.get(pos++))) return null;
+			return node;
+		}
+		if (getPrecedence(token) >= 0 || ")".equals(token)) return null;
+		// width function
+		if ("WIDTH".equals(token)) {
+			if ((pos + 2 >= tokens.size()) || !"(".equals(tokens.get(pos)) || !")".equals(tokens.get(pos + 2))) return null;
+			widthRefs.add(tokens.get(pos + 1));
+			pos += 3;
+			return Node.newReference(NodeType.WIDTH, widthRefs.size() - 1);
+		}
+		// numeric literal
+		if (token.matches("^(0[bx][_0-9A-Fa-f]+|\\d+)")) {
+			RegNumber num = new RegNumber(token);
+			if (!num.isDefined()) valid = false;  // continue to collect references
+			return Node.newLiteral(num.isDefined()? num.getValue() : BigInteger.ZERO);
+		}
+		// constant
+		constantRefs.add(token);
+		return Node.newReference(NodeType.CONSTANT, constantRefs.size() - 1);
+	}
+
+	// ------------------------ expression tree node class
+
+	private static class Node {
+		private NodeType type;
+		private BigInteger value;  // literal value
+		private long longValue;
+		private boolean isLong;  // literal value fits in a long
+		private int refIndex;  // index of constant/width reference
+		private String op;
+		private Node lhs;
+		private Node rhs;
+
+		private static Node newLiteral(BigInteger value) {
+			Node node = new Node();
+			node.type = NodeType.LITERAL;
+			node.value = value;
+			node.isLong = value.bitLength() < 64;
+			node.longValue = value.longValue();
+			return node;
+		}
+
+		private static Node newReference(NodeType type, int refIndex) {
+			Node node = new Node();
+			node.type = type;
+			node.refIndex = refIndex;
+			return node;
+		}
+
+		/** create an operator node, folding it to a literal if both operands are literals */
+		private static Node newOperator(String op, Node lhs, Node rhs) {
+			Node node = new Node();
+			node.type = NodeType.OPERATOR;
+			node.op = op;
+			node.lhs = lhs;
+			node.rhs = rhs;
+			if ((lhs.type == NodeType.LITERAL) && (rhs.type == NodeType.LITERAL)) {
+				try {
+					return newLiteral(node.evaluate(new BigInteger[0], new BigInteger[0]));
+				} catch (ArithmeticException e) {
+					// leave failing operation (eg divide by zero) to evaluation
+				}
+			}
+			return node;
+		}
+
+		/** evaluate using long arithmetic
+		 * @throws ArithmeticException if a result does not fit in a long */
+		private long evaluate(long[] widths, long[] constants) {
+			if (type == NodeType.LITERAL) {
+				if (!isLong) throw new ArithmeticException("literal overflow");
+				return longValue;
+			}
+			if (type == NodeType.WIDTH) return widths[refIndex];
+			if (type == NodeType.CONSTANT) return constants[refIndex];
+			long left = lhs.evaluate(widths, constants);
+			long right = rhs.evaluate(widths, constants);
+			switch (op) {
+				case "+": return Math.addExact(left, right);
+				case "-": return Math.subtractExact(left, right);
+				case "*": return Math.multiplyExact(left, right);
+				case "/":
+					if ((right == 0) || ((left == Long.MIN_VALUE) && (right == -1))) throw new ArithmeticException("long divide");
+					return left / right;
+				case "&": return left & right;
+				case "|": return left | right;
+				case "^": return pow(left, (int) right);
+				case "<<":
+				case ">>":
+					if ((right < Integer.MIN_VALUE) || (right > Integer.MAX_VALUE)) return left;  // invalid shifts leave value unchanged
+					if ((right < 0) || (right > 62)) throw new ArithmeticException("long shift");
+					if (op.equals(">>")) return left >> right;
+					long shifted = left << right;
+					if ((shifted >> right) != left) throw new ArithmeticException("long overflow");
+					return shifted;
+			}
+			throw new ArithmeticException("invalid operator " + op);
+		}
+
+		/** evaluate using BigInteger arithmetic */
+		private BigInteger evaluate(BigInteger[] widths, BigInteger[] constants) {
+			if (type == NodeType.LITERAL) return value;
+			if (type == NodeType.WIDTH) return widths[refIndex];
+			if (type == NodeType.CONSTANT) return constants[refIndex];
+			BigInteger left = lhs.evaluate(widths, constants);
+			BigInteger right = rhs.evaluate(widths, constants);
+			switch (op) {
+				case "+": return left.add(right);
+				case "-": return left.subtract(right);
+				case "*": return left.multiply(right);
+				case "/": return left.divide(right);
+				case "&": return left.and(right);
+				case "|": return left.or(right);
+				case "^": return left.pow(right.intValue());
+				case "<<":
+				case ">>":
+					if (right.bitLength() > 31) return left;  // invalid shifts leave value unchanged
+					return op.equals(">>")? left.shiftRight(right.intValue()) : left.shiftLeft(right.intValue());
+			}
+			throw new ArithmeticException("invalid operator " + op);
+		}
+
+		/** raise a long to a power
+		 * @throws ArithmeticException if exponent is negative or result does not fit in a long */
+		private static long pow(long base, int exp) {
+			if (exp < 0) throw new ArithmeticException("negative exponent");
+			long result = 1;
+			while (exp > 0) {
+				if ((exp & 1) != 0) result = Math.multiplyExact(result, base);
+				exp >>= 1;
+				if (exp > 0) base = Math.multiplyExact(base, base);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import ordt.extract.RegNumber.NumBase;
+import ordt.extract.RegNumber.NumFormat;
+
+/** numeric literal scanned from a string.  Accepts the forms supported by RegNumber(String):
+ *  plain integers (123), hex (0x7f_ff), binary (0b10_01), and verilog sized numbers (32'hffff, 8 ' b 1010).
+ *  Scanning is a single pass over the string so no regex patterns are compiled per literal.
+ */
+public final class NumLiteral {
+	private final NumFormat numFormat;
+	private final NumBase numBase;
+	private final String width;  // verilog vector width digits (null if not a verilog number)
+	private final String digits;  // value digits with underscores removed
+	private final int radix;
+
+	private NumLiteral(NumFormat numFormat, NumBase numBase, String width, String digits, int radix) {
+		this.numFormat = numFormat;
+		this.numBase = numBase;
+		this.width = width;
+		this.digits = digits;
+		this.radix = radix;
+	}
+
+	/** scan a numeric literal string
+	 * @return the scanned literal or null if string is not a valid literal form */
+	public static NumLiteral scan(String numStr) {
+		if ((numStr == null) || (numStr.length()<1)) return null;
+		int len = numStr.length();
+		// hex or bin number
+		if ((len > 2) && (numStr.charAt(0) == '0')) {
+			char prefix = numStr.charAt(1);
+			if ((prefix == 'x') && isDigits(numStr, 2, len, 16)) return new NumLiteral(NumFormat.Address, NumBase.Hex, null, stripUnderscores(numStr, 2, len), 16);
+			if ((prefix == 'b') && isDigits(numStr, 2, len, 2)) return new NumLiteral(NumFormat.Address, NumBase.Hex, null, stripUnderscores(numStr, 2, len), 2);
+		}
+		// leading decimal digits
+		int pos = 0;
+		while ((pos < len) && isDecDigit(numStr.charAt(pos))) pos++;
+		if (pos == 0) return null;
+		// plain integer
+		if (pos == len) return new NumLiteral(NumFormat.Int, NumBase.Dec, null, numStr, 10);
+		// verilog number
+		String width = numStr.substring(0, pos);
+		pos = skipSpace(numStr, pos);
+		if ((pos >= len) || (numStr.charAt(pos) != '\'')) return null;
+		pos = skipSpace(numStr, pos + 1);
+		if (pos >= len) return null;
+		NumBase base;
+		int radix;
+		switch (numStr.charAt(pos)) {
+			case 'h': base = NumBase.Hex; radix = 16; break;
+			case 'd': base = NumBase.Dec; radix = 10; break;
+			case 'o': base = NumBase.Oct; radix = 8; break;
+			case 'b': base = NumBase.Bin; radix = 2; break;
+			default: return null;
+		}
+		pos = skipSpace(numStr, pos + 1);
+		if ((pos >= len) || !isDigits(numStr, pos, len, 16)) return null;  // any hex digits are accepted, radix is checked on conversion
+		return new NumLiteral(NumFormat.Verilog, base, width, stripUnderscores(numStr, pos, len), radix);
+	}
+
+	/** return true if chars in range are all digits of specified radix (2 or 16) or underscores */
+	private static boolean isDigits(String str, int start, int end, int radix) {
+		if (start >= end) return false;
+		for (int idx=start; idx<end; idx++) {
+			char c = str.charAt(idx);
+			if (c == '_') continue;
+			if (radix == 2) { if ((c != '0') && (c != '1')) return false; }
+			else if (!isDecDigit(c) && !((c >= 'a') && (c <= 'f')) && !((c >= 'A') && (c <= 'F'))) return false;
+		}
+		return true;
+	}
+
+	private static boolean isDecDigit(char c) {
+		return (c >= '0') && (c <= '9');
+	}
+
+	/** return index of first non-whitespace char at or after pos */
+	private static int skipSpace(String str, int pos) {
+		while ((pos < str.length()) && isSpace(str.charAt(pos))) pos++;
+		return pos;
+	}
+
+	/** whitespace as matched by regex \s */
+	private static boolean isSpace(char c) {
+		return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+	}
+
+	private static String stripUnderscores(String str, int start, int end) {
+		String sub = str.substring(start, end);
+		return (sub.indexOf('_') < 0)? sub : sub.replace("_", "");
+	}
+
+	/** return display format of the literal */
+	public NumFormat getNumFormat() {
+		return numFormat;
+	}
+
+	/** return display base of the literal */
+	public NumBase getNumBase() {
+		return numBase;
+	}
+
+	/** return vector width digits of a verilog literal (null if not a verilog number) */
+	public String getWidth() {
+		return width;
+	}
+
+	/** return value digits with underscores removed */
+	public String getDigits() {
+		return digits;
+	}
+
+	/** return radix of value digits */
+	public int getRadix() {
+		return radix;
+	}
+}
@@ -3,12 +3,25 @@
  */
 package ordt.extract;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import ordt.annotate.AnnotateCommand;
+import ordt.output.AddressLayoutBuilder;
+import ordt.output.MulticastBuilder;
 import ordt.output.OutputBuilder;
 import ordt.output.cppmod.CppModBuilder;
 import ordt.output.othertypes.JsonBuilder;
@@ -22,6 +35,7 @@ import ordt.output.uvmregs.UVMRegsBuilder;
 import ordt.output.verilog.VerilogBuilder;
 import ordt.output.verilog.VerilogTestBuilder;
 import ordt.parameters.ExtParameters;
+import ordt.parameters.Utils;
 
 public class Ordt {
 
@@ -32,41 +46,58 @@ public class Ordt {
 	private static InputType inputType;
 	private static List<String> inputParmFiles = new ArrayList<String>();
     private static String inputFile = null;
+    private static boolean parallelOutput = false;  // generate outputs concurrently
+    private static boolean incrementalOutput = false;  // only generate outputs whose inputs have changed
+    private static boolean streamingExtract = false;  // extract model while parsing without retaining full parse tree
+    private static List<String> libraryFiles = new ArrayList<String>();  // library files extracted ahead of the input file
+    private static String libraryCacheDir = null;  // directory where extracted library definitions are cached
+    private static String parseProfileFile = null;  // file where parser decision profiles will be written
+    private static String checkReportFile = null;  // if set, input is only checked and diagnostics are written to this file
+    private static String dfaCacheDir = null;  // directory where parser prediction DFA states are cached
+    private static String extractCacheDir = null;  // directory where models are saved for incremental extraction
+    private static List<String> addressLookups = new ArrayList<String>();  // addresses or address ranges to look up in the model
+    private static int errorMessageCount = 0;  // number of error messages issued
+    private static int runStartErrorCount = 0;  // error message count at start of current run
+    private static List<String> savedWarnings = null;  // if non-null, warning messages are also saved here
+    private static boolean layoutReported = false;  // address layout was computed or its warnings re-issued in this run
+    private static String modelSnapshotFile = null;  // file where extracted model snapshot will be saved
+    private static String runStatsFile = null;  // file where run phase stats will be written
+    private static Map<String, List<String>> variants = new LinkedHashMap<String, List<String>>();  // parameter files of each named variant
 
 	public enum OutputType { VERILOG, SYSTEMVERILOG, JSPEC, RALF, RDL, REGLIST, SVBENCH, VBENCH, UVMREGS, UVMREGSPKG, XML, CPPMOD, JSON };
 	private static HashMap<OutputType, String> outputNames = new HashMap<OutputType, String>();
 	private static HashMap<OutputType, String> commentChars = new HashMap<OutputType, String>();
 	private static HashMap<OutputType, String> outputFileNames = new HashMap<OutputType, String>();
 	private static HashMap<String, OutputType> outputArgs = new HashMap<String, OutputType>();
+	private static HashMap<OutputType, String> outputFingerprints = new HashMap<OutputType, String>();  // input fingerprints of outputs to be generated
 	
     private static RegModelIntf model;
+    private static boolean exitOnError = true;  // if false, errorExit throws an OrdtException (server mode)
 
 	/**
 	 * @param args
 	 */
     public static void main(String[] args) throws Exception {
         
+        // run as a resident generation server if specified
+        if ((args.length == 2) && args[0].equals("-server")) {
+        	Integer port = Utils.strToInteger(args[1]);
+        	if (port == null) showUsage();
+        	new OrdtServer(port).run();
+        	return;
+        }
+        
+        // run a batch of jobs from a manifest file if specified
+        if (((args.length == 2) || (args.length == 3)) && args[0].equals("-batch")) {
+        	Integer threads = (args.length == 3)? Utils.strToInteger(args[2]) : Runtime.getRuntime().availableProcessors();
+        	if ((threads == null) || (threads < 1)) showUsage();
+        	if (!new OrdtBatch(args[1], threads).run()) System.exit(8);
+        	return;
+        }
+        
         // extract command line args
-        defineOutputArgs();
         if ( args.length>0 ) {
-       	    int remainingArgs = args.length;
-        	// input file is last arg
-        	inputFile = args[--remainingArgs];
-        	// now get any options
-        	while (remainingArgs>0) {   
-        		String arg = args[args.length - remainingArgs - 1];  // next arg
-        		// output file args
-        		if (outputArgs.containsKey(arg) && (remainingArgs>1)) {
-        			outputFileNames.put(outputArgs.get(arg), args[args.length - remainingArgs]);
-            		remainingArgs -= 2;
-        		}
-        		// parameter file
-        		else if (arg.equals("-parms") && (remainingArgs>1)) {
-        			inputParmFiles.add(args[args.length - remainingArgs]);
-            		remainingArgs -= 2;
-        		}
-        		else showUsage();
-        	}
+        	if (!setRunArgs(args)) showUsage();
         	//System.out.println("input=" + inputFile + ", verilog=" + vlogOutName + ", jspec=" + jspecOutName); System.exit(0);
         }
         // no args specified
@@ -76,55 +107,598 @@ public class Ordt {
         }
         
 		try {	  
-	    	System.out.println("Open Register Design Tool, version=" + getVersion() + ", input=" + inputFile);
-	    	// get control parameters from parms files
-	    	ExtParameters.init();
-	    	ExtParameters.loadParameters(inputParmFiles);
-	    	
-			// extract model from rdl or jspec input file depending on name
-	    	if (inputFile.endsWith("js")) {
-	    		setInputType(InputType.JSPEC);
-	    		model = new JSpecModelExtractor(inputFile);
-	    	}
-	    	else {
-	    		setInputType(InputType.RDL);
-	    		model = new RdlModelExtractor(inputFile);
-	    	}
-	    	
-	    	// precompute min size of each regset
-	    	model.getRoot().setAlignedSize();
-	    	
-	    	// fix simple address ordering issues 
-	    	if (ExtParameters.allowUnorderedAddresses()) model.getRoot().sortRegisters();
-	    	
-	    	// add any debug annotations
-        	if (debug.isActive()) debug.addAnnotations(); 
-	    	
-	    	// process any model annotate cmds
-	    	for (AnnotateCommand cmd: ExtParameters.getAnnotations()) {
-	    		model.getRoot().processAnnotation(cmd, 0);
-	    		Ordt.infoMessage("Annotate command: " + cmd.getSignature() + " processed " + cmd.getChangeCount() + " elements");
-	    	}
-	    	
-        	// define output names/comment chars by type
-        	defineOutputNames();
-        	defineCommentChars();
-        	
-        	// generate output of all types specified on command line
-        	for (OutputType tp : OutputType.values()) {
-        		if (tp == OutputType.UVMREGS) 
-        	    	createUvmRegs(model); // special method for uvm gen
-        		else if (tp != OutputType.UVMREGSPKG)
-        	    	createOutput(model, tp);  // gen all others
-        	}
-
-	    	System.out.println("Ordt complete " + new Date());
+	    	run();
 		} catch (Exception e) {
 			//errorMessage("Read of rdl file " + inputFile + " failed");
 			e.printStackTrace();
 		}
     }
 
+    // ----------------------- run methods (also used by OrdtServer, OrdtBatch) ----------------------------
+
+    /** extract model and generate outputs using current run args */
+    static void run() throws Exception {
+    	System.out.println("Open Register Design Tool, version=" + getVersion() + ", input=" + inputFile);
+    	// if check only, validate the input without generating outputs
+    	if (checkReportFile != null) {
+    		runCheck();
+    		System.out.println("Ordt complete " + new Date());
+    		return;
+    	}
+    	// if parameter variants are specified, parse once and generate outputs of each variant
+    	if (!variants.isEmpty()) {
+    		runVariants();
+    		writeRunStats();
+    		System.out.println("Ordt complete " + new Date());
+    		return;
+    	}
+    	// if incremental, drop outputs that are current and exit if none remain
+    	if (incrementalOutput && !removeCurrentOutputs()) {
+    		System.out.println("Ordt: all outputs are up to date");
+    		return;
+    	}
+
+    	// get control parameters from parms files
+    	loadParameters();
+
+    	// extract model from rdl or jspec input file depending on name
+    	extractModel();
+
+    	// display registers at any specified addresses
+    	if (!addressLookups.isEmpty()) lookupAddresses();
+
+    	// generate output of all types specified on command line
+    	createOutputs();
+    	if (incrementalOutput) writeOutputManifests();
+    	writeRunStats();
+
+    	System.out.println("Ordt complete " + new Date());
+    }
+
+    /** run a single batch job.  This is called via reflection in an isolated copy of ordt classes (see OrdtBatch)
+     * @return null if the job completed, otherwise an error message */
+    static String runBatchJob(String[] args) {
+    	resetRunState();
+    	setExitOnError(false);
+    	if (!setRunArgs(args)) return "invalid job options";
+    	try {
+    		run();
+    	} catch (OrdtException e) {
+    		return e.getMessage();
+    	} catch (Exception e) {
+    		e.printStackTrace();
+    		return e.toString();
+    	}
+    	return null;
+    }
+
+    /** parse and extract the input and check its address layout without generating outputs, then write a
+     *  diagnostics report.  A fatal error stops the check but is still included in the report. */
+    private static void runCheck() {
+    	boolean wasExitOnError = exitOnError;
+    	setExitOnError(false);
+    	CheckReport.init(true);
+    	try {
+    		loadParameters();
+    		extractModel();
+    		checkAddresses();
+    	} catch (OrdtException e) {
+    		// message is already in the report
+    	} catch (RuntimeException e) {
+    		CheckReport.add("error", "check failed (" + e + ")");
+    	} finally {
+    		setExitOnError(wasExitOnError);
+    	}
+    	System.out.println("Ordt: writing check report " + checkReportFile + "...");
+    	CheckReport.write(checkReportFile, inputFile);
+    	int errorCount = CheckReport.getErrorCount();
+    	CheckReport.init(false);
+    	writeRunStats();
+    	if (errorCount > 0) errorExit("check of " + inputFile + " found " + errorCount + " errors");
+    }
+
+    /** walk the extracted model computing addresses so ordering/alignment problems are reported */
+    private static void checkAddresses() {
+    	System.out.println("Ordt: checking addresses...");
+    	RunStats.Phase phase = RunStats.startPhase("address check", getTraversalEvent(model, "address check"));
+    	AddressLayoutBuilder checker = new AddressLayoutBuilder(model);
+    	checker.addStatsCounts(phase);
+    	phase.end();
+    }
+
+    /** parse input once using base parameters, then generate outputs of each parameter variant concurrently.
+     *  Each variant is run in an isolated copy of ordt using a copy of the parsed model */
+    private static void runVariants() throws Exception {
+    	if (ModelSnapshot.isSnapshot(inputFile)) errorExit("model snapshot input can not be used with -variant");
+    	if (modelSnapshotFile != null) errorExit("-savemodel can not be used with -variant");
+    	loadParameters();
+    	byte[] parsedModel = parseInput(null).toBytes();
+    	// create output dirs and args for each variant
+    	List<Object[]> variantArgs = new ArrayList<Object[]>();
+    	for (String variant : variants.keySet()) variantArgs.add(new Object[] { variant, getVariantArgs(variant), parsedModel });
+    	// generate outputs of each variant and report failures
+    	Class<?>[] argTypes = new Class<?>[] { String.class, String[].class, byte[].class };
+    	List<String> errors = new IsolatedRunner(Runtime.getRuntime().availableProcessors()).run("runVariant", argTypes, variantArgs);
+    	int failCount = 0;
+    	for (int idx = 0; idx < variantArgs.size(); idx++) {
+    		if (errors.get(idx) != null) {
+    			errorMessage("variant " + variantArgs.get(idx)[0] + " failed: " + errors.get(idx));
+    			failCount++;
+    		}
+    	}
+    	if (failCount > 0) errorExit(failCount + " of " + variantArgs.size() + " variants failed");
+    }
+
+    /** return run args of a variant (variant parms are added after base parms and outputs are written to a variant subdirectory) */
+    private static String[] getVariantArgs(String variant) {
+    	List<String> args = new ArrayList<String>();
+    	List<String> parmFiles = new ArrayList<String>(inputParmFiles);
+    	parmFiles.addAll(variants.get(variant));
+    	for (String parmFile : parmFiles) {
+    		args.add("-parms");
+    		args.add(parmFile);
+    	}
+    	for (Map.Entry<String, OutputType> outputArg : outputArgs.entrySet()) {
+    		String outName = outputFileNames.get(outputArg.getValue());
+    		if (outName == null) continue;
+    		args.add(outputArg.getKey());
+    		args.add(getVariantOutputName(outName, variant));
+    	}
+    	if (runStatsFile != null) {
+    		args.add("-stats");
+    		args.add(getVariantOutputName(runStatsFile, variant));
+    	}
+    	if (parallelOutput) args.add("-parallel");
+    	if (incrementalOutput) args.add("-incremental");
+    	for (String libFile : libraryFiles) {
+    		args.add("-lib");
+    		args.add(libFile);
+    	}
+    	args.add(inputFile);
+    	return args.toArray(new String[args.size()]);
+    }
+
+    /** return name of an output in a variant subdirectory, creating the subdirectory if needed */
+    private static String getVariantOutputName(String outName, String variant) {
+    	// directory outputs get a variant subdirectory
+    	if (outName.endsWith("/")) {
+    		new File(outName + variant).mkdirs();
+    		return outName + variant + "/";
+    	}
+    	File outFile = new File(outName);
+    	File variantDir = new File(outFile.getParentFile(), variant);
+    	variantDir.mkdirs();
+    	return new File(variantDir, outFile.getName()).getPath();
+    }
+
+    /** generate outputs of a parameter variant from a parsed model.  This is called via reflection in an isolated 
+     *  copy of ordt classes (see runVariants)
+     * @return null if the variant completed, otherwise an error message */
+    static String runVariant(String variant, String[] args, byte[] parsedModel) {
+    	resetRunState();
+    	setExitOnError(false);
+    	if (!setRunArgs(args)) return "invalid variant options";
+    	try {
+    		System.out.println("Ordt: generating variant " + variant + "...");
+    		if (incrementalOutput && !removeCurrentOutputs()) {
+    			System.out.println("Ordt: all outputs of variant " + variant + " are up to date");
+    			return null;
+    		}
+    		loadParameters();
+    		restoreSnapshot(ModelSnapshot.fromBytes(parsedModel));
+    		alignModel();
+    		annotateModel();
+    		createOutputs();
+    		if (incrementalOutput) writeOutputManifests();
+    		writeRunStats();
+    	} catch (OrdtException e) {
+    		return e.getMessage();
+    	} catch (Exception e) {
+    		e.printStackTrace();
+    		return e.toString();
+    	}
+    	return null;
+    }
+
+    /** set input, parameter files, and outputs from command line args
+     * @return false if args are invalid */
+    static boolean setRunArgs(String[] args) {
+    	defineOutputArgs();
+    	int remainingArgs = args.length;
+    	if (remainingArgs == 0) return false;
+    	// input file is last arg
+    	inputFile = args[--remainingArgs];
+    	// now get any options
+    	while (remainingArgs>0) {   
+    		String arg = args[args.length - remainingArgs - 1];  // next arg
+    		// output file args
+    		if (outputArgs.containsKey(arg) && (remainingArgs>1)) {
+    			outputFileNames.put(outputArgs.get(arg), args[args.length - remainingArgs]);
+    			remainingArgs -= 2;
+    		}
+    		// parameter file
+    		else if (arg.equals("-parms") && (remainingArgs>1)) {
+    			inputParmFiles.add(args[args.length - remainingArgs]);
+    			remainingArgs -= 2;
+    		}
+    		// generate outputs concurrently
+    		else if (arg.equals("-parallel")) {
+    			parallelOutput = true;
+    			remainingArgs--;
+    		}
+    		// save a snapshot of the extracted model
+    		else if (arg.equals("-savemodel") && (remainingArgs>1)) {
+    			modelSnapshotFile = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// parameter variant
+    		else if (arg.equals("-variant") && (remainingArgs>2)) {
+    			String variant = args[args.length - remainingArgs];
+    			if (!variants.containsKey(variant)) variants.put(variant, new ArrayList<String>());
+    			variants.get(variant).add(args[args.length - remainingArgs + 1]);
+    			remainingArgs -= 3;
+    		}
+    		// write run phase stats
+    		else if (arg.equals("-stats") && (remainingArgs>1)) {
+    			runStatsFile = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// only generate outputs with changed inputs
+    		else if (arg.equals("-incremental")) {
+    			incrementalOutput = true;
+    			remainingArgs--;
+    		}
+    		// extract model while parsing
+    		else if (arg.equals("-stream")) {
+    			streamingExtract = true;
+    			remainingArgs--;
+    		}
+    		// library file
+    		else if (arg.equals("-lib") && (remainingArgs>1)) {
+    			libraryFiles.add(args[args.length - remainingArgs]);
+    			remainingArgs -= 2;
+    		}
+    		// library definition cache
+    		else if (arg.equals("-libcache") && (remainingArgs>1)) {
+    			libraryCacheDir = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// write parser decision profiles
+    		else if (arg.equals("-profileparse") && (remainingArgs>1)) {
+    			parseProfileFile = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// parser DFA cache
+    		else if (arg.equals("-dfacache") && (remainingArgs>1)) {
+    			dfaCacheDir = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// incremental extraction
+    		else if (arg.equals("-extractcache") && (remainingArgs>1)) {
+    			extractCacheDir = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// check input only
+    		else if (arg.equals("-check") && (remainingArgs>1)) {
+    			checkReportFile = args[args.length - remainingArgs];
+    			remainingArgs -= 2;
+    		}
+    		// address lookup
+    		else if (arg.equals("-lookup") && (remainingArgs>1)) {
+    			addressLookups.add(args[args.length - remainingArgs]);
+    			remainingArgs -= 2;
+    		}
+    		else return false;
+    	}
+    	RunStats.init(runStatsFile != null);
+    	ParseProfile.init(parseProfileFile != null);
+    	return true;
+    }
+
+    /** clear input/output info from a previous run */
+    static void resetRunState() {
+    	inputType = null;
+    	inputParmFiles = new ArrayList<String>();
+    	inputFile = null;
+    	parallelOutput = false;
+    	incrementalOutput = false;
+    	streamingExtract = false;
+    	libraryFiles = new ArrayList<String>();
+    	libraryCacheDir = null;
+    	parseProfileFile = null;
+    	checkReportFile = null;
+    	dfaCacheDir = null;
+    	extractCacheDir = null;
+    	addressLookups = new ArrayList<String>();
+    	modelSnapshotFile = null;
+    	runStatsFile = null;
+    	variants.clear();
+    	outputFileNames.clear();
+    	outputFingerprints.clear();
+    	model = null;
+    	layoutReported = false;
+    	runStartErrorCount = errorMessageCount;
+    }
+
+    /** return true if model should be extracted while parsing */
+    static boolean isStreamingExtract() {
+    	return streamingExtract;
+    }
+
+    /** return true if incremental output generation was specified */
+    static boolean isIncrementalOutput() {
+    	return incrementalOutput;
+    }
+
+    /** remove outputs whose manifest fingerprint matches the current inputs and save fingerprints of the rest.
+     *  uvm regs and pkg outputs are generated together so are kept if either is not current.
+     * @return true if any outputs remain to be generated */
+    static boolean removeCurrentOutputs() throws IOException {
+    	defineOutputNames();
+    	String inputFingerprint = OutputManifest.getInputFingerprint(inputFile, inputParmFiles, libraryFiles);
+    	for (OutputType tp : OutputType.values()) {
+    		String outName = outputFileNames.get(tp);
+    		if (outName == null) continue;
+    		String fingerprint = OutputManifest.getOutputFingerprint(inputFingerprint, tp, outName);
+    		if (!OutputManifest.isCurrent(outName, fingerprint)) outputFingerprints.put(tp, fingerprint);
+    	}
+    	if (outputFileNames.containsKey(OutputType.UVMREGS) && 
+    		(outputFingerprints.containsKey(OutputType.UVMREGS) || outputFingerprints.containsKey(OutputType.UVMREGSPKG))) {
+    		for (OutputType tp : new OutputType[] {OutputType.UVMREGS, OutputType.UVMREGSPKG}) {
+    			String outName = outputFileNames.get(tp);
+    			if (outName != null) outputFingerprints.put(tp, OutputManifest.getOutputFingerprint(inputFingerprint, tp, outName));
+    		}
+    	}
+    	// remove current outputs
+    	for (OutputType tp : OutputType.values()) {
+    		if (outputFileNames.containsKey(tp) && !outputFingerprints.containsKey(tp)) {
+    			System.out.println("Ordt: " + outputNames.get(tp) + " output " + outputFileNames.get(tp) + " is up to date");
+    			outputFileNames.remove(tp);
+    		}
+    	}
+    	return !outputFileNames.isEmpty();
+    }
+
+    /** write manifests for all generated outputs.  No manifests are written if errors were reported in this run,
+     *  so incomplete outputs are regenerated by the next -incremental run */
+    static void writeOutputManifests() {
+    	if (errorMessageCount > runStartErrorCount) return;
+    	for (OutputType tp : outputFingerprints.keySet()) 
+    		OutputManifest.write(outputFileNames.get(tp), outputFingerprints.get(tp), inputFile, inputParmFiles, libraryFiles);
+    }
+
+    /** write run phase stats if specified */
+    static void writeRunStats() {
+    	if (runStatsFile == null) return;
+    	System.out.println("Ordt: writing run stats file " + runStatsFile + "...");
+    	RunStats.write(runStatsFile);
+    }
+
+    /** initialize control parameters and load values from parms files */
+    static void loadParameters() {
+    	RunStats.Phase phase = RunStats.startPhase("load parameters");
+    	ExtParameters.init();
+    	ExtParameters.loadParameters(inputParmFiles);
+    	phase.end();
+    }
+
+    /** extract model from rdl or jspec input file depending on name (or load a model snapshot) and apply model post-processing */
+    static void extractModel() {
+    	extractModel(null);
+    }
+
+    /** extract model from rdl or jspec input depending on input file name and apply model post-processing
+     * @param inputReader - reader providing input contents.  If null, the input file is read (or loaded as a model snapshot) */
+    static void extractModel(Reader inputReader) {
+    	// if input is a model snapshot, load it and restore input file parameters/annotations
+    	if ((inputReader == null) && ModelSnapshot.isSnapshot(inputFile)) {
+    		System.out.println("Ordt: loading model snapshot from " + inputFile + "...");
+    		RunStats.Phase phase = RunStats.startPhase("load model snapshot");
+    		ModelSnapshot snapshot = null;
+    		try {
+    			snapshot = ModelSnapshot.load(inputFile);
+    		} catch (IOException e) {
+    			errorExit("unable to load model snapshot " + inputFile + ". " + e.getMessage());
+    		}
+    		phase.end();
+    		restoreSnapshot(snapshot);
+    	}
+    	else {
+    		ModelSnapshot snapshot = parseInput(inputReader);
+    		alignModel();
+    		
+    		// save model snapshot with parameters/annotations defined in the input file 
+    		if (modelSnapshotFile != null) {
+    			System.out.println("Ordt: saving model snapshot to " + modelSnapshotFile + "...");
+    			try {
+    				snapshot.save(modelSnapshotFile);
+    			} catch (IOException e) {
+    				errorExit("unable to save model snapshot " + modelSnapshotFile + ". " + e.getMessage());
+    			}
+    		}
+    	}
+    	indexModel();
+    	annotateModel();
+    }
+
+    /** extract model from rdl or jspec input depending on input file name 
+     * @param inputReader - reader providing input contents.  If null, the input file is read
+     * @return snapshot of the extracted model and parameters/annotations defined in the input */
+    private static ModelSnapshot parseInput(Reader inputReader) {
+    	int parmAssignCount = ExtParameters.getAssignments().size();
+    	int parmAnnotationCount = ExtParameters.getAnnotations().size();
+    	setInputType(inputFile.endsWith("js")? InputType.JSPEC : InputType.RDL);
+    	DfaCache dfaCache = (dfaCacheDir != null)? new DfaCache(dfaCacheDir, inputType) : null;
+    	if (dfaCache != null) dfaCache.load();  // preload parser prediction state
+    	ModelSnapshot libraries = loadLibraries();
+    	if (inputType == InputType.JSPEC) model = new JSpecModelExtractor(inputFile, inputReader, libraries);
+    	else if (useIncrementalExtract(inputReader)) model = incrementalExtract(libraries);
+    	else model = new RdlModelExtractor(inputFile, inputReader, libraries);
+    	if (dfaCache != null) dfaCache.save();
+    	if (parseProfileFile != null) ParseProfile.write(parseProfileFile);
+    	List<String[]> assigns = ExtParameters.getAssignments();
+    	List<AnnotateCommand> annotations = ExtParameters.getAnnotations();
+    	return new ModelSnapshot(model, inputType, assigns.subList(parmAssignCount, assigns.size()), 
+    			annotations.subList(parmAnnotationCount, annotations.size()));
+    }
+
+    /** return true if an rdl input file should be extracted incrementally using a saved model */
+    private static boolean useIncrementalExtract(Reader inputReader) {
+    	return (extractCacheDir != null) && (inputReader == null) && !isStreamingExtract() && !CheckReport.isActive() && (parseProfileFile == null);
+    }
+
+    /** extract rdl input re-extracting only statements changed since the saved model (normal extract if input can not be split) */
+    private static RegModelIntf incrementalExtract(ModelSnapshot libraries) {
+    	try {
+    		RegModelIntf incModel = new IncrementalExtract(extractCacheDir, inputFile, libraryFiles, libraries).extract();
+    		if (incModel != null) return incModel;
+    	} catch (FileNotFoundException e) {
+        	errorExit("rdl file not found. "  + e.getMessage());
+    	} catch (IOException e) {
+    		warnMessage("unable to extract " + inputFile + " incrementally. " + e.getMessage());
+    	}
+    	return new RdlModelExtractor(inputFile, null, libraries);
+    }
+
+    /** extract definitions from library files
+     * @return snapshot of library definitions or null if no libraries */
+    private static ModelSnapshot loadLibraries() {
+    	if (libraryFiles.isEmpty()) return null;
+    	System.out.println("Ordt: loading " + libraryFiles.size() + " library files...");
+    	try {
+    		return new LibraryLoader(libraryFiles, libraryCacheDir, inputType).load();
+    	} catch (FileNotFoundException e) {
+    		errorExit("library file not found. " + e.getMessage());
+    	} catch (IOException e) {
+    		errorExit("unable to load library files. " + e.getMessage());
+    	}
+    	return null;
+    }
+
+    /** use model from a snapshot and restore parameters/annotations defined in its input */
+    private static void restoreSnapshot(ModelSnapshot snapshot) {
+    	setInputType(snapshot.getInputType());
+    	for (String[] assign : snapshot.getInputAssignments()) ExtParameters.assignParameter(assign[0], assign[1]);
+    	ExtParameters.getAnnotations().addAll(snapshot.getInputAnnotations());
+    	model = snapshot;
+    }
+
+    /** compute aligned sizes and fix address order in an extracted model */
+    private static void alignModel() {
+    	// precompute min size of each regset
+    	RunStats.Phase phase = RunStats.startPhase("set aligned size");
+    	model.getRoot().setAlignedSize();
+    	phase.end();
+
+    	// fix simple address ordering issues 
+    	if (ExtParameters.allowUnorderedAddresses()) {
+    		phase = RunStats.startPhase("sort registers");
+    		model.getRoot().sortRegisters();
+    		phase.end();
+    	}
+    }
+
+    /** index the instance paths of the extracted model so path resolution in outputs is a hash lookup */
+    private static void indexModel() {
+    	RunStats.Phase phase = RunStats.startPhase("path index");
+    	((ModRootComponent) model.getRoot()).buildPathIndex();
+    	phase.end();
+    }
+
+    /** compute the address layout of the model after alignment/annotation and store in the model.
+     *  Address ordering and alignment problems are reported here rather than by each output, and are saved
+     *  with the layout so they are re-issued if the model is reused by a later run (OrdtServer cache hit) */
+    private static void layoutModel() {
+    	if (layoutReported) return;
+    	layoutReported = true;
+    	AddressLayout layout = AddressLayout.getLayout(model);
+    	if (layout != null) {
+    		for (String warning : layout.getWarnings()) warnMessage(warning);
+    		return;
+    	}
+    	RunStats.Phase phase = RunStats.startPhase("address layout", getTraversalEvent(model, "address layout"));
+    	List<String> warnings = new ArrayList<String>();
+    	AddressLayoutBuilder layoutBuilder;
+    	try {
+    		saveWarnings(warnings);
+    		layoutBuilder = new AddressLayoutBuilder(model);
+    	} finally {
+    		saveWarnings(null);
+    	}
+    	layoutBuilder.getLayout().setWarnings(warnings);
+    	layoutBuilder.addStatsCounts(phase);
+    	phase.end();
+    }
+
+    /** display the registers at each lookup address or address range */
+    private static void lookupAddresses() {
+    	layoutModel();
+    	AddressIndex index = model.getAddressIndex();
+    	for (String lookup : addressLookups) {
+    		String[] range = lookup.split(":", 2);
+    		RegNumber low = new RegNumber(range[0]);
+    		RegNumber high = (range.length > 1)? new RegNumber(range[1]) : low;
+    		if (!low.isDefined() || !high.isDefined()) {
+    			warnMessage("invalid lookup address " + lookup);
+    			continue;
+    		}
+    		System.out.println("Ordt: lookup " + lookup + ":");
+    		List<AddressIndex.Match> matches = new ArrayList<AddressIndex.Match>();
+    		if (range.length > 1) matches.addAll(index.findRange(low, high));
+    		else {
+    			AddressIndex.Match match = index.find(low);
+    			if (match != null) matches.add(match);
+    		}
+    		if (matches.isEmpty()) System.out.println("    no register found");
+    		for (AddressIndex.Match match : matches) {
+    			// show all fields of a range match, else those in the addressed word
+    			StringBuilder line = new StringBuilder("    " + match.getDescription());
+    			String sep = ", fields: ";
+    			for (AddressLayout.Field field : (range.length > 1)? match.getFields() : match.getFields(low)) {
+    				line.append(sep).append(field);
+    				sep = ", ";
+    			}
+    			System.out.println(line);
+    		}
+    	}
+    }
+
+    /** apply debug and parameter annotations to the model */
+    private static void annotateModel() {
+    	// add any debug annotations
+    	if (debug.isActive()) debug.addAnnotations(); 
+    	
+    	// process any model annotate cmds
+    	RunStats.Phase phase = RunStats.startPhase("annotate");
+    	for (AnnotateCommand cmd: ExtParameters.getAnnotations()) {
+    		model.getRoot().processAnnotation(cmd, 0);
+    		Ordt.infoMessage("Annotate command: " + cmd.getSignature() + " processed " + cmd.getChangeCount() + " elements");
+    	}
+    	phase.setCount("commands", ExtParameters.getAnnotations().size());
+    	phase.end();
+    }
+
+    /** generate output of all types specified on command line */
+    static void createOutputs() throws Exception {
+    	// define output names/comment chars by type
+    	defineOutputNames();
+    	defineCommentChars();
+    	
+    	// outputs are about to change, so remove their manifests (rewritten after a successful -incremental run)
+    	for (String outName : outputFileNames.values()) OutputManifest.remove(outName);
+
+    	// compute model addresses once so outputs can use them
+    	layoutModel();
+
+    	if (parallelOutput) createParallelOutputs(model);
+    	else {
+    		Set<OutputType> multicastTypes = createMulticastOutputs(model);  // outputs sharing a model walk
+    		for (OutputType tp : OutputType.values()) {
+    			if (!multicastTypes.contains(tp)) createOutputOfType(model, tp);
+    		}
+    	}
+    }
+
     // ----------------------- output definition methods ----------------------------
     
 	/** assign an output type for each command line parm */
@@ -179,7 +753,7 @@ public class Ordt {
 	}
 
     /** return an OutputBuilder of specified type */
-	private static OutputBuilder getBuilder(RegModelIntf model, OutputType type) {
+	static OutputBuilder getBuilder(RegModelIntf model, OutputType type) {
 		switch (type) {
 		   case VERILOG: 
 			   if (!verifyRootAddressMap(model, type)) return null;
@@ -220,6 +794,29 @@ public class Ordt {
 		return null;
 	}
 	
+    /** return an OutputBuilder of specified type that will not walk the model when created (calls are driven by a 
+     *  MulticastBuilder) or null if type does not support multicast */
+	private static OutputBuilder getMulticastTargetBuilder(RegModelIntf model, OutputType type) {
+		switch (type) {
+		   case JSPEC: 
+			   return new JspecBuilder(model, false); 
+		   case RDL: 
+			   return new RdlBuilder(model, false);
+		   case REGLIST: 
+			   return new RegListBuilder(model, false);
+		   case UVMREGS: 
+			   return new UVMRegsBuilder(model, false);
+		   case XML: 
+			   return new XmlBuilder(model, false);
+		   case CPPMOD: 
+			   return new CppModBuilder(model, false);
+		   case JSON: 
+			   return new JsonBuilder(model, false);
+           default:
+		}
+		return null;
+	}
+	
 	/** return true if model has a root address map */
     private static boolean verifyRootAddressMap(RegModelIntf model, OutputType type) {
 		   if (model.getRootInstancedComponent() != null) {
@@ -239,19 +836,133 @@ public class Ordt {
     	String outName = outputFileNames.get(type);
     	if (outName == null) return;
 		System.out.println("Ordt: building " + outputNames.get(type) + "...");
+		RunStats.Phase phase = RunStats.startPhase(outputNames.get(type) + " traversal", getTraversalEvent(model, outputNames.get(type)));
     	OutputBuilder outp = getBuilder(model, type);
-    	if (outp != null) outp.write(outName, outputNames.get(type), commentChars.get(type));
+    	if (outp != null) outp.addStatsCounts(phase);
+    	phase.end();
+    	if (outp != null) writeOutput(outp, type);
+    }
+
+    /**return a flight recorder event for a model traversal by the specified output(s)
+     */
+    private static OrdtEvent getTraversalEvent(RegModelIntf model, String outputTypes) {
+    	String rootPath = (model.getRootInstance() != null)? model.getRootInstance().getId() : null;
+    	return new OrdtEvent.Traversal().setInstancePath(rootPath).setOutputType(outputTypes);
+    }
+
+    /**write output of the specified type from a builder and save its stats
+     */
+    private static void writeOutput(OutputBuilder outp, OutputType type) {
+		RunStats.Phase phase = RunStats.startPhase(outputNames.get(type) + " write");
+    	if (type == OutputType.UVMREGS) writeUvmRegs((UVMRegsBuilder) outp);
+    	else outp.write(outputFileNames.get(type), outputNames.get(type), commentChars.get(type));
+    	outp.addStatsCounts(phase);
+    	phase.end();
+    }
+
+    /**create all specified outputs that support multicast using a single model walk per set of builder visit rules
+     * @return set of output types generated
+     */
+    private static Set<OutputType> createMulticastOutputs(RegModelIntf model) {
+    	Map<OutputType, OutputBuilder> targets = new LinkedHashMap<OutputType, OutputBuilder>();
+    	Map<MulticastBuilder, String> walkers = new LinkedHashMap<MulticastBuilder, String>();  // walkers and their output names
+    	for (OutputType tp : OutputType.values()) {
+    		if (!outputFileNames.containsKey(tp)) continue;
+    		OutputBuilder outp = getMulticastTargetBuilder(model, tp);
+    		if (outp == null) continue;
+    		System.out.println("Ordt: building " + outputNames.get(tp) + "...");
+    		targets.put(tp, outp);
+    		// add to a walk having matching visit rules, else start a new one
+    		boolean added = false;
+    		for (Map.Entry<MulticastBuilder, String> walker : walkers.entrySet()) {
+    			if (walker.getKey().addBuilder(outp)) { 
+    				walker.setValue(walker.getValue() + ", " + outputNames.get(tp));
+    				added = true;  
+    				break; 
+    			}
+    		}
+    		if (!added) {
+    			MulticastBuilder walker = new MulticastBuilder(model);
+    			walker.addBuilder(outp);
+    			walkers.put(walker, outputNames.get(tp));
+    		}
+    	}
+    	// walk the model once for each set of visit rules
+    	for (Map.Entry<MulticastBuilder, String> walker : walkers.entrySet()) {
+    		RunStats.Phase phase = RunStats.startPhase("multicast traversal (" + walker.getValue() + ")", getTraversalEvent(model, walker.getValue()));
+    		walker.getKey().generateOutput();
+    		walker.getKey().addStatsCounts(phase);
+    		phase.setCount("builders", walker.getKey().getBuilderCount());
+    		phase.end();
+    	}
+    	// now write the outputs
+    	for (Map.Entry<OutputType, OutputBuilder> target : targets.entrySet()) writeOutput(target.getValue(), target.getKey());
+    	return targets.keySet();
+    }
+
+    /**create output of the specified type, handling uvm regs/pkg as a single output
+     */
+    private static void createOutputOfType(RegModelIntf model, OutputType type) {
+		if (type == OutputType.UVMREGS) 
+	    	createUvmRegs(model); // special method for uvm gen
+		else if (type != OutputType.UVMREGSPKG)
+	    	createOutput(model, type);  // gen all others
+    }
+
+    /**create all specified outputs concurrently - each builder walks the (read-only) model on its own worker thread
+     */
+    private static void createParallelOutputs(final RegModelIntf model) throws Exception {
+    	// get list of specified output types
+    	List<OutputType> outTypes = new ArrayList<OutputType>();
+    	for (OutputType tp : OutputType.values()) {
+    		if ((tp != OutputType.UVMREGSPKG) && outputFileNames.containsKey(tp)) outTypes.add(tp);
+    	}
+    	if (outTypes.isEmpty()) return;
+    	int threads = Math.min(outTypes.size(), Runtime.getRuntime().availableProcessors());
+    	ExecutorService pool = Executors.newFixedThreadPool(threads);
+    	try {
+    		// submit a generate task per output type
+    		List<Future<?>> results = new ArrayList<Future<?>>();
+    		for (final OutputType tp : outTypes) {
+    			results.add(pool.submit(new Runnable() {
+    				public void run() {
+    					createOutputOfType(model, tp);
+    				}
+    			}));
+    		}
+    		// wait for completion and pass along any failure
+    		for (Future<?> result : results) {
+    			try {
+    				result.get();
+    			} catch (ExecutionException e) {
+    				if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+    				throw e;
+    			}
+    		}
+    	} finally {
+    		pool.shutdown();
+    	}
     }
 
     /**create uvm registers output
      */
     public static void createUvmRegs(RegModelIntf model) {
     	String outName = outputFileNames.get(OutputType.UVMREGS);
-    	String outPkgName = outputFileNames.get(OutputType.UVMREGSPKG);
     	if (outName == null) return;
 
 		System.out.println("Ordt: building UVM regs...");
+		RunStats.Phase phase = RunStats.startPhase(outputNames.get(OutputType.UVMREGS) + " traversal", getTraversalEvent(model, outputNames.get(OutputType.UVMREGS)));
 		UVMRegsBuilder uvm = new UVMRegsBuilder(model);
+		uvm.addStatsCounts(phase);
+		phase.end();
+		writeOutput(uvm, OutputType.UVMREGS);
+    }
+
+    /**write uvm registers output and pkg if specified
+     */
+    private static void writeUvmRegs(UVMRegsBuilder uvm) {
+    	String outName = outputFileNames.get(OutputType.UVMREGS);
+    	String outPkgName = outputFileNames.get(OutputType.UVMREGSPKG);
     	if (uvm != null) {
     		uvm.write(outName, "UVM regs", "//");
     		
@@ -269,6 +980,68 @@ public class Ordt {
     	System.out.println("   -parms <input_parms_filename>");
     	System.out.println("       <input_parms_filename> will be used to set ordt control parameters. The -parms");
     	System.out.println("       option may be specified multiple times to include multiple parameter files.");
+    	System.out.println("   -parallel");
+    	System.out.println("       all specified outputs will be generated concurrently");
+    	System.out.println("   -savemodel <filename>");
+    	System.out.println("       <filename> will be created containing a binary snapshot of the extracted model.  The");
+    	System.out.println("       snapshot can be specified in place of the rdl/jspec input file in later runs to skip");
+    	System.out.println("       parsing.  Parameters affecting model extraction are those of the original run.");
+    	System.out.println("   -variant <name> <input_parms_filename>");
+    	System.out.println("       generate outputs for parameter variant <name> using parameters from -parms files followed by");
+    	System.out.println("       <input_parms_filename>.  The input is parsed once (using -parms parameters) and outputs of all");
+    	System.out.println("       variants are generated concurrently, each in a <name> subdirectory of the specified output");
+    	System.out.println("       locations.  May be repeated to define multiple variants or add parameter files to a variant.");
+    	System.out.println("   -stats <filename>");
+    	System.out.println("       <filename> will be created containing json wall time, cpu time, allocated bytes, and");
+    	System.out.println("       peak heap of each run phase, with register/field/line counts for each output");
+    	System.out.println("       (peak heap of phases overlapping another phase, eg with -parallel, is marked peak_heap_overlapped");
+    	System.out.println("       since it includes all phases running concurrently)");
+    	System.out.println("   -incremental");
+    	System.out.println("       outputs whose input, parameter files, and ordt version are unchanged since the last");
+    	System.out.println("       -incremental run (as recorded in <output_name>.ordt_manifest) will not be regenerated");
+    	System.out.println("   -stream");
+    	System.out.println("       extract the model while parsing, pruning each top level rdl/jspec statement from the parse");
+    	System.out.println("       tree once extracted, to reduce peak memory for large inputs.  Parsing uses full LL prediction.");
+    	System.out.println("   -lib <library_filename>");
+    	System.out.println("       definitions in <library_filename> will be added ahead of the input, as if the library were");
+    	System.out.println("       prepended to the input file.  May be repeated to add multiple libraries (in order).  Libraries");
+    	System.out.println("       are parsed concurrently and must be the same type (rdl or jspec) as the input file.");
+    	System.out.println("   -libcache <directory>");
+    	System.out.println("       definitions extracted from -lib files will be cached in <directory>, keyed by library");
+    	System.out.println("       contents and parameters, so libraries shared by many runs are only parsed once.");
+    	System.out.println("   -profileparse <filename>");
+    	System.out.println("       <filename> will be created containing json antlr decision profiles (rule, invocations,");
+    	System.out.println("       prediction time, SLL/LL lookahead, LL fallbacks) for each parsed input and library file.");
+    	System.out.println("       Profiled parses use full LL prediction and are slower than normal parses.");
+    	System.out.println("   -dfacache <directory>");
+    	System.out.println("       parser prediction state (DFA) built while parsing will be saved in <directory> and");
+    	System.out.println("       preloaded by later runs, so a new jvm parses at warm speed.  Cache files are keyed by");
+    	System.out.println("       parser grammar and antlr version.");
+    	System.out.println("   -extractcache <directory>");
+    	System.out.println("       the extracted rdl model is saved in <directory> by top-level statement.  On later runs");
+    	System.out.println("       only statements that changed, and statements using definitions that changed, are");
+    	System.out.println("       parsed and extracted.  Root property assigns and parameter blocks are always extracted.");
+    	System.out.println("   -check <filename>");
+    	System.out.println("       only check the input: parse, extract, and verify the address layout without generating");
+    	System.out.println("       any outputs.  <filename> will be created containing json diagnostics (severity, file,");
+    	System.out.println("       line, column, message) and ordt exits with an error if any errors were found.  Use -batch");
+    	System.out.println("       with a -check job per input to check many files concurrently.");
+    	System.out.println("   -lookup <address>[:<high_address>]");
+    	System.out.println("       display the register (instance path, address, and fields in the addressed word) or external");
+    	System.out.println("       region at <address>, or all registers in an address range, using the extracted model.");
+    	System.out.println("       Register arrays in a range are shown as one entry with a rep range and stride.  Instance");
+    	System.out.println("       paths are relative to the root instance, so do not include its name (eg base_regs.state_regs[1]");
+    	System.out.println("       rather than base_map.base_regs.state_regs[1]).  May be repeated.  Outputs are still generated");
+    	System.out.println("       if specified.");
+    	System.out.println("   -batch <manifest_file> [<max_threads>]");
+    	System.out.println("       run each job in <manifest_file> using up to <max_threads> worker threads (default is");
+    	System.out.println("       the number of processors).  Each non-blank manifest line not starting with # or //");
+    	System.out.println("       contains ordt options and input file for a job.  Job parameters are isolated from");
+    	System.out.println("       other jobs and a failed job does not stop the batch.  This must be the only option.");
+    	System.out.println("   -server <port>");
+    	System.out.println("       run as a resident server accepting generation requests on local <port>.  Each");
+    	System.out.println("       connection sends one line of ordt options and input file and receives an ok/error");
+    	System.out.println("       status line.  A request of -shutdown stops the server.  This must be the only option.");
     	//System.out.println("   -verilog <filename>");
     	//System.out.println("       <filename> will be created containing verilog output");
     	System.out.println("   -systemverilog <output_name>");
@@ -310,16 +1083,31 @@ public class Ordt {
 	/** display error message */
 	public static void warnMessage(String msg) {
 		System.err.println("*** WARNING ***: " + msg);		
+		CheckReport.add("warning", msg);
+		if (savedWarnings != null) savedWarnings.add(msg);
 	}
 
 	/** display error message */
 	public static void errorMessage(String msg) {
 		System.err.println("*** ERROR ***: " + msg);		
+		CheckReport.add("error", msg);
+		errorMessageCount++;
+	}
+
+	/** return number of error messages issued */
+	static int getErrorMessageCount() {
+		return errorMessageCount;
+	}
+
+	/** also save warning messages in the specified list (null to stop saving) */
+	static void saveWarnings(List<String> warnings) {
+		savedWarnings = warnings;
 	}
 
 	/** display error message and exit */
 	public static void errorExit(String msg) {
 		errorMessage(msg);	
+		if (!exitOnError) throw new OrdtException(msg);
     	System.out.println("Ordt exited due to error " + new Date());
 		System.exit(8);
 	}
@@ -334,6 +1122,54 @@ public class Ordt {
 		return model;
 	}
 
+	/** set the active model and input type (used by OrdtServer for cached models) */
+	static void setModel(RegModelIntf model, InputType inputType) {
+		Ordt.model = model;
+		setInputType(inputType);
+	}
+
+	/** return input type of the active model */
+	static InputType getInputType() {
+		return inputType;
+	}
+
+	/** return the input file name */
+	static String getInputFile() {
+		return inputFile;
+	}
+
+	/** return the list of input parameter files */
+	static List<String> getInputParmFiles() {
+		return inputParmFiles;
+	}
+
+	/** return the list of library files */
+	static List<String> getLibraryFiles() {
+		return libraryFiles;
+	}
+
+	/** if false, errorExit will throw an OrdtException rather than exiting */
+	static void setExitOnError(boolean exitOnError) {
+		Ordt.exitOnError = exitOnError;
+	}
+
+	/** return true if errorExit will exit the jvm */
+	static boolean isExitOnError() {
+		return exitOnError;
+	}
+
+	/** return the display name of an output type */
+	static String getOutputName(OutputType type) {
+		defineOutputNames();
+		return outputNames.get(type);
+	}
+
+	/** return the comment chars of an output type */
+	static String getCommentChars(OutputType type) {
+		defineCommentChars();
+		return commentChars.get(type);
+	}
+
 	/** return true if input is of specified type */
 	public static boolean hasInputType(InputType type) {
 		return inputType == type;
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/** runs a list of ordt jobs read from a manifest file in a single jvm.  Each manifest line contains the ordt
+ *  options and input file for one job.  Jobs are run on a bounded work-stealing pool with each worker using
+ *  an isolated copy of ordt state (see IsolatedRunner).  A failed job is reported and does not stop the batch.
+ */
+public class OrdtBatch {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	private String manifestFile;
+	private int maxThreads;
+
+	public OrdtBatch(String manifestFile, int maxThreads) {
+		this.manifestFile = manifestFile;
+		this.maxThreads = maxThreads;
+	}
+
+	/** run all jobs in the manifest
+	 * @return true if all jobs completed */
+	public boolean run() throws IOException {
+		List<String> jobs = readJobs();
+		System.out.println("Open Register Design Tool, version=" + Ordt.getVersion() + ", batch=" + manifestFile + ", jobs=" + jobs.size());
+		// run each job and report failures
+		List<Object[]> jobArgs = new ArrayList<Object[]>();
+		for (String job : jobs) jobArgs.add(new Object[] { job.split("\\s+") });
+		List<String> errors = new IsolatedRunner(maxThreads).run("runBatchJob", new Class<?>[] { String[].class }, jobArgs);
+		int failCount = 0;
+		for (int idx = 0; idx < jobs.size(); idx++) {
+			if (errors.get(idx) != null) {
+				Ordt.errorMessage("batch job " + (idx + 1) + " (" + jobs.get(idx) + ") failed: " + errors.get(idx));
+				failCount++;
+			}
+		}
+		System.out.println("Ordt batch complete, " + (jobs.size() - failCount) + " of " + jobs.size() + " jobs succeeded " + new Date());
+		return failCount == 0;
+	}
+
+	/** read job command lines from the manifest, skipping blank and comment lines */
+	private List<String> readJobs() throws IOException {
+		List<String> jobs = new ArrayList<String>();
+		for (String line : Files.readAllLines(Paths.get(manifestFile), utf8)) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#") && !line.startsWith("//")) jobs.add(line);
+		}
+		return jobs;
+	}
+}
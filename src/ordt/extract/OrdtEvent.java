@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+/** java flight recorder events for the ordt generation pipeline.  Events are recorded by OrdtJfrEvents, which
+ *  is loaded only if jdk.jfr is available, so on other jvms events are no-ops.  Events are only recorded if a
+ *  flight recording is active (eg -XX:StartFlightRecording) so overhead is low otherwise.  Phase events are
+ *  begun/committed by RunStats.Phase, which also copies phase counts into the event.
+ */
+public abstract class OrdtEvent {
+
+	private static final Recorder recorder = loadRecorder();  // null if flight recorder is not available
+
+	protected String instancePath;
+	protected String outputType;
+	protected long registers;
+	protected long fields;
+	protected long regsets;
+	protected long replicatedReps;
+	protected long outputLines;
+	private Object recordedEvent;  // flight recorder event begun for this event (null if not recording)
+
+	/** set instance path (input file name for parse/extract events, file name for write events) */
+	public OrdtEvent setInstancePath(String instancePath) {
+		this.instancePath = instancePath;
+		return this;
+	}
+
+	public OrdtEvent setOutputType(String outputType) {
+		this.outputType = outputType;
+		return this;
+	}
+
+	/** set an event count by RunStats count name (unknown names are ignored) */
+	public void setCount(String name, long value) {
+		switch (name) {
+		   case "registers": registers = value; break;
+		   case "fields": fields = value; break;
+		   case "regsets": regsets = value; break;
+		   case "replicated_reps": replicatedReps = value; break;
+		   case "output_lines": outputLines = value; break;
+		   default:
+		}
+	}
+
+	/** start timing this event if a flight recording is active */
+	public void begin() {
+		if (recorder != null) recordedEvent = recorder.begin(this);
+	}
+
+	/** record this event if it was begun in an active flight recording */
+	public void commit() {
+		if (recordedEvent != null) recorder.commit(recordedEvent, this);
+		recordedEvent = null;
+	}
+
+	/** return the flight recorder if jdk.jfr is available, else null */
+	private static Recorder loadRecorder() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (Recorder) Class.forName("ordt.extract.OrdtJfrEvents").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/** flight recorder used to record events */
+	interface Recorder {
+
+		/** begin a flight recorder event for an ordt event
+		 * @return the begun flight recorder event or null if it is not enabled */
+		Object begin(OrdtEvent event);
+
+		/** copy ordt event values to a begun flight recorder event and commit it */
+		void commit(Object recordedEvent, OrdtEvent event);
+	}
+
+	// ------------------------ event types
+
+	/** lex/parse of an rdl or jspec input file */
+	public static class Parse extends OrdtEvent {
+		protected long tokens;
+
+		@Override
+		public void setCount(String name, long value) {
+			if ("tokens".equals(name)) tokens = value;
+			else super.setCount(name, value);
+		}
+	}
+
+	/** listener walk of a parse tree creating the model */
+	public static class Extract extends OrdtEvent {
+	}
+
+	/** model traversal by an OutputBuilder (or by a MulticastBuilder for several outputs) */
+	public static class Traversal extends OrdtEvent {
+	}
+
+	/** model traversal by a child SystemVerilogBuilder generating an addrmap module */
+	public static class ChildAddrMap extends OrdtEvent {
+	}
+
+	/** write of a single output file */
+	public static class FileWrite extends OrdtEvent {
+		protected long characters;
+
+		public void addCharacters(long count) {
+			characters += count;
+		}
+	}
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+/** exception thrown by Ordt.errorExit when ordt is not allowed to exit the jvm (server mode) */
+public class OrdtException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public OrdtException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** jdk.jfr recording of OrdtEvents.  This class is only loaded (by reflection in OrdtEvent) if jdk.jfr is
+ *  available, so it may be left out when building ordt with a jdk that lacks jdk.jfr.
+ */
+class OrdtJfrEvents implements OrdtEvent.Recorder {
+
+	@Override
+	public Object begin(OrdtEvent event) {
+		JfrEvent jfrEvent = create(event);
+		if (!jfrEvent.isEnabled()) return null;  // no active recording of this event type
+		jfrEvent.begin();
+		return jfrEvent;
+	}
+
+	@Override
+	public void commit(Object recordedEvent, OrdtEvent event) {
+		((JfrEvent) recordedEvent).commitValues(event);
+	}
+
+	/** return a flight recorder event of the type matching an ordt event */
+	private static JfrEvent create(OrdtEvent event) {
+		if (event instanceof OrdtEvent.Parse) return new Parse();
+		if (event instanceof OrdtEvent.Extract) return new Extract();
+		if (event instanceof OrdtEvent.ChildAddrMap) return new ChildAddrMap();
+		if (event instanceof OrdtEvent.FileWrite) return new FileWrite();
+		return new Traversal();
+	}
+
+	/** base flight recorder event with values common to all ordt events */
+	@Category("Ordt")
+	public abstract static class JfrEvent extends Event {
+
+		@Label("Instance Path")
+		protected String instancePath;
+
+		@Label("Output Type")
+		protected String outputType;
+
+		@Label("Registers")
+		protected long registers;
+
+		@Label("Fields")
+		protected long fields;
+
+		@Label("Register Sets")
+		protected long regsets;
+
+		@Label("Replicated Reps")
+		protected long replicatedReps;
+
+		@Label("Output Lines")
+		protected long outputLines;
+
+		/** copy ordt event values and commit */
+		void commitValues(OrdtEvent event) {
+			instancePath = event.instancePath;
+			outputType = event.outputType;
+			registers = event.registers;
+			fields = event.fields;
+			regsets = event.regsets;
+			replicatedReps = event.replicatedReps;
+			outputLines = event.outputLines;
+			commit();
+		}
+	}
+
+	// ------------------------ event types
+
+	/** lex/parse of an rdl or jspec input file */
+	@Name("ordt.Parse")
+	@Label("Ordt Parse")
+	public static class Parse extends JfrEvent {
+		@Label("Tokens")
+		protected long tokens;
+
+		@Override
+		void commitValues(OrdtEvent event) {
+			tokens = ((OrdtEvent.Parse) event).tokens;
+			super.commitValues(event);
+		}
+	}
+
+	/** listener walk of a parse tree creating the model */
+	@Name("ordt.Extract")
+	@Label("Ordt Extract")
+	public static class Extract extends JfrEvent {
+	}
+
+	/** model traversal by an OutputBuilder (or by a MulticastBuilder for several outputs) */
+	@Name("ordt.Traversal")
+	@Label("Ordt Builder Traversal")
+	public static class Traversal extends JfrEvent {
+	}
+
+	/** model traversal by a child SystemVerilogBuilder generating an addrmap module */
+	@Name("ordt.ChildAddrMap")
+	@Label("Ordt Child AddrMap Generation")
+	public static class ChildAddrMap extends JfrEvent {
+	}
+
+	/** write of a single output file */
+	@Name("ordt.FileWrite")
+	@Label("Ordt File Write")
+	@Description("Write of an output file.  Instance path is the file name and output type is the file description.")
+	public static class FileWrite extends JfrEvent {
+		@Label("Characters")
+		protected long characters;
+
+		@Override
+		void commitValues(OrdtEvent event) {
+			characters = ((OrdtEvent.FileWrite) event).characters;
+			super.commitValues(event);
+		}
+	}
+}
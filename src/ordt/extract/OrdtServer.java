@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ordt.extract.Ordt.InputType;
+import ordt.parameters.ExtParameters;
+
+/** resident ordt generation server.  Each connection on the local port sends a single line containing ordt
+ *  command line options and input file, and receives a single ok/error status line.  Extracted models are
+ *  cached by input/parameter file content so repeat requests skip parsing.  Requests are processed
+ *  sequentially since ordt parameter and run state is static.
+ */
+public class OrdtServer {
+
+	private static final int maxCachedModels = 16;  // max number of extracted models retained
+	private static final int maxPropertyNames = 4096;  // registered property names allowed before cached models are dropped
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	private int port;
+	private Map<String, CachedModel> models = new LinkedHashMap<String, CachedModel>(16, 0.75f, true) {  // models keyed by content hash, in lru order
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedModel> eldest) {
+			return size() > maxCachedModels;
+		}
+	};
+
+	public OrdtServer(int port) {
+		this.port = port;
+	}
+
+	/** accept and process requests until a shutdown request is received */
+	public void run() throws IOException {
+		ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Ordt.setExitOnError(false);
+		System.out.println("Open Register Design Tool, version=" + Ordt.getVersion() + ", server listening on port " + serverSocket.getLocalPort());
+		try {
+			boolean active = true;
+			while (active) {
+				Socket socket = serverSocket.accept();
+				try {
+					BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), utf8));
+					PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), utf8), true);
+					String request = reader.readLine();
+					if (request == null) continue;
+					request = request.trim();
+					if (request.equals("-shutdown")) {
+						writer.println("ok");
+						active = false;
+					}
+					else writer.println(processRequest(request));
+				} catch (IOException e) {
+					Ordt.errorMessage("server request failed. " + e.getMessage());
+				} finally {
+					socket.close();
+				}
+			}
+		} finally {
+			serverSocket.close();
+			Ordt.setExitOnError(true);
+		}
+		System.out.println("Ordt server shutdown");
+	}
+
+	/** process a single generation request and return a status line */
+	private String processRequest(String request) {
+		Ordt.resetRunState();
+		// cached models hold property ordinals, so the property registry is only cleared along with the cache
+		if (PropertyRegistry.size() > maxPropertyNames) {
+			System.out.println("Ordt: clearing " + models.size() + " cached models to reset property names...");
+			models.clear();
+			PropertyRegistry.clear();
+		}
+		if (request.isEmpty() || !Ordt.setRunArgs(request.split("\\s+"))) return "error: invalid request options (" + request + ")";
+		try {
+			System.out.println("Open Register Design Tool, version=" + Ordt.getVersion() + ", input=" + Ordt.getInputFile());
+			if (Ordt.isIncrementalOutput() && !Ordt.removeCurrentOutputs()) {
+				System.out.println("Ordt: all outputs are up to date");
+				return "ok";
+			}
+			String key = OutputManifest.getInputFingerprint(Ordt.getInputFile(), Ordt.getInputParmFiles(), Ordt.getLibraryFiles());  // cache key
+			CachedModel cached = models.get(key);
+			Ordt.loadParameters();
+			// if model is cached, restore any parameters set in the input file
+			if (cached != null) {
+				System.out.println("Ordt: using cached model for " + Ordt.getInputFile() + "...");
+				for (String[] assign : cached.inputAssignments) ExtParameters.assignParameter(assign[0], assign[1]);
+				Ordt.setModel(cached.model, cached.inputType);
+			}
+			// otherwise extract the model and save it with any parameters set in the input file
+			else {
+				int parmAssignCount = ExtParameters.getAssignments().size();
+				Ordt.extractModel();
+				List<String[]> allAssigns = ExtParameters.getAssignments();
+				List<String[]> inputAssigns = new ArrayList<String[]>(allAssigns.subList(parmAssignCount, allAssigns.size()));
+				models.put(key, new CachedModel(Ordt.getModel(), Ordt.getInputType(), inputAssigns));
+			}
+			Ordt.createOutputs();
+			if (Ordt.isIncrementalOutput()) Ordt.writeOutputManifests();
+			Ordt.writeRunStats();
+			System.out.println("Ordt complete " + new Date());
+			return "ok";
+		} catch (OrdtException e) {
+			return "error: " + e.getMessage();
+		} catch (IOException e) {
+			Ordt.errorMessage("unable to read input. " + e);
+			return "error: unable to read input. " + e;
+		} catch (Exception e) {
+			e.printStackTrace();
+			return "error: " + e;
+		}
+	}
+
+	/** extracted model and the parameters assigned during its extraction */
+	private static class CachedModel {
+		private RegModelIntf model;
+		private InputType inputType;
+		private List<String[]> inputAssignments;  // parameter assignments made in the input file
+
+		private CachedModel(RegModelIntf model, InputType inputType, List<String[]> inputAssignments) {
+			this.model = model;
+			this.inputType = inputType;
+			this.inputAssignments = inputAssignments;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import ordt.extract.Ordt.InputType;
+import ordt.extract.Ordt.OutputType;
+import ordt.output.OutputBuilder;
+import ordt.output.uvmregs.UVMRegsBuilder;
+import ordt.parameters.ExtParameters;
+
+/** in-process ordt generation session for use from other jvm tools.  A session extracts a model from an
+ *  rdl/jspec input file or reader using the session parameter files and assignments, then generates any
+ *  number of outputs to caller supplied writers/streams or to files.  Errors are thrown as OrdtExceptions
+ *  rather than exiting the jvm.  Ordt parameter and run state is static, so operations of all sessions in
+ *  the jvm are serialized and should not be mixed with other ordt use (eg OrdtServer) in the same jvm.
+ *  <pre>
+ *  OrdtSession session = new OrdtSession().addParameterFile("block.parms");
+ *  RegModelIntf model = session.extract("block.rdl");
+ *  session.generate(OutputType.SYSTEMVERILOG, svWriter);
+ *  session.generate(OutputType.UVMREGS, uvmStream);
+ *  </pre>
+ */
+public class OrdtSession {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	private List<String> parmFiles = new ArrayList<String>();
+	private List<String[]> parmAssignments = new ArrayList<String[]>();  // parameter assignments made by caller
+	private String inputFile;
+	private InputType inputType;
+	private RegModelIntf model;
+	private List<String[]> inputAssignments = new ArrayList<String[]>();  // parameter assignments made in the input file
+
+	/** add a parameter file to be loaded before extraction/generation */
+	public OrdtSession addParameterFile(String fileName) {
+		parmFiles.add(fileName);
+		return this;
+	}
+
+	/** set a control parameter (applied after parameter files are loaded) */
+	public OrdtSession setParameter(String name, String value) {
+		parmAssignments.add(new String[] {name, value});
+		return this;
+	}
+
+	/** extract a model from an rdl/jspec input file or model snapshot.  Jspec input is determined by a 'js' file suffix.
+	 * @return the extracted model */
+	public RegModelIntf extract(String inputFile) {
+		return extract(inputFile, null);
+	}
+
+	/** extract a model from a reader providing rdl/jspec input.  Jspec input is determined by a 'js' suffix in inputName.
+	 * @param inputName - input name used to select input type and in output headers
+	 * @param input - reader providing the input (if null, the named file is read)
+	 * @return the extracted model */
+	public RegModelIntf extract(String inputName, Reader input) {
+		synchronized (OrdtSession.class) {
+			boolean exitOnError = Ordt.isExitOnError();
+			Ordt.setExitOnError(false);
+			try {
+				model = null;
+				inputFile = inputName;
+				inputAssignments.clear();
+				loadRunState();
+				int parmAssignCount = ExtParameters.getAssignments().size();
+				Ordt.extractModel(input);
+				List<String[]> allAssigns = ExtParameters.getAssignments();
+				inputAssignments.addAll(allAssigns.subList(parmAssignCount, allAssigns.size()));
+				inputType = Ordt.getInputType();
+				model = Ordt.getModel();
+				return model;
+			} finally {
+				Ordt.setExitOnError(exitOnError);
+			}
+		}
+	}
+
+	/** return the extracted model (null if none) */
+	public RegModelIntf getModel() {
+		return model;
+	}
+
+	/** generate output of specified type to a caller supplied writer.  Writer is flushed but not closed.  Output
+	 *  types requiring multiple files (cppmod) are not supported. */
+	public void generate(OutputType type, Writer writer) {
+		synchronized (OrdtSession.class) {
+			boolean exitOnError = Ordt.isExitOnError();
+			Ordt.setExitOnError(false);
+			try {
+				OutputBuilder builder = getBuilder(type);
+				if (type == OutputType.UVMREGSPKG) {
+					BufferedWriter bw = new BufferedWriter(writer);
+					((UVMRegsBuilder) builder).writePkg(bw);
+					bw.flush();
+				}
+				else builder.write(writer, Ordt.getCommentChars(type));
+			} catch (IOException e) {
+				throw new OrdtException("write of " + Ordt.getOutputName(type) + " output failed. " + e.getMessage());
+			} finally {
+				Ordt.setExitOnError(exitOnError);
+			}
+		}
+	}
+
+	/** generate output of specified type to a caller supplied stream using utf-8 encoding.  Stream is flushed
+	 *  but not closed. */
+	public void generate(OutputType type, OutputStream os) {
+		generate(type, new OutputStreamWriter(os, utf8));
+	}
+
+	/** generate output of specified type to a file (or directory for multiple file outputs) */
+	public void generate(OutputType type, String outName) {
+		synchronized (OrdtSession.class) {
+			boolean exitOnError = Ordt.isExitOnError();
+			Ordt.setExitOnError(false);
+			try {
+				OutputBuilder builder = getBuilder(type);
+				OutputManifest.remove(outName);  // output is about to change
+				if (type == OutputType.UVMREGSPKG) ((UVMRegsBuilder) builder).writePkg(outName, Ordt.getOutputName(type));
+				else builder.write(outName, Ordt.getOutputName(type), Ordt.getCommentChars(type));
+			} finally {
+				Ordt.setExitOnError(exitOnError);
+			}
+		}
+	}
+
+	/** restore run state for this session and create a builder of specified type from the session model */
+	private OutputBuilder getBuilder(OutputType type) {
+		if (model == null) throw new OrdtException("no model has been extracted in this session");
+		loadRunState();
+		for (String[] assign : inputAssignments) ExtParameters.assignParameter(assign[0], assign[1]);
+		Ordt.setModel(model, inputType);
+		OutputBuilder builder = Ordt.getBuilder(model, type);
+		if (builder == null) throw new OrdtException("unable to generate " + Ordt.getOutputName(type) + " output");
+		return builder;
+	}
+
+	/** reset static ordt run state and load this session's input and parameters */
+	private void loadRunState() {
+		Ordt.resetRunState();
+		Ordt.setInputFile(inputFile);
+		for (String parmFile : parmFiles) Ordt.addInputParmFile(parmFile);
+		Ordt.loadParameters();
+		for (String[] assign : parmAssignments) ExtParameters.assignParameter(assign[0], assign[1]);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import ordt.extract.Ordt.OutputType;
+
+/** content fingerprints of ordt inputs and per-output manifest files recording the fingerprint
+ *  used to generate each output.  An output is current if its manifest fingerprint matches the
+ *  fingerprint computed from the present inputs.  The manifest of an output is removed whenever the
+ *  output is about to be written, and rewritten only after a successful -incremental run, so a
+ *  manifest never describes an output written by a later or failed run.
+ */
+public class OutputManifest {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+	private static final String manifestSuffix = ".ordt_manifest";
+	private static final String fingerprintTag = "fingerprint=";
+
+	/** return a hash of ordt version, input file, and parameter/library file names/contents */
+	public static String getInputFingerprint(String inputFile, List<String> parmFiles, List<String> libFiles) throws IOException {
+		MessageDigest digest = getDigest();
+		digest.update(Ordt.getVersion().getBytes(utf8));
+		addFileToDigest(digest, inputFile);
+		for (String parmFile : parmFiles) addFileToDigest(digest, parmFile);
+		for (String libFile : libFiles) addFileToDigest(digest, libFile);
+		return toHexString(digest.digest());
+	}
+
+	/** return a hash of input fingerprint and output type/name */
+	public static String getOutputFingerprint(String inputFingerprint, OutputType type, String outName) throws IOException {
+		MessageDigest digest = getDigest();
+		digest.update(inputFingerprint.getBytes(utf8));
+		digest.update(type.toString().getBytes(utf8));
+		digest.update((byte) 0);
+		digest.update(outName.getBytes(utf8));
+		return toHexString(digest.digest());
+	}
+
+	/** return true if specified output exists and its manifest has a matching fingerprint */
+	public static boolean isCurrent(String outName, String fingerprint) {
+		File manifest = new File(getManifestName(outName));
+		if (!manifest.isFile() || !new File(outName).exists()) return false;
+		try {
+			for (String line : Files.readAllLines(manifest.toPath(), utf8)) {
+				if (line.startsWith(fingerprintTag)) return line.substring(fingerprintTag.length()).equals(fingerprint);
+			}
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to read output manifest " + manifest.getPath());
+		}
+		return false;
+	}
+
+	/** remove the manifest of specified output if it exists */
+	public static void remove(String outName) {
+		File manifest = new File(getManifestName(outName));
+		if (manifest.exists() && !manifest.delete()) Ordt.warnMessage("unable to remove output manifest " + manifest.getPath());
+	}
+
+	/** write the manifest for specified output */
+	public static void write(String outName, String fingerprint, String inputFile, List<String> parmFiles, List<String> libFiles) {
+		StringBuilder manifest = new StringBuilder();
+		manifest.append(fingerprintTag + fingerprint + "\n");
+		manifest.append("version=" + Ordt.getVersion() + "\n");
+		manifest.append("input=" + inputFile + "\n");
+		for (String parmFile : parmFiles) manifest.append("parms=" + parmFile + "\n");
+		for (String libFile : libFiles) manifest.append("lib=" + libFile + "\n");
+		String manifestName = getManifestName(outName);
+		try {
+			Files.write(Paths.get(manifestName), manifest.toString().getBytes(utf8));
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to write output manifest " + manifestName);
+		}
+	}
+
+	/** return manifest file name for an output (directory outputs have the manifest alongside) */
+	private static String getManifestName(String outName) {
+		String baseName = outName;
+		while (baseName.endsWith("/") && (baseName.length() > 1)) baseName = baseName.substring(0, baseName.length() - 1);
+		return baseName + manifestSuffix;
+	}
+
+	private static MessageDigest getDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/** add file name and contents to a digest */
+	private static void addFileToDigest(MessageDigest digest, String fileName) throws IOException {
+		digest.update(fileName.getBytes(utf8));
+		digest.update((byte) 0);
+		digest.update(Files.readAllBytes(Paths.get(fileName)));
+		digest.update((byte) 0);
+	}
+
+	private static String toHexString(byte[] bytes) {
+		StringBuilder str = new StringBuilder();
+		for (byte b : bytes) str.append(String.format("%02x", b));
+		return str.toString();
+	}
+}
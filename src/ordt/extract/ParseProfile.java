@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.LookaheadEventInfo;
+
+/** antlr parser decision profiles of input files, written as json.  If profiling is active, rdl/jspec parsers run
+ *  with antlr profiling enabled and full LL prediction (rather than the two stage SLL/LL parse), so decisions
+ *  needing full context are reported as LL fallbacks.  Each decision is reported with its rule name, invocation
+ *  count, prediction time, SLL/LL lookahead depth, and the input line of its deepest lookahead.
+ */
+public class ParseProfile {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	private static boolean active = false;
+	private static List<String> fileProfiles = Collections.synchronizedList(new ArrayList<String>());  // json profile of each parsed file
+
+	/** clear profiles and enable profiling if specified */
+	public static void init(boolean isActive) {
+		active = isActive;
+		fileProfiles.clear();
+	}
+
+	/** return true if parsers should be profiled */
+	public static boolean isActive() {
+		return active;
+	}
+
+	/** save decision profile of a parser that has completed parsing an input file */
+	public static void add(String inputFile, Parser parser) {
+		if (!active || (parser.getParseInfo() == null)) return;
+		String[] ruleNames = parser.getRuleNames();
+		// sort decisions by prediction time
+		List<DecisionInfo> decisions = new ArrayList<DecisionInfo>(Arrays.asList(parser.getParseInfo().getDecisionInfo()));
+		Collections.sort(decisions, new Comparator<DecisionInfo>() {
+			public int compare(DecisionInfo d1, DecisionInfo d2) {
+				return Long.compare(d2.timeInPrediction, d1.timeInPrediction);
+			}
+		});
+		long totalTime = 0, totalInvocations = 0, totalFallbacks = 0;
+		StringBuilder json = new StringBuilder();
+		String sep = "\n";
+		for (DecisionInfo decision : decisions) {
+			if (decision.invocations == 0) continue;
+			totalTime += decision.timeInPrediction;
+			totalInvocations += decision.invocations;
+			totalFallbacks += decision.LL_Fallback;
+			String rule = ruleNames[parser.getATN().getDecisionState(decision.decision).ruleIndex];
+			json.append(sep + "        {\"decision\": " + decision.decision + ", \"rule\": " + RunStats.quote(rule) +
+					", \"invocations\": " + decision.invocations + ", \"time_ms\": " + RunStats.toMs(decision.timeInPrediction) +
+					", \"sll_total_look\": " + decision.SLL_TotalLook + ", \"sll_max_look\": " + decision.SLL_MaxLook +
+					", \"ll_fallbacks\": " + decision.LL_Fallback + ", \"ll_total_look\": " + decision.LL_TotalLook +
+					", \"ll_max_look\": " + decision.LL_MaxLook + ", \"ambiguities\": " + decision.ambiguities.size() +
+					", \"errors\": " + decision.errors.size() + ", \"max_look_line\": " + getMaxLookLine(decision) + "}");
+			sep = ",\n";
+		}
+		fileProfiles.add("    {\"input\": " + RunStats.quote(inputFile) + ", \"prediction_ms\": " + RunStats.toMs(totalTime) +
+				", \"invocations\": " + totalInvocations + ", \"ll_fallbacks\": " + totalFallbacks + ", \"decisions\": [" + json + "\n      ]}");
+	}
+
+	/** return input line of the deepest lookahead of a decision (-1 if not available) */
+	private static int getMaxLookLine(DecisionInfo decision) {
+		LookaheadEventInfo event = (decision.LL_MaxLook > decision.SLL_MaxLook)? decision.LL_MaxLookEvent : decision.SLL_MaxLookEvent;
+		if ((event == null) || !(event.input instanceof BufferedTokenStream)) return -1;  // unbuffered tokens are not available
+		return event.input.get(event.startIndex).getLine();
+	}
+
+	/** write saved profiles to the specified file as json */
+	public static void write(String fileName) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n");
+		json.append("  \"version\": " + RunStats.quote(Ordt.getVersion()) + ",\n");
+		json.append("  \"files\": [");
+		synchronized (fileProfiles) {
+			String sep = "\n";
+			for (String fileProfile : fileProfiles) {
+				json.append(sep + fileProfile);
+				sep = ",\n";
+			}
+		}
+		json.append("\n  ]\n}\n");
+		try {
+			Files.write(Paths.get(fileName), json.toString().getBytes(utf8));
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to write parse profile file " + fileName);
+		}
+	}
+}
@@ -3,17 +3,60 @@
  */
 package ordt.extract;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
 
 /**
- *  class for storage of assigned properties
+ *  class for storage of assigned properties.  Properties are stored in arrays keyed by PropertyRegistry
+ *  ordinal in assignment order.
  */
-public class PropertyList {
-	private HashMap<String, PropertyValue> values = new HashMap<String, PropertyValue>();  // saved parm values
+public class PropertyList implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final int[] noOrdinals = new int[0];
+	private static final String[] noValues = new String[0];
+	
+	private transient int[] ordinals = noOrdinals;  // property name ordinals
+	private transient String[] values = noValues;  // property values
+	private transient int[] depths;  // assignment depths (null if all are 0)
+	private transient int size = 0;  // number of properties
 	
 	/** clear all params */
 	public void clear() {
-		values.clear();
+		ordinals = noOrdinals;
+		values = noValues;
+		depths = null;
+		size = 0;
+	}
+
+	/** return number of properties in the list */
+	public int size() {
+		return size;
+	}
+
+	/** return name of property at the specified index */
+	public String getName(int idx) {
+		return PropertyRegistry.getName(ordinals[idx]);
+	}
+
+	/** return value of property at the specified index */
+	public String getValue(int idx) {
+		return values[idx];
+	}
+
+	/** return assignment depth of property at the specified index */
+	public int getDepth(int idx) {
+		return (depths == null)? 0 : depths[idx];
+	}
+
+	/** return index of a property or -1 if not found */
+	private int indexOf(String name) {
+		int ordinal = PropertyRegistry.findOrdinal(name);
+		if (ordinal < 0) return -1;
+		for (int idx=0; idx<size; idx++) if (ordinals[idx] == ordinal) return idx;
+		return -1;
 	}
 
 	/** get a property string value
@@ -21,8 +64,8 @@ public class PropertyList {
 	 *  @return the value
 	 */
 	public String getProperty(String name) {
-		PropertyValue prop = values.get(name);
-		return (prop == null) ? null : prop.getValue();
+		int idx = indexOf(name);
+		return (idx < 0) ? null : values[idx];
 	}
 
 	/** get a property assignment depth
@@ -30,8 +73,8 @@ public class PropertyList {
 	 *  @return the depth
 	 */
 	public int getDepth(String name) {
-		PropertyValue prop = values.get(name);
-		return (prop == null) ? 0 : prop.getDepth();
+		int idx = indexOf(name);
+		return (idx < 0) ? 0 : getDepth(idx);
 	}
 	
 	/** get an integer property or null if exception
@@ -96,54 +139,44 @@ public class PropertyList {
 		return hasTrueProperty(name) || (hasProperty(name) && !hasFalseProperty(name));
 	}
 
-	/** get property hashmap
-	 *  @return values
-	 */
-	public HashMap<String, PropertyValue> getProperties() {
-		return values;
-	}
-	
 	/** set a prop value and reconcile values
 	 *  @param name of the value to set
 	 *  @param value - string
 	 *  @param depth - depth in instancepath ancestors of assignment statement lhs
 	 */
 	public void setProperty(String name, String value, int depth) {  // TODO use depth
-		PropertyValue prop;
 		//if (depth>0) System.out.println("PropertyList setProperty: " + name + ", val=" + value + ", d=" + depth);
-		// create storage object according to depth
-		if (depth > 0) prop = new DynamicPropertyValue(depth);
-		else prop = new PropertyValue();
+		// only dynamic assigns store a depth
+		if (depth < 0) depth = 0;
 		
 		// reconcile woset/woclr assigns
-		if (name.equals("woclr") && value.equals("true")) values.remove("woset"); 
-		else if (name.equals("woset") && value.equals("true")) values.remove("woclr"); 
+		if (name.equals("woclr") && value.equals("true")) removeProperty("woset"); 
+		else if (name.equals("woset") && value.equals("true")) removeProperty("woclr"); 
 		// reconcile rset/rclr assigns
-		else if (name.equals("rclr") && value.equals("true")) values.remove("rset"); 
-		else if (name.equals("rset") && value.equals("true")) values.remove("rclr");
+		else if (name.equals("rclr") && value.equals("true")) removeProperty("rset"); 
+		else if (name.equals("rset") && value.equals("true")) removeProperty("rclr");
 		// reconcile intrType
 		else if (name.equals("posedge") || name.equals("negedge") || name.equals("bothedge") || name.equals("level")) { 
 			if (value.equals("true")) {
-				prop.setValue(name); setProperty("intrType", prop);
+				putProperty("intrType", name, depth);
 			}
 			else if (value.equals("false") && name.equals(getProperty("intrType"))) {
-				prop.setValue("level"); setProperty("intrType", prop);  // otherwise back to default
+				putProperty("intrType", "level", depth);  // otherwise back to default
 			}
 			return; 
 		} 
 		// reconcile intrStickyType
 		else if (name.equals("nonsticky") || name.equals("sticky") || name.equals("stickybit")) { 
 			if (value.equals("true")) {
-				prop.setValue(name); setProperty("intrStickyType", prop);
+				putProperty("intrStickyType", name, depth);
 			}
 			else if (value.equals("false") && name.equals(getProperty("intrStickyType"))) {
-				prop.setValue("stickybit"); setProperty("intrStickyType", prop);  // back to default
+				putProperty("intrStickyType", "stickybit", depth);  // back to default
 			}
 			return; 
 		} 
 		
-		prop.setValue(RdlModelExtractor.noEscapes(value)); 
-		setProperty(name, prop); 
+		putProperty(name, RdlModelExtractor.noEscapes(value), depth); 
 	}
 	
 	/** set a prop value and reconcile values assuming 0 depth (non-dynamic assign)
@@ -159,123 +192,97 @@ public class PropertyList {
 	 *  @param name2 - key of copy result
 	 */
 	public void copyProperty(String name1, String name2) {
-		PropertyValue prop = values.get(name1);
-		if (prop == null) return;
-		setProperty(name2, prop.getValue(), prop.getDepth());
+		int idx = indexOf(name1);
+		if (idx < 0) return;
+		setProperty(name2, values[idx], getDepth(idx));
 	}
 	
-	/** set a prop value directly (no property reconciliation is done 
+	/** set a prop value directly (no property reconciliation is done) 
 	 *  @param name of the value to set
-	 *  @param value - PropertyValue
+	 *  @param value - string
+	 *  @param depth - depth in instancepath ancestors of assignment statement lhs
 	 */
-	private void setProperty(String name, PropertyValue value) {
-		values.put(name, value);
+	private void putProperty(String name, String value, int depth) {
+		int ordinal = PropertyRegistry.getOrdinal(name);
+		int idx = 0;
+		while ((idx < size) && (ordinals[idx] != ordinal)) idx++;
+		// add a new property if not found
+		if (idx == size) {
+			if (size == ordinals.length) {
+				int newLength = Math.max(4, size * 2);
+				ordinals = Arrays.copyOf(ordinals, newLength);
+				values = Arrays.copyOf(values, newLength);
+				if (depths != null) depths = Arrays.copyOf(depths, newLength);
+			}
+			ordinals[size++] = ordinal;
+		}
+		values[idx] = value;
+		if ((depth != 0) && (depths == null)) depths = new int[ordinals.length];
+		if (depths != null) depths[idx] = depth;
 	}
 	
 	/** remove a property  
 	 *  @param name of the property to be removed
 	 */
 	public void removeProperty(String name) {
-		values.remove(name);
-	}
-	
-	/** update parameters using values in supplied hashmap
-	 *  @param hashmap of properties to be set
-	 *  @param keepOldValues - true if values with keys already in hash will not be updated
-	 */
-	public void updateProperties(HashMap<String, PropertyValue> updates, boolean keepOldValues) {    
-		for (String key: updates.keySet()) {
-			PropertyValue prop = updates.get(key);
-			if (!(keepOldValues && hasProperty(key)))
-			   setProperty(key, prop.getValue(), prop.getDepth());   // update parameter  
-		}	
-	}
-	
-	/** update parameters using values in supplied hashmap
-	 *  @param hashmap of properties to be set
-	 */
-	public void updateProperties(HashMap<String, PropertyValue> updates) {    
-		updateProperties(updates, false);
+		int idx = indexOf(name);
+		if (idx < 0) return;
+		int count = size - idx - 1;
+		System.arraycopy(ordinals, idx + 1, ordinals, idx, count);
+		System.arraycopy(values, idx + 1, values, idx, count);
+		if (depths != null) System.arraycopy(depths, idx + 1, depths, idx, count);
+		values[--size] = null;
 	}
 	
 	/** update parameters using values in supplied ParameterList
 	 *  @param list of properties to be set
-	 *  @param keepOldValues - true if values with keys already in hash will not be updated
+	 *  @param keepOldValues - true if values with keys already in list will not be updated
 	 */
 	public void updateProperties(PropertyList updateList, boolean keepOldValues) {
-		if (updateList != null) updateProperties(updateList.getProperties(), keepOldValues);
+		if (updateList == null) return;
+		for (int idx=0; idx<updateList.size; idx++) {
+			String key = updateList.getName(idx);
+			if (!(keepOldValues && hasProperty(key)))
+			   setProperty(key, updateList.values[idx], updateList.getDepth(idx));   // update parameter  
+		}	
 	}
 
 	/** update parameters using values in supplied ParameterList
 	 *  @param list of properties to be set
 	 */
 	public void updateProperties(PropertyList updateList) {
-		if (updateList != null) updateProperties(updateList.getProperties());
+		updateProperties(updateList, false);
 	}
 
 	public String toString() {
-		return values.toString();
+		StringBuilder str = new StringBuilder("{");
+		for (int idx=0; idx<size; idx++) {
+			if (idx > 0) str.append(", ");
+			str.append(getName(idx) + "=" + values[idx] + "(" + getDepth(idx) + ")");
+		}
+		return str.append("}").toString();
 	}
 
 	public boolean isEmpty() {
-		return values.isEmpty();
+		return (size == 0);
 	}
 	
-	// ----------------- inner classes --------------------
-	/**
-	 *  class for storage of property values
-	 */
-	public class PropertyValue {
-		String value;
-		
-		public PropertyValue() {
-		}
-		
-		public PropertyValue(String value) {
-			this.value = value;
-		}
-		
-		public String getValue() {
-			return value;
-		}
-		
-		public void setValue(String value) {
-			this.value = value;
-		}
-		
-		public int getDepth() {
-			return 0;
-		}
-		
-		public String toString() {
-			return getValue() + "(" + getDepth() + ")";
+	/** serialize properties by name since ordinals are only valid within a run */
+	private void writeObject(ObjectOutputStream os) throws IOException {
+		os.defaultWriteObject();
+		os.writeInt(size);
+		for (int idx=0; idx<size; idx++) {
+			os.writeUTF(getName(idx));
+			os.writeObject(values[idx]);
+			os.writeInt(getDepth(idx));
 		}
 	}
 	
-	/**
-	 *  class for storage of dynamically assigned property values including depth param
-	 */
-	public class DynamicPropertyValue extends PropertyValue {
-		int depth = 0;
-		
-		public DynamicPropertyValue(int depth) {
-			super();
-			this.depth = depth;
-		}
-		
-		public DynamicPropertyValue(String value, int depth) {
-			super(value);
-			this.depth = depth;
-		}
-		
-		public int getDepth() {
-			return depth;
-		}
-		
-		public String toString() {
-			return getValue() + "(" + getDepth() + ")";
-		}
+	private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+		is.defaultReadObject();
+		clear();
+		int count = is.readInt();
+		for (int idx=0; idx<count; idx++) putProperty(is.readUTF(), (String) is.readObject(), is.readInt());
 	}
 
 }
-
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** registry of property names, assigning each a small ordinal so property lists and validation tables can be keyed
+ *  by int.  Names are registered on first use so user-defined properties are handled.  Ordinals are only valid
+ *  within a run, so property names (not ordinals) are serialized.  Since the registry grows with each distinct
+ *  user-defined property, OrdtServer clears it (along with its cached models) once it exceeds a size limit. */
+final class PropertyRegistry {
+	private static final Map<String, Integer> ordinals = new ConcurrentHashMap<String, Integer>();
+	private static volatile String[] names = new String[128];  // names indexed by ordinal
+	private static int nameCount = 0;
+	private static volatile int generation = 0;  // incremented on each clear so name sets reassign their ordinals
+
+	private PropertyRegistry() {}
+
+	/** return the ordinal of a property name, registering the name if new */
+	static int getOrdinal(String name) {
+		Integer ordinal = ordinals.get(name);
+		if (ordinal != null) return ordinal;
+		synchronized (PropertyRegistry.class) {
+			ordinal = ordinals.get(name);
+			if (ordinal != null) return ordinal;
+			if (nameCount == names.length) names = Arrays.copyOf(names, nameCount * 2);
+			names[nameCount] = name;
+			ordinals.put(name, nameCount);  // publish after name is stored
+			return nameCount++;
+		}
+	}
+
+	/** return the ordinal of a property name or -1 if the name has not been registered */
+	static int findOrdinal(String name) {
+		Integer ordinal = ordinals.get(name);
+		return (ordinal == null)? -1 : ordinal;
+	}
+
+	/** return the property name of an ordinal */
+	static String getName(int ordinal) {
+		return names[ordinal];
+	}
+
+	/** return the number of registered names */
+	static synchronized int size() {
+		return nameCount;
+	}
+
+	/** remove all registered names.  Existing ordinals become invalid, so no property list created before the
+	 *  clear may be used afterward. */
+	static synchronized void clear() {
+		ordinals.clear();
+		names = new String[128];
+		nameCount = 0;
+		generation++;
+	}
+
+	/** fixed set of property names stored as ordinals, used for component validation tables */
+	static class NameSet {
+		private final String[] names;  // member names, kept so ordinals can be reassigned after a registry clear
+		private volatile BitSet members;
+		private volatile int membersGeneration = -1;  // registry generation of members
+
+		NameSet(String... names) {
+			this.names = names;
+		}
+
+		/** create a set containing names of a base set plus additional names */
+		NameSet(NameSet base, String... names) {
+			this.names = Arrays.copyOf(base.names, base.names.length + names.length);
+			System.arraycopy(names, 0, this.names, base.names.length, names.length);
+		}
+
+		boolean contains(String name) {
+			BitSet current = (membersGeneration == generation)? members : getMembers();  // generation read before members
+			int ordinal = findOrdinal(name);
+			return (ordinal >= 0) && current.get(ordinal);
+		}
+
+		/** return member ordinals, registering member names if the registry has been cleared since last call */
+		private synchronized BitSet getMembers() {
+			int currentGeneration = generation;
+			if (membersGeneration != currentGeneration) {
+				BitSet newMembers = new BitSet();
+				for (String name : names) newMembers.set(getOrdinal(name));
+				members = newMembers;
+				membersGeneration = currentGeneration;
+			}
+			return members;
+		}
+	}
+}
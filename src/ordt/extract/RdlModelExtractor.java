@@ -3,10 +3,9 @@
  */
 package ordt.extract;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -21,9 +20,12 @@ import ordt.parse.systemrdl.SystemRDLParser;
 import ordt.parse.systemrdl.SystemRDLParser.Component_inst_elemContext;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.misc.NotNull;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
@@ -42,7 +44,9 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 	
 	private PropertyList savedParms = new PropertyList();   // structure for saving parameters for assignment to comp/instances
 	
-	private static int anonCompId = 0;   // id for anonymous components
+	private int anonCompId = 0;   // id for anonymous components
+	private String anonCompPrefix = "aNON";  // id prefix for anonymous components
+	private ModelSnapshot libraries;  // definitions extracted from library files (null if none)
 	
 	private InstanceRef rhsInstanceRef = null;  // rhs ref info for assignment checking
 
@@ -51,14 +55,34 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 	 * @param moduleName to be used as default name for addrmap instances
 	 * */
 	public RdlModelExtractor (String rdlFile) {
+		this(rdlFile, (Reader) null);
+	}
+	
+	/** create data model from a reader providing rdl file contents
+	 * @param rdlFile name of the input (used for messages and output headers)
+	 * @param inputReader reader providing the input (if null, rdlFile is read)
+	 * */
+	public RdlModelExtractor (String rdlFile, Reader inputReader) {
+		this(rdlFile, inputReader, null);
+	}
+	
+	/** create data model from an rdl file or reader using definitions from library files
+	 * @param rdlFile name of the input (used for messages and output headers)
+	 * @param inputReader reader providing the input (if null, rdlFile is read)
+	 * @param libraries definitions to be added to root before extraction (null if none)
+	 * */
+	public RdlModelExtractor (String rdlFile, Reader inputReader, ModelSnapshot libraries) {
         this.rdlInputFile = rdlFile;  // save rdl file
+        this.libraries = libraries;
        
         try {
-        	InputStream is = System.in;
-        	if ( rdlFile!=null ) is = new FileInputStream(rdlInputFile);
-        
-        	ANTLRInputStream input = new ANTLRInputStream(is);
+        	RunStats.Phase parsePhase = RunStats.startPhase("parse rdl", new OrdtEvent.Parse().setInstancePath(rdlInputFile));  // lex/parse stats
+        	CharStream input;
+        	if (inputReader != null) input = new ANTLRInputStream(inputReader);
+        	else if (rdlFile != null) input = MappedCharStream.open(rdlInputFile);  // map input file rather than copying it
+        	else input = new ANTLRInputStream(System.in);
         	SystemRDLLexer lexer = new SystemRDLLexer(input);
+        	CheckReport.addErrorListener(lexer);  // save syntax errors if checking
 
         	// check input post lexer
         	//List<? extends Token> toks = lexer.getAllTokens();
@@ -66,7 +90,8 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
         	//    System.out.println(t);
         	//System.out.println("tokenizer size=" + toks.size());
 
-        	CommonTokenStream tokens = new CommonTokenStream(lexer);
+        	boolean streaming = Ordt.isStreamingExtract();
+        	TokenStream tokens = streaming? StreamingExtractListener.createTokenStream(lexer) : new CommonTokenStream(lexer);
 
         	// check input post tokenizer
         	//List<Token> toks2 = tokens.getTokens();
@@ -74,20 +99,41 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 
         	SystemRDLParser parser; // = new SystemRDLParser(null);
         	parser = new SystemRDLParser(tokens);
+        	CheckReport.addErrorListener(parser);
+        	if (ParseProfile.isActive()) parser.setProfile(true);  // collect decision stats
 
-        	ParseTree tree = parser.root(); //compilationUnit(); // parse
+        	boolean llReparse = false;
+        	ParseTree tree;
+        	if (streaming) {
+        		// extract rules as they are parsed, so full token stream and tree aren't retained
+        		int[] containerRules = new int[] {SystemRDLParser.RULE_component_def};
+        		int[] statementRules = new int[] {SystemRDLParser.RULE_parameter_block, SystemRDLParser.RULE_component_def, SystemRDLParser.RULE_enum_def, SystemRDLParser.RULE_explicit_component_inst, SystemRDLParser.RULE_property_assign, SystemRDLParser.RULE_property_definition};
+        		StreamingExtractListener.setStreamingMode(parser, this, containerRules, statementRules);
+        		tree = parser.root();
+        	}
+        	else if (ParseProfile.isActive()) tree = parser.root();  // profile using full LL prediction
+        	else {
+        		// parse with fast SLL prediction, re-parsing with full LL if SLL fails
+        		TwoStageParse.setSllMode(parser);
+        		try {
+        			tree = parser.root(); //compilationUnit(); // parse
+        		} catch (ParseCancellationException e) {
+        			TwoStageParse.setLlMode(parser);
+        			tree = parser.root();
+        			llReparse = true;
+        		}
+        	}
+        	parsePhase.setCount("tokens", streaming? tokens.index() + 1 : tokens.size());
+        	parsePhase.setCount("ll_reparse", llReparse? 1 : 0);
+        	ParseProfile.add(rdlInputFile, parser);
+        	parsePhase.end();
         	//System.out.println(tree.toStringTree());
+        	RunStats.Phase walkPhase = RunStats.startPhase("extract rdl", new OrdtEvent.Extract().setInstancePath(rdlInputFile));  // listener walk stats
         	ParseTreeWalker walker = new ParseTreeWalker(); // create standard
-        	walker.walk(this, tree); // initiate walk of tree with listener
-        	if (parser.getNumberOfSyntaxErrors() > 0) {
-        		Ordt.errorExit("RDL parser errors detected.");  
-        		System.exit(8);
-        	}
-        	
-        	// if components are specified for processing, find each and create an instance  
-        	if (ExtParameters.hasRdlProcessComponents()) processComponents();
-        	else if (root.getFirstChildInstance() == null)
-        		Ordt.errorExit("No rdl structures instanced or typedefs specified for processing.");
+        	if (!streaming) walker.walk(this, tree); // initiate walk of tree with listener
+        	if (parser.getNumberOfSyntaxErrors() > 0) Ordt.errorExit("RDL parser errors detected.");
+        	finishExtract();
+        	walkPhase.end();
 
         	//root.display(true);
 
@@ -98,6 +144,78 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
         }		
 	}
 	
+	/** extract definitions from a parsed rdl library file
+	 * @param library parsed library file
+	 * @param libraries definitions of previous library files (null if none)
+	 * */
+	RdlModelExtractor (LibraryLoader.ParsedLibrary library, ModelSnapshot libraries) {
+		this.rdlInputFile = library.getFileName();
+		this.libraries = libraries;
+		this.anonCompPrefix = "aNON" + "lib" + library.getIndex() + "_";  // keep anonymous ids unique across libraries
+		RunStats.Phase walkPhase = RunStats.startPhase("extract rdl library", new OrdtEvent.Extract().setInstancePath(rdlInputFile));
+		ParseTreeWalker walker = new ParseTreeWalker();
+		walker.walk(this, library.getTree());
+		if (library.getSyntaxErrors() > 0) Ordt.errorExit("RDL parser errors detected in library " + rdlInputFile + ".");
+		walkPhase.end();
+	}
+	
+	/** create a model from an existing root, to which top-level statements are added by extractStatement
+	 * @param rdlFile name of the input
+	 * @param root model root (may contain library definitions)
+	 * */
+	RdlModelExtractor (String rdlFile, ModRootComponent root) {
+		this.rdlInputFile = rdlFile;
+		this.root = root;
+		activeCompDefs.push(root);
+	}
+	
+	/** extract a top-level statement parse tree into the model root
+	 * @param statement parse tree of a root level rule
+	 * @param anonStart id of first anonymous component in the statement
+	 * */
+	void extractStatement(ParseTree statement, int anonStart) {
+		anonCompId = anonStart;
+		new ParseTreeWalker().walk(this, statement);
+	}
+	
+	/** process specified components or check for a root instance once all statements are extracted */
+	void finishExtract() {
+		// if components are specified for processing, find each and create an instance  
+		if (ExtParameters.hasRdlProcessComponents()) processComponents();
+		else if (root.getFirstChildInstance() == null)
+			Ordt.errorExit("No rdl structures instanced or typedefs specified for processing.");
+	}
+	
+	/** lex/parse an rdl library file without extraction (may be called concurrently)
+	 * @param libFile library file name
+	 * @param index position of the library in library list */
+	static LibraryLoader.ParsedLibrary parseLibrary(String libFile, int index) throws IOException {
+		RunStats.Phase parsePhase = RunStats.startPhase("parse rdl library", new OrdtEvent.Parse().setInstancePath(libFile));
+		SystemRDLLexer lexer = new SystemRDLLexer(MappedCharStream.open(libFile));
+		CheckReport.addErrorListener(lexer);  // save syntax errors if checking
+		CommonTokenStream tokens = new CommonTokenStream(lexer);
+		SystemRDLParser parser = new SystemRDLParser(tokens);
+		CheckReport.addErrorListener(parser);
+		ParseTree tree;
+		if (ParseProfile.isActive()) {
+			parser.setProfile(true);
+			tree = parser.root();
+		}
+		else {
+			TwoStageParse.setSllMode(parser);
+			try {
+				tree = parser.root();
+			} catch (ParseCancellationException e) {
+				TwoStageParse.setLlMode(parser);
+				tree = parser.root();
+			}
+		}
+		parsePhase.setCount("tokens", tokens.size());
+		ParseProfile.add(libFile, parser);
+		parsePhase.end();
+		return new LibraryLoader.ParsedLibrary(libFile, index, tree, parser.getNumberOfSyntaxErrors());
+	}
+	
 
 	/** if comps are specified for processing, find each and create an instance  */  
 	private void processComponents() {
@@ -220,7 +338,7 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 			// set id of new component if specified
 			if (!"{".equals(secondToken)) rElem.setId(secondToken);
 			// otherwise give this anonymous component an id
-			else rElem.setId("aNON" + anonCompId++);
+			else rElem.setId(anonCompPrefix + anonCompId++);
 			
 			// save line number of component definition
 			rElem.setInputLineNumber(ctx.getStart().getLine()); 
@@ -292,7 +410,7 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 		// create a new instance
 		if (modComp != null) {
 			activeInstance = modComp.createNewInstance();  
-			activeInstance.updateProperties(savedParms.getProperties());   // add external, internal, alias_id settings from anon_comp_inst and expl_comp_inst
+			activeInstance.updateProperties(savedParms);   // add external, internal, alias_id settings from anon_comp_inst and expl_comp_inst
 			activeInstance.setInputLineNumber(ctx.getStart().getLine());
 			// extract parameters and update instance
 			activeInstance.setId(ctx.getChild(0).getText());  // set id to first child
@@ -698,6 +816,7 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 		// add the root element
 		root = (ModRootComponent) ModComponent.createModComponent("root");
 		activeCompDefs.push(root);   // push onto the active definition stack
+		if (libraries != null) root.importLibrary(libraries.getRoot());  // add library definitions
 	}
 	
 	/**
@@ -819,6 +938,11 @@ public class RdlModelExtractor extends SystemRDLBaseListener implements RegModel
 		return true;
 	}
 
+	/** return index of registers by address **/
+	public AddressIndex getAddressIndex() {
+		return AddressIndex.getIndex(this);
+	}
+
     // ------------------------------------------------------------------------------------------------
 	
 	/** inner class for carrying extracted rdl instance_ref info */
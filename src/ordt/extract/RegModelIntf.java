@@ -27,4 +27,7 @@ public interface RegModelIntf {
 	/** return true if field offsets are relative to zero or max reg/fieldset width (rdl=true, jspac=false) **/
 	public boolean fieldOffsetsFromZero();		
 	
+	/** get index of registers by address (model address layout is computed if needed) **/
+	public AddressIndex getAddressIndex();
+	
 }
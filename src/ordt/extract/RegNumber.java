@@ -3,21 +3,30 @@
  */
 package ordt.extract;
 
+import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-/** class representing a number for addressing/hw vectors */
-public class RegNumber implements Comparable<RegNumber> {
-	private BigInteger value;  // value stored
+/** class representing a number for addressing/hw vectors.  Values that fit in a long are stored as a long and
+ *  only promoted to BigInteger if an operation overflows. */
+public class RegNumber implements Comparable<RegNumber>, Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private boolean defined = false;  // value has been set
+	private long longValue;  // value stored if it fits in a long
+	private BigInteger value;  // value stored if it does not fit in a long (null otherwise)
 	public enum NumFormat {Verilog, NoLengthVerilog, Int, Address}  // the format used for display
 	private NumFormat numFormat;
 	public enum NumBase {Hex, Dec, Oct, Bin}    // the base used for display
 	private NumBase numBase;
 	private Integer vectorLen;   // length of vector in bits
 	
+	private static final int maxCachedLiterals = 65536;
+	private static Map<String, RegNumber> literalCache = new ConcurrentHashMap<String, RegNumber>();  // parsed values of literal strings (never modified)
+	
 	@SuppressWarnings("unused")
 	private RegNumber() {}
 	
@@ -37,66 +46,27 @@ public class RegNumber implements Comparable<RegNumber> {
      **/
 	public RegNumber (String numStr) {
 		if ((numStr == null) || (numStr.length()<1)) return;
-		// check for plain integers
-		Pattern p = Pattern.compile("^(\\d+)$");
-		Matcher m = p.matcher(numStr);
-		if (m.matches()) {
-		  this.value = new BigInteger(m.group(1));
-		  this.numFormat = NumFormat.Int;
-		  this.numBase = NumBase.Dec;
-		  this.vectorLen = null;
-		  return;
-		}
-		// check for hex number
-		p = Pattern.compile("^0x([\\d_[a-f][A-F]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			String num = m.group(1).replace("_","");  // remove underscores
-			//if (!m.group(1).equals(num)) System.out.println("RegNumber constructor: removed '_', new=" + num);
-			//else System.out.println("RegNumber constructor: no '_', new=" + num);
-			this.value = new BigInteger(num, 16);
-			this.numFormat = NumFormat.Address;
-			this.numBase = NumBase.Hex;
-			this.vectorLen = null;
-		  return;
-		}
-		// check for bin number
-		p = Pattern.compile("^0b([_[0-1]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			String num = m.group(1).replace("_","");  // remove underscores
-			this.value = new BigInteger(num, 2);
-			this.numFormat = NumFormat.Address;
-			this.numBase = NumBase.Hex;
-			this.vectorLen = null;
-		  return;
+		// use cached copy of repeated literals
+		RegNumber cached = literalCache.get(numStr);
+		if (cached == null) {
+			cached = new RegNumber(NumLiteral.scan(numStr));
+			if (literalCache.size() < maxCachedLiterals) literalCache.put(numStr, cached);
 		}
-		// check for verilog number
-		p = Pattern.compile("^(\\d+)\\s*'\\s*([bdoh])\\s*([\\d_[a-f][A-F]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			this.numFormat = NumFormat.Verilog;
-			this.vectorLen = Integer.valueOf(m.group(1));
-			String base = m.group(2);
-			String num = m.group(3).replace("_","");  // remove underscores
-			if ("h".equals(base)) {
-				this.numBase = NumBase.Hex;
-				this.value = new BigInteger(num, 16);
-			}
-			else if ("d".equals(base)) {
-				this.numBase = NumBase.Dec;
-				this.value = new BigInteger(num);
-			}
-			else if ("o".equals(base)) {
-				this.numBase = NumBase.Oct;
-				this.value = new BigInteger(num, 8);
-			}
-			else if ("b".equals(base)) {
-				this.numBase = NumBase.Bin;
-				this.value = new BigInteger(num, 2);
-			}
-		}
-		//else System.err.println("RegNumber: string matcher failed s=" + numStr + ", len=" + numStr.length());
+		copyValue(cached);
+		this.numFormat = cached.numFormat;
+		this.numBase = cached.numBase;
+		this.vectorLen = cached.vectorLen;
+	}
+
+	/** create regnumber from a scanned literal (undefined if null) */
+	private RegNumber (NumLiteral literal) {
+		if (literal == null) return;
+		String digits = literal.getDigits();
+		if (digits.length() < 16) setLongValue(Long.parseLong(digits, literal.getRadix()));  // fits in a long for any radix
+		else setValue(new BigInteger(digits, literal.getRadix()));
+		this.numFormat = literal.getNumFormat();
+		this.numBase = literal.getNumBase();
+		this.vectorLen = (literal.getWidth() != null)? Integer.valueOf(literal.getWidth()) : null;
 	}
 	
 	/** create a regnumber from an integer */
@@ -108,7 +78,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	/** create a regnumber from a long */
 	public RegNumber(long num) {
 		//this(String.valueOf(num));
-		this.value = BigInteger.valueOf(num);
+		setLongValue(num);
 		this.numFormat = NumFormat.Int;
 		this.numBase = NumBase.Dec;
 		this.vectorLen = null;
@@ -117,7 +87,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	/** create a regnumber copy from another regnumber */
 	public RegNumber (RegNumber num) {
 		  if (num == null) return;
-		  this.value = num.value;
+		  copyValue(num);
 		  this.numFormat = num.numFormat;
 		  this.numBase = num.numBase;
 		  this.vectorLen = num.vectorLen;
@@ -199,7 +169,7 @@ public class RegNumber implements Comparable<RegNumber> {
 		  
 		  // there should be only 1 expr elem remaining
 		  if (expr.size() == 1) {
-			  this.value = expr.get(0).getValue();
+			  copyValue(expr.get(0));
 			  this.numBase = NumBase.Hex;  // default to hex/address format
 			  this.numFormat = NumFormat.Address;
 		  }
@@ -209,7 +179,12 @@ public class RegNumber implements Comparable<RegNumber> {
 	 *  @return boolean
 	 */
 	public boolean isDefined() {
-		return (value != null);
+		return defined;
+	}
+
+	/** return true if value is defined and stored as a long */
+	private boolean isLong() {
+		return defined && (value == null);
 	}
 	
 	/** return true if value and vectorLen are defined
@@ -223,14 +198,48 @@ public class RegNumber implements Comparable<RegNumber> {
 	 *  @return the value
 	 */
 	public BigInteger getValue() {
-		return value;
+		if (!defined) return null;
+		return (value != null)? value : BigInteger.valueOf(longValue);
 	}
 
 	/** set value
 	 *  @param value the value to set
 	 */
 	public void setValue(BigInteger value) {
-		this.value = value;
+		if (value == null) {
+			this.defined = false;
+			this.value = null;
+		}
+		else if (value.bitLength() < 64) setLongValue(value.longValue());
+		else {
+			this.defined = true;
+			this.value = value;
+		}
+	}
+
+	/** set value from another regnumber keeping current format/base settings
+	 *  @param num regnumber containing the value to set
+	 */
+	public void setValue(RegNumber num) {
+		if (num == null) setValue((BigInteger) null);
+		else copyValue(num);
+	}
+
+	private void setLongValue(long value) {
+		this.defined = true;
+		this.longValue = value;
+		this.value = null;
+	}
+
+	private void copyValue(RegNumber num) {
+		this.defined = num.defined;
+		this.longValue = num.longValue;
+		this.value = num.value;
+	}
+
+	/** return BigInteger bit length of a long value */
+	private static int bitLength(long value) {
+		return 64 - Long.numberOfLeadingZeros((value < 0)? ~value : value);
 	}
 
 	/** get numFormat
@@ -286,22 +295,27 @@ public class RegNumber implements Comparable<RegNumber> {
 		if ((numFormat == NumFormat.Verilog) || (numFormat == NumFormat.NoLengthVerilog)) {
 			String vectorLenStr = (numFormat == NumFormat.NoLengthVerilog) ? "" : vectorLen.toString();
 			if (numBase == NumBase.Bin)
-			   return vectorLenStr + "\'b" + value.toString(2);   // binary
+			   return vectorLenStr + "\'b" + toString(2);   // binary
 			if (numBase == NumBase.Oct)
-			   return vectorLenStr + "\'o" + value.toString(8);   // octal
+			   return vectorLenStr + "\'o" + toString(8);   // octal
 			if (numBase == NumBase.Dec)
-			   return vectorLenStr + "\'d" + value.toString(10);   // decimal
-		   return vectorLenStr + "\'h" + value.toString(16);   // default to hex
+			   return vectorLenStr + "\'d" + toString(10);   // decimal
+		   return vectorLenStr + "\'h" + toString(16);   // default to hex
 		}
 		else if (numFormat == NumFormat.Address) { 
-			return "0x" + value.toString(16);   // hex address output format
+			return "0x" + toString(16);   // hex address output format
 		}
 		else {
-			if (numBase == NumBase.Hex) return value.toString(16);
-			return value.toString();  // integer format
+			if (numBase == NumBase.Hex) return toString(16);
+			return toString(10);  // integer format
 		}
 	}
 
+	/** return value string in specified radix */
+	private String toString(int radix) {
+		return (value != null)? value.toString(radix) : Long.toString(longValue, radix);
+	}
+
 	// ----------------------- in-place RegNumber transform methods -----------------------
 	
 	/** add arg value to base value keeping current format/base settings.
@@ -309,7 +323,11 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean add(RegNumber inc) {
 		if (inc == null) return false;
-		else setValue(getValue().add(inc.getValue()));
+		if (isLong() && inc.isLong()) {
+			long sum = longValue + inc.longValue;
+			if (((longValue ^ sum) & (inc.longValue ^ sum)) >= 0) { setLongValue(sum); return true; }  // no overflow
+		}
+		setValue(getValue().add(inc.getValue()));
 		return true;
 	}
 
@@ -322,7 +340,11 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean subtract(RegNumber dec) {
 		if (dec == null) return false;
-		else setValue(getValue().subtract(dec.getValue()));
+		if (isLong() && dec.isLong()) {
+			long diff = longValue - dec.longValue;
+			if (((longValue ^ dec.longValue) & (longValue ^ diff)) >= 0) { setLongValue(diff); return true; }  // no overflow
+		}
+		setValue(getValue().subtract(dec.getValue()));
 		return true;
 	}
 
@@ -353,6 +375,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if or failed */
 	private boolean or(RegNumber rhs) {
 		if (rhs == null) return false;
+		if (isLong() && rhs.isLong()) setLongValue(longValue | rhs.longValue);
 		else setValue(getValue().or(rhs.getValue()));
 		return true;
 	}
@@ -363,6 +386,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	private boolean and(RegNumber rhs) {
 		//System.out.println("RegNumber and, lhs=" + this + ", rhs=" + rhs);
 		if (rhs == null) return false;
+		if (isLong() && rhs.isLong()) setLongValue(longValue & rhs.longValue);
 		else setValue(getValue().and(rhs.getValue()));
 		return true;
 	}
@@ -372,6 +396,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if shift failed */
 	public boolean lshift(Integer rhs) {
 		if (rhs == null) return false;
+		if (isLong() && (rhs >= 0) && (rhs < 64) && (((longValue << rhs) >> rhs) == longValue)) setLongValue(longValue << rhs);  // no bits lost
 		else setValue(getValue().shiftLeft(rhs));
 		return true;		
 	}
@@ -381,6 +406,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if shift failed */
 	public boolean rshift(Integer rhs) {
 		if (rhs == null) return false;
+		if (isLong() && (rhs >= 0)) setLongValue(longValue >> Math.min(rhs, 63));
 		else setValue(getValue().shiftRight(rhs));
 		return true;		
 	}
@@ -390,6 +416,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean multiply(Integer mult) {
 		if (mult == null) return false;
+		if (isLong() && (longValue == (int) longValue)) setLongValue(longValue * mult);  // int product fits in a long
 		else setValue(getValue().multiply(BigInteger.valueOf(mult)));
 		return true;
 	}
@@ -399,6 +426,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean divide(Integer divisor) {
 		if (divisor == null) return false;
+		if (isLong() && (divisor != 0) && ((longValue != Long.MIN_VALUE) || (divisor != -1))) setLongValue(longValue / divisor);
 		else setValue(getValue().divide(BigInteger.valueOf(divisor)));
 		return true;
 	}
@@ -408,6 +436,8 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean multiply(RegNumber mult) {
 		if ((mult == null) || !mult.isDefined()) return false;
+		if (isLong() && mult.isLong() && (longValue == (int) longValue) && (mult.longValue == (int) mult.longValue))
+			setLongValue(longValue * mult.longValue);  // int product fits in a long
 		else setValue(getValue().multiply(mult.getValue()));
 		return true;
 	}
@@ -417,6 +447,8 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return false if add failed */
 	public boolean divide(RegNumber divisor) {
 		if ((divisor == null) || !divisor.isDefined()) return false;
+		if (isLong() && divisor.isLong() && (divisor.longValue != 0) && ((longValue != Long.MIN_VALUE) || (divisor.longValue != -1)))
+			setLongValue(longValue / divisor.longValue);
 		else setValue(getValue().divide(divisor.getValue()));
 		return true;
 	}
@@ -426,11 +458,10 @@ public class RegNumber implements Comparable<RegNumber> {
 	/** set value of this regnum to next highest power of 2 
 	 *  NOTE: this method modifies the calling RegNumber */
 	public void setNextHighestPowerOf2() {
-		BigInteger newValue = BigInteger.valueOf((long) 0);
 		int idx = this.getMinusOneHighestBit() + 1;
 		if (idx<1) return;
-		newValue = newValue.setBit(idx);
-		this.value = newValue;
+		if (idx < 63) setLongValue(1L << idx);
+		else setValue(BigInteger.ZERO.setBit(idx));
 	}
 	
 	/** return a regnumber w/ value of next highest power of 2 of this regnumber */
@@ -445,25 +476,34 @@ public class RegNumber implements Comparable<RegNumber> {
 	 * @return true if this regnumber mod modValue == 0 */
 	public boolean isModulus(RegNumber modValue) {
 		if (modValue == null) return false;
+		if (isLong() && modValue.isLong() && (modValue.longValue > 0)) return (longValue % modValue.longValue) == 0;
 		// calculate the remainder, if 0 we're done
 		BigInteger rem = getValue().mod(modValue.getValue()); 
-		return (rem.compareTo(new BigInteger("0")) == 0); 
+		return (rem.signum() == 0); 
 	}
 	
 	/** return true is RegNumber mod modValue == 0 
 	 * @param modValue Integer
 	 * @return true if this regnumber mod modValue == 0 */
 	public boolean isModulus(Integer modValue) {
-		return isModulus(new RegNumber(String.valueOf(modValue))); 
+		if (modValue == null) return false;
+		return isModulus(new RegNumber(modValue)); 
 	}
 	
 	/** modify value to round up to next integer value with mod == 0 
 	 * @return rounded up value */
 	public void roundUpToModulus(RegNumber modValue) {
 		if (modValue == null) return;
+		if (isLong() && modValue.isLong() && (modValue.longValue > 0)) {
+			long rem = longValue % modValue.longValue;
+			if (rem < 0) rem += modValue.longValue;  // use non-negative remainder as in BigInteger.mod
+			if (rem == 0) return;
+			long rounded = longValue - rem;
+			if (rounded <= Long.MAX_VALUE - modValue.longValue) { setLongValue(rounded + modValue.longValue); return; }
+		}
 		// calculate the remainder, if 0 we're done
 		BigInteger rem = getValue().mod(modValue.getValue()); 
-		if (rem.compareTo(new BigInteger("0")) == 0) return; 
+		if (rem.signum() == 0) return; 
 		// otherwise need to remove remainder and bump up by mod value
 		//System.out.println("value=" + this + ", modValue=" + modValue + ", rem=" + rem);
 		setValue(getValue().subtract(rem));
@@ -475,9 +515,9 @@ public class RegNumber implements Comparable<RegNumber> {
 	/** return a binary string representing value from low to high bit index */
 	public String getBinString(int lowBit, int highBit) {
 		// create a pad string
-		String padStr = "";
-		for (int i=0; i<highBit; i++) padStr = padStr +  "0";
-		String binStr = padStr + getValue().toString(2);  // get padded binary value
+		StringBuilder binStr = new StringBuilder();
+		for (int i=0; i<highBit; i++) binStr.append('0');
+		binStr.append(toString(2));  // get padded binary value
 		int len = binStr.length();  
 		//System.out.println("len=" + len + ", binstr=" + binStr+ ", low=" + lowBit+ ", high=" + highBit);
 		if ((lowBit>len-1) || (highBit>len-1)) return "";  // if bad indices return empty
@@ -487,6 +527,7 @@ public class RegNumber implements Comparable<RegNumber> {
 	/** RegNumber comparisons based on value */
     @Override
 	public int compareTo(RegNumber arg0) {
+    	if (isLong() && arg0.isLong()) return Long.compare(longValue, arg0.longValue);
 		return this.getValue().compareTo(arg0.getValue());
 	}
 
@@ -502,12 +543,14 @@ public class RegNumber implements Comparable<RegNumber> {
 	
 	/** return index of highest set bit in binary representation of value */  
     public int getHighestBit () {   
+    	if (isLong()) return bitLength(longValue) - 1;
 		return this.getValue().bitLength() - 1;
 	}
     
 	/** return index of highest set bit in binary representation of value minus 1 */   
     public int getMinusOneHighestBit () {   
-    	BigInteger valMinus1 = this.getValue().subtract(new BigInteger("1"));
+    	if (isLong() && (longValue != Long.MIN_VALUE)) return bitLength(longValue - 1) - 1;
+    	BigInteger valMinus1 = this.getValue().subtract(BigInteger.ONE);
 		return valMinus1.bitLength() - 1;
 	}
 
@@ -560,12 +603,14 @@ public class RegNumber implements Comparable<RegNumber> {
 	
     /** return true if value of this RegNumber is non-zero */
 	public boolean isNonZero() {
+		if (isLong()) return (Long.bitCount((longValue < 0)? ~longValue : longValue) > 0);  // matches BigInteger bitCount
 		return (getValue().bitCount() > 0);
 	}
 
 	/** return integer rep of this regnumber or null if unable to successfully convert */
 	public Integer toInteger() {
 		// try integer conversion
+		if (isLong()) return (longValue == (int) longValue)? Integer.valueOf((int) longValue) : null;
 		Integer retVal = null;
 		try {
 			if (isDefined()) retVal = Integer.valueOf(toFormat(NumBase.Dec, NumFormat.Int));
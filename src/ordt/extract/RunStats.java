@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** per-phase run statistics (wall time, cpu time, allocated bytes, peak heap, and phase counts) written as json.
+ *  Time and allocation are measured on the thread running the phase.  Peak heap is jvm-wide and is only reset
+ *  when a phase starts with no other phase running.  Phases that overlap another phase (eg -parallel outputs)
+ *  are marked with peak_heap_overlapped, since their peak includes the overlapping phases and may date from
+ *  before the phase started.
+ */
+public class RunStats {
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	private static boolean active = false;
+	private static long startTime;  // run start time in ns
+	private static List<Phase> phases = Collections.synchronizedList(new ArrayList<Phase>());  // completed phases in end order
+	private static List<Phase> openPhases = new ArrayList<Phase>();  // started phases not yet ended, used as lock
+
+	/** clear stats and enable collection if specified */
+	public static void init(boolean isActive) {
+		active = isActive;
+		startTime = System.nanoTime();
+		phases.clear();
+		synchronized (openPhases) {
+			openPhases.clear();
+		}
+	}
+
+	/** return true if stats are being collected */
+	public static boolean isActive() {
+		return active;
+	}
+
+	/** start timing a phase.  The returned phase should be ended by the same thread. */
+	public static Phase startPhase(String name) {
+		return new Phase(name, null);
+	}
+
+	/** start timing a phase that will also be recorded as a flight recorder event */
+	public static Phase startPhase(String name, OrdtEvent event) {
+		return new Phase(name, event);
+	}
+
+	/** write collected stats to the specified file as json */
+	public static void write(String fileName) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n");
+		json.append("  \"version\": " + quote(Ordt.getVersion()) + ",\n");
+		json.append("  \"input\": " + quote(Ordt.getInputFile()) + ",\n");
+		json.append("  \"wall_ms\": " + toMs(System.nanoTime() - startTime) + ",\n");
+		json.append("  \"phases\": [");
+		synchronized (phases) {
+			String sep = "\n";
+			for (Phase phase : phases) {
+				json.append(sep);
+				phase.appendJson(json);
+				sep = ",\n";
+			}
+		}
+		json.append("\n  ]\n}\n");
+		try {
+			Files.write(Paths.get(fileName), json.toString().getBytes(utf8));
+		} catch (IOException e) {
+			Ordt.warnMessage("unable to write run stats file " + fileName);
+		}
+	}
+
+	// ------------------------ measurement methods
+
+	/** return cpu time of current thread in ns or -1 if not supported */
+	private static long getThreadCpuTime() {
+		return threadBean.isCurrentThreadCpuTimeSupported()? threadBean.getCurrentThreadCpuTime() : -1;
+	}
+
+	/** return bytes allocated by current thread or -1 if not supported */
+	private static long getThreadAllocatedBytes() {
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) threadBean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/** add a started phase to the open list.  Peak heap is reset if no other phase is running, otherwise the new
+	 *  phase and all running phases are marked as overlapped */
+	private static void openPhase(Phase phase) {
+		synchronized (openPhases) {
+			if (openPhases.isEmpty()) resetPeakHeap();
+			else {
+				phase.overlapped = true;
+				for (Phase open : openPhases) open.overlapped = true;
+			}
+			openPhases.add(phase);
+		}
+	}
+
+	/** remove an ended phase from the open list */
+	private static void closePhase(Phase phase) {
+		synchronized (openPhases) {
+			openPhases.remove(phase);
+		}
+	}
+
+	/** reset peak usage of all heap memory pools */
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+		}
+	}
+
+	/** return sum of peak usage of all heap memory pools */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	static String toMs(long ns) {
+		return (ns < 0)? "-1" : String.format(Locale.US, "%.3f", ns / 1000000.0);
+	}
+
+	/** return a quoted json string */
+	static String quote(String str) {
+		if (str == null) return "null";
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : str.toCharArray()) {
+			if ((c == '"') || (c == '\\')) quoted.append('\\').append(c);
+			else if (c < ' ') quoted.append(String.format("\\u%04x", (int) c));
+			else quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	// ------------------------ phase class
+
+	/** timing and counts of a single run phase */
+	public static class Phase {
+		private String name;
+		private String thread;
+		private long wallTime, cpuTime, allocatedBytes, peakHeap;
+		private boolean overlapped = false;  // another phase ran during this one, so peakHeap is not per-phase
+		private Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		private OrdtEvent event;  // flight recorder event for this phase (null if none)
+
+		private Phase(String name, OrdtEvent event) {
+			this.name = name;
+			this.event = event;
+			if (event != null) event.begin();
+			if (!active) return;
+			this.thread = Thread.currentThread().getName();
+			openPhase(this);
+			wallTime = System.nanoTime();
+			cpuTime = getThreadCpuTime();
+			allocatedBytes = getThreadAllocatedBytes();
+		}
+
+		/** set a count associated with this phase */
+		public void setCount(String countName, long value) {
+			counts.put(countName, value);
+			if (event != null) event.setCount(countName, value);
+		}
+
+		/** end this phase and save its stats */
+		public void end() {
+			if (event != null) event.commit();
+			if (!active) return;
+			wallTime = System.nanoTime() - wallTime;
+			if (cpuTime >= 0) cpuTime = getThreadCpuTime() - cpuTime;
+			if (allocatedBytes >= 0) allocatedBytes = getThreadAllocatedBytes() - allocatedBytes;
+			peakHeap = getPeakHeap();
+			closePhase(this);
+			phases.add(this);
+		}
+
+		private void appendJson(StringBuilder json) {
+			json.append("    {\"name\": " + quote(name) + ", \"thread\": " + quote(thread) + ", \"wall_ms\": " + toMs(wallTime) +
+					", \"cpu_ms\": " + toMs(cpuTime) + ", \"allocated_bytes\": " + allocatedBytes + ", \"peak_heap_bytes\": " + peakHeap);
+			synchronized (openPhases) {
+				if (overlapped) json.append(", \"peak_heap_overlapped\": true");
+			}
+			if (!counts.isEmpty()) {
+				json.append(", \"counts\": {");
+				String sep = "";
+				for (Map.Entry<String, Long> count : counts.entrySet()) {
+					json.append(sep + quote(count.getKey()) + ": " + count.getValue());
+					sep = ", ";
+				}
+				json.append("}");
+			}
+			json.append("}");
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/** parse listener for streaming model extraction.  Rather than walking a complete parse tree after parsing,
+ *  the tree is walked by the extractor listener as it is built and extracted statements are pruned from the
+ *  tree.  Extractor enter methods inspect child contexts, so each statement rule is walked once it is complete,
+ *  except for container statements (eg component definitions) whose child statements are extracted as they
+ *  complete.  Root and open containers are entered once their first child statement completes, so container
+ *  enter methods may only use header children preceding the first statement and exit methods may not use
+ *  children.  Used with an unbuffered token stream, only tokens and tree of the current statement are retained.
+ */
+class StreamingExtractListener implements ParseTreeListener {
+
+	private ParseTreeListener extractor;  // model extractor listener
+	private Set<Integer> containerRules = new HashSet<Integer>();  // indices of non-root container rules
+	private Set<Integer> statementRules = new HashSet<Integer>();  // indices of rules extracted when complete
+	private List<OpenContainer> openContainers = new ArrayList<OpenContainer>();  // stack of open containers (root first)
+	private ParseTreeWalker walker = new ParseTreeWalker();
+
+	private StreamingExtractListener(ParseTreeListener extractor, int[] containerRules, int[] statementRules) {
+		this.extractor = extractor;
+		for (int rule : containerRules) this.containerRules.add(rule);
+		for (int rule : statementRules) this.statementRules.add(rule);
+	}
+
+	/** create a token stream that doesn't retain consumed tokens */
+	static TokenStream createTokenStream(TokenSource lexer) {
+		return new UnbufferedTokenStream<Token>(lexer);
+	}
+
+	/** set parser to extract using specified listener while parsing
+	 * @param containerRules - indices of statement rules whose child statements should be extracted as they complete
+	 * @param statementRules - indices of rules that are extracted and pruned when complete (including containers) */
+	static void setStreamingMode(Parser parser, ParseTreeListener extractor, int[] containerRules, int[] statementRules) {
+		parser.addParseListener(new StreamingExtractListener(extractor, containerRules, statementRules));
+		parser.setErrorHandler(new StreamingErrorStrategy());
+	}
+
+	/** open root and any container rules whose parent is the innermost open container */
+	@Override
+	public void enterEveryRule(ParserRuleContext ctx) {
+		if ((ctx.getParent() == null) || 
+			(containerRules.contains(ctx.getRuleIndex()) && !openContainers.isEmpty() && (ctx.getParent() == getInnermost().ctx)))
+			openContainers.add(new OpenContainer(ctx));
+	}
+
+	/** extract when a child statement of the innermost open container completes */
+	@Override
+	public void exitEveryRule(ParserRuleContext ctx) {
+		if (openContainers.isEmpty()) return;
+		OpenContainer innermost = getInnermost();
+		// completed container is extracted and pruned from its parent
+		if (ctx == innermost.ctx) {
+			extractOpenContainers();
+			innermost.exit();
+			openContainers.remove(openContainers.size() - 1);
+			if (!openContainers.isEmpty()) getInnermost().pruneLastChild();
+		}
+		else if ((ctx.getParent() == innermost.ctx) && statementRules.contains(ctx.getRuleIndex())) extractOpenContainers();
+	}
+
+	@Override
+	public void visitTerminal(TerminalNode node) {
+	}
+
+	@Override
+	public void visitErrorNode(ErrorNode node) {
+	}
+
+	private OpenContainer getInnermost() {
+		return openContainers.get(openContainers.size() - 1);
+	}
+
+	/** enter open containers and walk their completed children in tree order */
+	private void extractOpenContainers() {
+		int last = openContainers.size() - 1;
+		for (int idx = 0; idx <= last; idx++) openContainers.get(idx).extract(idx == last);
+	}
+
+	/** container rule whose children are being parsed */
+	private class OpenContainer {
+		private ParserRuleContext ctx;
+		private boolean entered = false;
+		private int walkedChildren = 0;  // number of leading children that have been walked
+
+		private OpenContainer(ParserRuleContext ctx) {
+			this.ctx = ctx;
+		}
+
+		/** enter this container if needed and walk its unwalked children, pruning walked statements
+		 * @param includeLast - if false, the last child is an open container and is not walked */
+		private void extract(boolean includeLast) {
+			if (!entered) {
+				extractor.enterEveryRule(ctx);
+				ctx.enterRule(extractor);
+				entered = true;
+			}
+			int end = includeLast? ctx.getChildCount() : ctx.getChildCount() - 1;
+			while (walkedChildren < end) {
+				ParseTree child = ctx.getChild(walkedChildren);
+				walker.walk(extractor, child);
+				if ((child instanceof ParserRuleContext) && statementRules.contains(((ParserRuleContext) child).getRuleIndex())) {
+					ctx.children.remove(walkedChildren);
+					end--;
+				}
+				else walkedChildren++;
+			}
+		}
+
+		/** remove last child (a container that has been extracted) */
+		private void pruneLastChild() {
+			ctx.removeLastChild();
+			walkedChildren = ctx.getChildCount();
+		}
+
+		private void exit() {
+			ctx.exitRule(extractor);
+			extractor.exitEveryRule(ctx);
+		}
+	}
+
+	/** default error strategy that reports only the offending token in no viable alt messages if the 
+	 *  start token of the failed decision is no longer buffered */
+	private static class StreamingErrorStrategy extends DefaultErrorStrategy {
+
+		@Override
+		protected void reportNoViableAlternative(Parser recognizer, NoViableAltException e) {
+			try {
+				super.reportNoViableAlternative(recognizer, e);
+			} catch (UnsupportedOperationException ue) {
+				String msg = "no viable alternative at input " + escapeWSAndQuote(e.getOffendingToken().getText());
+				recognizer.notifyErrorListeners(e.getOffendingToken(), msg, e);
+			}
+		}
+	}
+}
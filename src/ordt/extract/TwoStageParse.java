@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.extract;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+/** prediction mode settings for two stage parsing.  Input is first parsed using SLL prediction with a bail
+ *  error strategy, which is much faster than full LL for most inputs.  If the SLL parse fails (because of a
+ *  real syntax error or an SLL prediction conflict) the input is re-parsed using full LL prediction and the
+ *  default error strategy, so reported errors are the same as a single LL parse.
+ *  <pre>
+ *  TwoStageParse.setSllMode(parser);
+ *  try {
+ *     tree = parser.root();
+ *  } catch (ParseCancellationException e) {
+ *     TwoStageParse.setLlMode(parser);
+ *     tree = parser.root();
+ *  }
+ *  </pre>
+ */
+class TwoStageParse {
+
+	/** set parser for a fast first stage parse.  Errors will throw a ParseCancellationException. */
+	static void setSllMode(Parser parser) {
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.removeErrorListeners();  // first stage errors are not reported
+		parser.setErrorHandler(new BailErrorStrategy());
+	}
+
+	/** rewind input and set parser for a full LL second stage parse with normal error reporting */
+	static void setLlMode(Parser parser) {
+		parser.getInputStream().seek(0);
+		parser.reset();
+		parser.removeErrorListeners();
+		parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+		CheckReport.addErrorListener(parser);
+		parser.setErrorHandler(new DefaultErrorStrategy());
+		parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+	}
+}
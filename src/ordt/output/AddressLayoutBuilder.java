@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.output;
+
+import java.io.BufferedWriter;
+
+import ordt.extract.AddressLayout;
+import ordt.extract.ModInstance;
+import ordt.extract.RegModelIntf;
+import ordt.extract.RegNumber;
+import ordt.parameters.Utils;
+
+/** builder that walks the model computing register/regset addresses without generating any output.  The resulting
+ *  address layout is stored in the model so other builders use precomputed addresses, and address ordering and
+ *  alignment problems are reported once rather than by each output.
+ *  Each register and regset rep is address checked, but add/finish calls are only made once per group.
+ */
+public class AddressLayoutBuilder extends OutputBuilder {
+
+	private AddressLayout layout = new AddressLayout();
+	private AddressLayout.Group lastRegGroup;  // layout of last external register group (size is updated if root external)
+
+	public AddressLayoutBuilder(RegModelIntf model) {
+		setBaseBuilderID();   // set unique ID of this instance
+		this.model = model;
+	    setVisitEachReg(false);   // addresses of each rep are still computed
+	    setVisitEachRegSet(false);
+	    setVisitExternalRegisters(true);  // visit external fields so field layout is captured
+	    setVisitEachExternalRegister(false);
+	    AddressLayout.setLayout(model, null);  // compute all addresses in this builder
+		model.getRoot().generateOutput(null, this);   // walk the model starting at root
+		AddressLayout.setLayout(model, layout);  // save layout in model
+	}
+
+	/** get the computed address layout */
+	public AddressLayout getLayout() {
+		return layout;
+	}
+
+	/** never use a precomputed layout since this builder computes it */
+	@Override
+	protected AddressLayout getAddressLayout() {
+		return null;
+	}
+
+	//---------------------------- layout capture ----------------------------------------
+
+	@Override
+	public void addRegister(RegProperties rProperties, int rep) {
+		super.addRegister(rProperties, rep);
+		if (rProperties == null) return;
+		AddressLayout.Group group = addLayoutRep(rProperties, rep);
+		if (rep == 0) setRegLayout(rProperties, group);
+		rProperties.setLayoutGroup(group);  // save for field capture
+		if (rProperties.isLastRep()) finishLayoutGroup(rProperties, group);
+	}
+
+	@Override
+	public void addExternalRegisters(RegProperties rProperties) {
+		super.addExternalRegisters(rProperties);
+		if (rProperties == null) return;
+		lastRegGroup = addLayoutRep(rProperties, 0);
+		setRegLayout(rProperties, lastRegGroup);
+		rProperties.setLayoutGroup(lastRegGroup);  // save for field capture
+		// add remaining reps if aligned so builders visiting each external rep can use the layout
+		RegNumber stride = rProperties.getExtractInstance().getAddressIncrement();
+		int alignBytes = !Utils.isPowerOf2(rProperties.getRegWidth()) ? (Utils.getNextHighestPowerOf2(rProperties.getRegWidth())/8) : rProperties.getRegByteWidth(); 
+		if (stride == null) stride = new RegNumber(alignBytes);
+		if (stride.isModulus(alignBytes)) {
+			RegNumber repOffset = new RegNumber(rProperties.getRelativeBaseAddress());
+			for (int rep=1; rep<rProperties.getRepCount(); rep++) {
+				repOffset.add(stride);
+				lastRegGroup.addRep(repOffset);
+			}
+		}
+		finishLayoutGroup(rProperties, lastRegGroup);
+	}
+
+	@Override
+	public void addRootExternalRegisters(RegProperties newRegProperties) {
+		super.addRootExternalRegisters(newRegProperties);
+		// if an external register group, include reserved range in its size (regsets are sized on finish)
+		if ((newRegProperties == null) && (lastRegGroup != null)) finishLayoutGroup(regProperties, lastRegGroup);
+	}
+
+	@Override
+	public void addRegSet(RegSetProperties rsProperties, int rep) {
+		AddressLayout.Group parentGroup = getParentLayoutGroup();  // get parent before regset is pushed
+		super.addRegSet(rsProperties, rep);
+		if (rsProperties == null) return;
+		AddressLayout.Group group = addLayoutRep(parentGroup, rsProperties, rep);
+		if (rep == 0) group.setExternal(rsProperties.isExternal());
+		rsProperties.setLayoutGroup(group);
+	}
+
+	@Override
+	public void addField(FieldProperties fProperties) {
+		super.addField(fProperties);
+		// capture field positions from first rep of each register group
+		if ((fProperties == null) || (regProperties == null) || !regProperties.isFirstRep() || (fProperties.getLowIndex() == null)) return;
+		AddressLayout.Group group = regProperties.getLayoutGroup();
+		if (group != null) group.addField(fProperties.getPrefixedId(), fProperties.getLowIndex(), fProperties.getFieldWidth());
+	}
+
+	@Override
+	public void finishRegSet(RegSetProperties rsProperties) {
+		AddressLayout.Group group = rsProperties.getLayoutGroup();
+		group.finishRep();
+		if (rsProperties.isLastRep()) finishLayoutGroup(rsProperties, group);
+		super.finishRegSet(rsProperties);
+	}
+
+	@Override
+	public void finishRegMap(ModInstance regMapInst) {
+		super.finishRegMap(regMapInst);
+		layout.getRoot().setSize(getNextAddress());
+	}
+
+	/** get the layout group of the active regset */
+	private AddressLayout.Group getParentLayoutGroup() {
+		return regSetPropertyStack.isEmpty()? layout.getRoot() : regSetPropertyStack.peek().getLayoutGroup();
+	}
+
+	/** add the address of a reg rep to the layout of the active regset */
+	private AddressLayout.Group addLayoutRep(AddressableInstanceProperties properties, int rep) {
+		return addLayoutRep(getParentLayoutGroup(), properties, rep);
+	}
+
+	/** add the address of a reg/regset rep to the layout of a parent group
+	 *  @return the layout group of this instance */
+	private AddressLayout.Group addLayoutRep(AddressLayout.Group parentGroup, AddressableInstanceProperties properties, int rep) {
+		ModInstance inst = properties.getExtractInstance();
+		AddressLayout.Group group = (rep == 0)? parentGroup.addChild(inst) : parentGroup.getChild(parentGroup.getRepCount() - 1, inst);
+		group.addRep(properties.getRelativeBaseAddress());
+		return group;
+	}
+
+	/** save register info in a layout group */
+	private void setRegLayout(RegProperties rProperties, AddressLayout.Group group) {
+		group.setRegWidth(rProperties.getRegWidth());
+		group.setExternal(rProperties.isExternal());
+	}
+
+	/** set size of a layout group once its last rep is complete */
+	private void finishLayoutGroup(AddressableInstanceProperties properties, AddressLayout.Group group) {
+		// start of group is the parent base plus the offset of rep 0
+		RegNumber groupStart = new RegNumber(properties.getBaseAddress());
+		groupStart.subtract(properties.getRelativeBaseAddress());
+		groupStart.add(group.getOffset(0));
+		RegNumber size = new RegNumber(getNextAddress());
+		size.subtract(groupStart);
+		group.setSize(size);
+		group.finish();
+	}
+
+	//---------------------------- OutputBuilder methods (no output) ----------------------------------------
+
+	@Override
+	public void addSignal() {
+	}
+
+	@Override
+	public void addField() {
+	}
+
+	@Override
+	public void addAliasField() {
+	}
+
+	@Override
+	public void addRegister() {
+	}
+
+	@Override
+	public void finishRegister() {
+	}
+
+	@Override
+	public void addRootExternalRegisters() {
+	}
+
+	@Override
+	public void addRegSet() {
+	}
+
+	@Override
+	public void finishRegSet() {
+	}
+
+	@Override
+	public void addRegMap() {
+	}
+
+	@Override
+	public void finishRegMap() {
+	}
+
+	@Override
+	protected void write(BufferedWriter bw) {
+	}
+}
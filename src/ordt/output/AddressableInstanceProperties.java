@@ -3,6 +3,7 @@
  */
 package ordt.output;
 
+import ordt.extract.AddressLayout;
 import ordt.extract.ModAddressableInstance;
 import ordt.extract.ModInstance;
 import ordt.extract.RegNumber;
@@ -15,6 +16,7 @@ public class AddressableInstanceProperties extends InstanceProperties {
 
 	protected RegNumber baseAddress;
 	protected RegNumber relativeBaseAddress;   // base address of reg relative to parent
+	private AddressLayout.Group layoutGroup;   // precomputed address layout of this instance (null if not used)
 	
 	// external register group parameters
 	protected int extAddressWidth = 0;   // width of word address range for this group
@@ -30,12 +32,13 @@ public class AddressableInstanceProperties extends InstanceProperties {
 	public AddressableInstanceProperties(AddressableInstanceProperties oldInstance) {
 		super(oldInstance);
 		// set AddressableInstanceProperty info
-		setRelativeBaseAddress(oldInstance.getRelativeBaseAddress());  
-		setBaseAddress(oldInstance.getBaseAddress());  
+		if (oldInstance.getRelativeBaseAddress() != null) setRelativeBaseAddress(oldInstance.getRelativeBaseAddress());  
+		if (oldInstance.getBaseAddress() != null) setBaseAddress(oldInstance.getBaseAddress());  
 		setExtAddressWidth(oldInstance.getExtAddressWidth());  
 		setExtLowBit(oldInstance.getExtLowBit());  
 		setAddressMap(oldInstance.isAddressMap());  
 		setExternalDecode(oldInstance.isExternalDecode());  
+		setLayoutGroup(oldInstance.getLayoutGroup());  
 	}
 	
 	/** display info AddressableInstanceProperties info */
@@ -94,6 +97,20 @@ public class AddressableInstanceProperties extends InstanceProperties {
 	public void setRelativeBaseAddress(RegNumber relativeBaseAddress) {
 		this.relativeBaseAddress = new RegNumber(relativeBaseAddress);  // use a copy, not reference;
 	}
+
+	/** get precomputed address layout of this instance
+	 *  @return the layout group or null if addresses were computed by the builder
+	 */
+	public AddressLayout.Group getLayoutGroup() {
+		return layoutGroup;
+	}
+
+	/** set precomputed address layout of this instance
+	 *  @param layoutGroup the layoutGroup to set
+	 */
+	public void setLayoutGroup(AddressLayout.Group layoutGroup) {
+		this.layoutGroup = layoutGroup;
+	}
 	/** get extAddressWidth
 	 *  @return the extAddressWidth
 	 */
@@ -122,6 +122,62 @@ public class FieldProperties extends InstanceProperties {
 	public FieldProperties(ModInstance regInst) {
 		super(regInst);  // init instance, id and copy base properties in
 	}	
+
+	public FieldProperties(FieldProperties oldInstance) {
+		super(oldInstance);
+		this.fieldArrayString = oldInstance.fieldArrayString;
+		this.fieldSetPrefixString = oldInstance.fieldSetPrefixString;
+		this.fieldWidth = oldInstance.fieldWidth;
+		this.lowIndex = oldInstance.lowIndex;
+		this.subcategory = oldInstance.subcategory;
+		this.reset = copyRegNumber(oldInstance.reset);
+		this.hwPrecedence = oldInstance.hwPrecedence;
+		this.isSwReadable = oldInstance.isSwReadable;
+		this.isSwWriteable = oldInstance.isSwWriteable;
+		this.isHwReadable = oldInstance.isHwReadable;
+		this.isHwWriteable = oldInstance.isHwWriteable;
+		this.hasSwWriteEnableH = oldInstance.hasSwWriteEnableH;
+		this.hasSwWriteEnableL = oldInstance.hasSwWriteEnableL;
+		this.hasHwSet = oldInstance.hasHwSet;
+		this.hasHwClr = oldInstance.hasHwClr;
+		this.hasWriteEnableH = oldInstance.hasWriteEnableH;
+		this.hasWriteEnableL = oldInstance.hasWriteEnableL;
+		this.isRclr = oldInstance.isRclr;
+		this.isRset = oldInstance.isRset;
+		this.isWoset = oldInstance.isWoset;
+		this.isWoclr = oldInstance.isWoclr;
+		this.isAnded = oldInstance.isAnded;
+		this.isOred = oldInstance.isOred;
+		this.isXored = oldInstance.isXored;
+		this.isSinglePulse = oldInstance.isSinglePulse;
+		this.hasOverflow = oldInstance.hasOverflow;
+		this.hasUnderflow = oldInstance.hasUnderflow;
+		this.hasSaturateOutputs = oldInstance.hasSaturateOutputs;
+		this.dontTestMask = copyRegNumber(oldInstance.dontTestMask);
+		this.dontCompareMask = copyRegNumber(oldInstance.dontCompareMask);
+		this.rtlCoverage = oldInstance.rtlCoverage;
+		this.encoding = oldInstance.encoding;
+		this.isCounter = oldInstance.isCounter;
+		this.incrValue = copyRegNumber(oldInstance.incrValue);
+		this.decrValue = copyRegNumber(oldInstance.decrValue);
+		this.incrWidth = oldInstance.incrWidth;
+		this.decrWidth = oldInstance.decrWidth;
+		this.incrSatValue = copyRegNumber(oldInstance.incrSatValue);
+		this.decrSatValue = copyRegNumber(oldInstance.decrSatValue);
+		this.incrTholdValue = copyRegNumber(oldInstance.incrTholdValue);
+		this.decrTholdValue = copyRegNumber(oldInstance.decrTholdValue);
+		this.isInterrupt = oldInstance.isInterrupt;
+		this.intrType = oldInstance.intrType;
+		this.intrStickyType = oldInstance.intrStickyType;
+		this.maskIntrBits = oldInstance.maskIntrBits;
+		this.isHalt = oldInstance.isHalt;
+		this.rhsReferences = new HashMap<RhsRefType, RhsReference>(oldInstance.rhsReferences);
+	}
+
+	/** copy a RegNumber value, since builders may modify values (eg vector length) during output */
+	private static RegNumber copyRegNumber(RegNumber num) {
+		return (num == null)? null : new RegNumber(num);
+	}
 	
 	/** extract properties from the calling instance */
     @Override
@@ -4,14 +4,13 @@
 package ordt.output;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import ordt.extract.Ordt;
 import ordt.extract.ModComponent;
+import ordt.extract.ModRootComponent;
 import ordt.extract.ModInstance;
 import ordt.extract.PropertyList;
-import ordt.extract.PropertyList.PropertyValue;
 
 /** extracted properties of an instance created during model walk */
 public class InstanceProperties {
@@ -36,6 +35,7 @@ public class InstanceProperties {
 	protected PropertyList instDefaultProperties;   // default properties for this instance
 
 	private int repNum = 0;  // rep number of this instProperty if part of a replicated set
+	private boolean instanceInfoPreset = false;  // instance info was set by presetInstanceInfo, so skip next update
 		
 	/** create an instance and set basic info: id, extractInstance, external */
 	public InstanceProperties(ModInstance extractInstance) {
@@ -81,6 +81,7 @@ public class InstanceProperties {
 		setUseInterface(oldInstance.useInterface());  
 		setExtInterfaceName(oldInstance.getExtInterfaceName());  
 		setInstDefaultProperties(oldInstance.getInstDefaultProperties());  
+		this.instanceInfoPreset = oldInstance.instanceInfoPreset;
 	}
 	
 	/** display info InstanceProperties info */
@@ -310,9 +311,14 @@ public class InstanceProperties {
 	 *  @param instancePath the instancePath
 	 */
 	public void updateInstanceInfo(String instancePath) {
+		// if info was set ahead of this call, keep it
+		if (instanceInfoPreset) {
+			instanceInfoPreset = false;
+			return;
+		}
 		setInstancePath(instancePath);
 		// before creating instance list update default instance properties 
-		updateDefaultProperties(extractInstance.getDefaultProperties());
+		instDefaultProperties.updateProperties(extractInstance.getDefaultProperties());
 		// create a property list for holding combined info for this instance
 		PropertyList mergedList = new PropertyList();
 		// now add defined default instance properties
@@ -344,6 +350,16 @@ public class InstanceProperties {
 		}*/
 	}
 
+	/** set instancePath and extract merged property info ahead of the builder add call that would
+	 *  normally do so, so that copies of this instance can share a single extract.  The next
+	 *  updateInstanceInfo call on this instance (or on a copy) is skipped.
+	 *  @param instancePath the instancePath
+	 */
+	public void presetInstanceInfo(String instancePath) {
+		updateInstanceInfo(instancePath);
+		instanceInfoPreset = true;
+	}
+
 	/** extract post property assignments in all components in instance path */
 	private PropertyList getPostPropertyAssigns(String instPathStr) {
 		// split the path string
@@ -353,10 +369,8 @@ public class InstanceProperties {
 			instPath.add(strArray[i]);
 		}
 		// get the list of components in the instance path
-		List<String> iPath = new ArrayList<String>();  // save path since recursive getPath call is destructive
-		iPath.addAll(instPath);
 		//List<ModComponent> pathComps = extractInstance.getRegComp().getAncestorComponents(iPath, true);  // add root
-		List<ModComponent> pathComps = Ordt.getModel().getRoot().getPathComponents(iPath);  // add all path components including root
+		List<ModComponent> pathComps = ((ModRootComponent) Ordt.getModel().getRoot()).getPathComponents(instPathStr);  // add all path components including root (indexed)
 		// check for postProperty assigns in each component and add to list
 		PropertyList postAssignList = new PropertyList(); 
 		//if (pathComps.size() != instPath.size())
@@ -501,13 +515,6 @@ public class InstanceProperties {
 		this.instDefaultProperties.updateProperties(instDefaultProperties, true);		
 	}
 	
-	/** update default properties using values in supplied hashmap (override existing props)
-	 *  @param hashmap of properties to be set
-	 */
-	public void updateDefaultProperties(HashMap<String, PropertyValue> updates) {
-		instDefaultProperties.updateProperties(updates);
-	}	
-
 	public boolean hasDefaultProperty(String propName) {
 		return instDefaultProperties.hasProperty(propName);
 	}
@@ -19,19 +19,22 @@ public class JspecSubCategory {
 		// add value of each valid category in string
 		for(int idx=0; idx<cats.length; idx++) {
 			String cat = cats[idx].trim();
-			if (!cat.isEmpty()) {
-				if (map.containsKey(cat)) value += map.get(cat);  // add to encoded value
-				// otherwise issue a warning and add the new category
-				else {
-					Ordt.warnMessage("Unknown sub_category value " + cat + " detected.  Adding to sub_category list.");
-					map.put(cat, nextValue); nextValue *= 2;
-					value += map.get(cat);  // add to encoded value
-				}
-			}
+			if (!cat.isEmpty()) value += getEncoding(cat);  // add to encoded value
 			//System.out.println("cat=" + cat);
 		}
 	}
 	
+	/** return encoding of a category, adding it to the shared map if new (map is shared by concurrent builders) */
+	private static synchronized int getEncoding(String cat) {
+		if (map.containsKey(cat)) return map.get(cat);
+		// otherwise issue a warning and add the new category
+		else {
+			Ordt.warnMessage("Unknown sub_category value " + cat + " detected.  Adding to sub_category list.");
+			map.put(cat, nextValue); nextValue *= 2;
+			return map.get(cat);
+		}
+	}
+	
 	/** initialize set of known category values */
 	private static HashMap<String, Integer> initMap() {
 		HashMap<String, Integer> map = new HashMap<String, Integer>();
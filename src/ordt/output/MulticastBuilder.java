@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2016 Juniper Networks, Inc. All rights reserved.
+ */
+package ordt.output;
+
+import java.io.BufferedWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import ordt.extract.ModInstance;
+import ordt.extract.RegModelIntf;
+import ordt.extract.RunStats;
+
+/** builder that walks the model once and forwards each add/finish call to a set of target builders.
+ *  All targets must share the same visit rules, since these control the call sequence generated by the model.
+ *  The first target receives the properties created by the model, other targets receive private copies
+ *  so that per-builder updates (field indices, addresses, etc) are kept independent.  Copies are made after
+ *  the instance push and property extract, so these are done once for all targets.
+ */
+public class MulticastBuilder extends OutputBuilder {
+
+	private List<OutputBuilder> builders = new ArrayList<OutputBuilder>();  // target builders (first is primary)
+	private List<Stack<InstanceProperties>> instanceCopyStacks = new ArrayList<Stack<InstanceProperties>>();  // active instance properties of each target
+
+	public MulticastBuilder(RegModelIntf model) {
+		this.model = model;  // store the model ref
+	}
+
+	/** return number of target builders */
+	public int getBuilderCount() {
+		return builders.size();
+	}
+
+	/** add visit counts of the primary target to a run stats phase */
+	@Override
+	public void addStatsCounts(RunStats.Phase phase) {
+		if (!builders.isEmpty()) builders.get(0).addStatsCounts(phase);
+	}
+
+	/** add a target builder if its visit rules match those of existing targets
+	 * @return true if builder was added */
+	public boolean addBuilder(OutputBuilder builder) {
+		if (builders.isEmpty()) {
+			setVisitEachReg(builder.visitEachReg());
+			setVisitEachRegSet(builder.visitEachRegSet());
+			setVisitExternalRegisters(builder.visitExternalRegisters());
+			setVisitEachExternalRegister(builder.visitEachExternalRegister());
+		}
+		else if ((builder.visitEachReg() != visitEachReg()) || (builder.visitEachRegSet() != visitEachRegSet()) ||
+				(builder.visitExternalRegisters() != visitExternalRegisters()) || (builder.visitEachExternalRegister() != visitEachExternalRegister())) return false;
+		builders.add(builder);
+		instanceCopyStacks.add(new Stack<InstanceProperties>());
+		return true;
+	}
+
+	/** return the list of target builders */
+	public List<OutputBuilder> getBuilders() {
+		return builders;
+	}
+
+	/** generate output structures for all target builders in a single walk starting at model root */
+	public void generateOutput() {
+		if (!builders.isEmpty()) model.getRoot().generateOutput(null, this);
+	}
+
+	// ----------------- target properties methods
+
+	/** return the properties to be used by a target builder for the specified model-created properties */
+	@SuppressWarnings("unchecked")
+	private <T extends InstanceProperties> T getTargetProperties(int idx, T properties) {
+		if ((idx == 0) || (properties == null)) return properties;
+		return (T) instanceCopyStacks.get(idx).peek();
+	}
+
+	/** create copies of the specified properties for all non-primary targets.  Properties are extracted once
+	 *  using the primary builder instance path before copying, so target add calls skip the extract.
+	 *  Plain instances (no add call) are copied unextracted. */
+	private List<InstanceProperties> getTargetCopies(InstanceProperties properties) {
+		List<InstanceProperties> copies = new ArrayList<InstanceProperties>();
+		copies.add(properties);
+		if ((properties == null) || (builders.size() < 2)) return copies;
+		if (properties.getClass() != InstanceProperties.class) properties.presetInstanceInfo(builders.get(0).getInstancePath());
+		for (int idx=1; idx<builders.size(); idx++) copies.add(copyProperties(properties));
+		return copies;
+	}
+
+	/** create a copy of the specified properties sharing the extracted property state */
+	private InstanceProperties copyProperties(InstanceProperties properties) {
+		if (properties instanceof RegProperties) return new RegProperties((RegProperties) properties);
+		if (properties instanceof RegSetProperties) return new RegSetProperties((RegSetProperties) properties);
+		if (properties instanceof FieldProperties) return new FieldProperties((FieldProperties) properties);
+		if (properties instanceof FieldSetProperties) return new FieldSetProperties((FieldSetProperties) properties);
+		if (properties instanceof SignalProperties) return new SignalProperties((SignalProperties) properties);
+		return new InstanceProperties(properties);
+	}
+
+	// ----------------- instance stack methods
+
+	/** push an instance onto the primary builder stack, then push copies onto the other target stacks.
+	 *  External state and parent default properties are set once by the primary builder pushInstance. */
+	@Override
+	public void pushInstance(InstanceProperties inst) {
+		instanceCopyStacks.get(0).push(inst);
+		builders.get(0).pushInstance(inst);
+		List<InstanceProperties> copies = getTargetCopies(inst);
+		for (int idx=1; idx<builders.size(); idx++) {
+			instanceCopyStacks.get(idx).push(copies.get(idx));
+			builders.get(idx).pushInstanceCopy(copies.get(idx));
+		}
+	}
+
+	@Override
+	public InstanceProperties popInstance() {
+		for (int idx=1; idx<builders.size(); idx++) {
+			instanceCopyStacks.get(idx).pop();
+			builders.get(idx).popInstance();
+		}
+		instanceCopyStacks.get(0).pop();
+		return builders.get(0).popInstance();
+	}
+
+	@Override
+	public InstanceProperties peekInstance() {
+		return builders.get(0).peekInstance();
+	}
+
+	// ----------------- primary builder state used by model during walk
+
+	@Override
+	public boolean isFirstAddressMap() {
+		return builders.get(0).isFirstAddressMap();
+	}
+
+	@Override
+	public RegSetProperties getRegSetProperties() {
+		return builders.get(0).getRegSetProperties();
+	}
+
+	// ----------------- forwarded add/finish methods
+
+	@Override
+	public void addSignal(SignalProperties sProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addSignal(getTargetProperties(idx, sProperties));
+	}
+
+	@Override
+	public void addField(FieldProperties fProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addField(getTargetProperties(idx, fProperties));
+	}
+
+	@Override
+	public void addFieldSet(FieldSetProperties fsProperties, int rep) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addFieldSet(getTargetProperties(idx, fsProperties), rep);
+	}
+
+	@Override
+	public void finishFieldSet(FieldSetProperties fsProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).finishFieldSet(getTargetProperties(idx, fsProperties));
+	}
+
+	@Override
+	public void addRegister(RegProperties rProperties, int rep) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addRegister(getTargetProperties(idx, rProperties), rep);
+	}
+
+	@Override
+	public void finishRegister(RegProperties rProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).finishRegister(getTargetProperties(idx, rProperties));
+	}
+
+	@Override
+	public void addExternalRegisters(RegProperties rProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addExternalRegisters(getTargetProperties(idx, rProperties));
+	}
+
+	@Override
+	public void finishExternalRegisters(RegProperties rProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).finishExternalRegisters(getTargetProperties(idx, rProperties));
+	}
+
+	/** add root external registers - new regProperties are not on the instance stack so are copied here */
+	@Override
+	public void addRootExternalRegisters(RegProperties newRegProperties) {
+		List<InstanceProperties> copies = getTargetCopies(newRegProperties);
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addRootExternalRegisters((RegProperties) copies.get(idx));
+	}
+
+	/** add non-root address map - new regProperties are not on the instance stack so are copied here */
+	@Override
+	public void addNonRootExternalAddressMap(RegProperties newRegProperties) {
+		List<InstanceProperties> copies = getTargetCopies(newRegProperties);
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addNonRootExternalAddressMap((RegProperties) copies.get(idx));
+	}
+
+	@Override
+	public void addRegSet(RegSetProperties rsProperties, int rep) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).addRegSet(getTargetProperties(idx, rsProperties), rep);
+	}
+
+	@Override
+	public void updateLastRegSetAddress(RegSetProperties rsProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).updateLastRegSetAddress(getTargetProperties(idx, rsProperties));
+	}
+
+	@Override
+	public void finishRegSet(RegSetProperties rsProperties) {
+		for (int idx=0; idx<builders.size(); idx++) builders.get(idx).finishRegSet(getTargetProperties(idx, rsProperties));
+	}
+
+	@Override
+	public void addRegMap(ModInstance regMapInst) {
+		for (OutputBuilder builder : builders) builder.addRegMap(regMapInst);
+	}
+
+	@Override
+	public void finishRegMap(ModInstance regMapInst) {
+		for (OutputBuilder builder : builders) builder.finishRegMap(regMapInst);
+	}
+
+	// ----------------- unused OutputBuilder methods (all output is generated by target builders)
+
+	@Override
+	public void addSignal() {
+	}
+
+	@Override
+	public void addField() {
+	}
+
+	@Override
+	public void addAliasField() {
+	}
+
+	@Override
+	public void addRegister() {
+	}
+
+	@Override
+	public void finishRegister() {
+	}
+
+	@Override
+	public void addRootExternalRegisters() {
+	}
+
+	@Override
+	public void addRegSet() {
+	}
+
+	@Override
+	public void finishRegSet() {
+	}
+
+	@Override
+	public void addRegMap() {
+	}
+
+	@Override
+	public void finishRegMap() {
+	}
+
+	@Override
+	protected void write(BufferedWriter bw) {
+	}
+
+}
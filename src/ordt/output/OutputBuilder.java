@@ -7,6 +7,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
@@ -14,10 +15,13 @@ import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Stack;
 
+import ordt.extract.AddressLayout;
 import ordt.extract.Ordt;
 import ordt.extract.ModInstance;
 import ordt.extract.RegModelIntf;
 import ordt.extract.RegNumber;
+import ordt.extract.OrdtEvent;
+import ordt.extract.RunStats;
 import ordt.extract.Ordt.InputType;
 import ordt.extract.RegNumber.NumBase;
 import ordt.extract.RegNumber.NumFormat;
@@ -35,8 +39,9 @@ public abstract class OutputBuilder {
 
 	protected BufferedWriter bufferedWriter;
 	
-	// unique instance ID
-	private static int nextBuilderID = 0;
+	// unique instance ID (allocated from root builder so independent builders can run concurrently)
+	private OutputBuilder rootBuilder = this;  // root builder of this builder tree
+	private int nextBuilderID = 0;  // next ID to be assigned in this builder tree (only used in root builder)
 	private int builderID = 0;
 	
 	private RegNumber nextAddress = new RegNumber("0x0");   // initialize to address 0
@@ -56,6 +61,9 @@ public abstract class OutputBuilder {
 	private boolean visitEachExternalRegister = false;  // should each register in an external group be visited (treated as internal)
 
 	private RegNumber externalBaseAddress;  // starting address of current external reg group
+	
+	// visit and output counts for run stats
+	private long regVisitCount = 0, fieldVisitCount = 0, regSetVisitCount = 0, repVisitCount = 0, outputLineCount = 0;
 		
 	// active rdl component info
 	protected  SignalProperties signalProperties;  // output-relevant active signal properties 
@@ -82,13 +90,16 @@ public abstract class OutputBuilder {
 		return builderID; 
 	}
 
-	/** set a new builderid */
-	protected void setNewBuilderID() {
-		this.builderID = nextBuilderID++;   // set unique ID of this instance
+	/** set a new builderid using the id sequence of the parent builder tree
+	 *  @param parentBuilder - builder that is creating this child builder */
+	protected void setNewBuilderID(OutputBuilder parentBuilder) {
+		this.rootBuilder = parentBuilder.rootBuilder;  // share root with parent
+		this.builderID = rootBuilder.nextBuilderID++;   // set unique ID of this instance
 	}
 
 	/** set a new builderid of 0 for this instance */
 	protected void setBaseBuilderID() {
+		rootBuilder = this;
 		nextBuilderID = 0;
 		this.builderID = nextBuilderID++;   // set unique ID of this instance
 	}
@@ -122,6 +133,7 @@ public abstract class OutputBuilder {
 	/** add a field to this output */
 	public  void addField(FieldProperties fProperties) {
 		if (fProperties != null) {
+		   fieldVisitCount++;
 		   
 		   fieldProperties = fProperties;
 			
@@ -137,7 +149,7 @@ public abstract class OutputBuilder {
 		   fieldProperties.setLowIndex(computedLowIndex); // save the computed index back into fieldProperties
 		   
 		   String fieldArrayString = "";
-		   if (fieldProperties.getFieldWidth() != regProperties.getRegWidth())  
+		   if (fieldProperties.getFieldWidth().intValue() != regProperties.getRegWidth().intValue())  
 			   fieldArrayString = genRefArrayString(computedLowIndex, fieldProperties.getFieldWidth());
 		   fieldProperties.setFieldArrayString(fieldArrayString);
 		   // set fieldset prefix of this instance
@@ -208,6 +220,8 @@ public abstract class OutputBuilder {
       */
 	public  void addRegister(RegProperties rProperties, int rep) {  
 		if (rProperties != null) {
+		   regVisitCount++;
+		   if (rep > 0) repVisitCount++;
 		   //System.out.println("OutputBuilder addRegister, path=" + getInstancePath() + ", id=" + rProperties.getId() + ", addr=" + rProperties.getExtractInstance().getAddress());
 
 		   // extract properties from instance/component
@@ -368,6 +382,8 @@ public abstract class OutputBuilder {
 	public  void addRegSet(RegSetProperties rsProperties, int rep) {  
 		
 		if (rsProperties != null) {
+		   regSetVisitCount++;
+		   if (rep > 0) repVisitCount++;
 		   //System.out.println("OutputBuilder addRegSet: path=" + getInstancePath() + ", builder=" + builderID); // + ", id=" + regSetInst.getId());
 
 		   regSetProperties = rsProperties; 
@@ -385,8 +401,15 @@ public abstract class OutputBuilder {
 		   regSetProperties.setRepNum(rep);
 		   //System.out.println("OutputBuilder addRegSet: --- rep=" + rep + ", regSetAddress=" + regSetAddress + ", incAddress=" + addressIncrement  + ", nextAddress=" + nextAddress);
  
-		   // if an explicit address is set for this regset, then use it  
-		   if (regSetAddress != null) {
+		   // if model layout has been computed, then use precomputed address
+		   AddressLayout.Group layoutGroup = findLayoutGroup(regSetProperties);
+		   regSetProperties.setLayoutGroup(layoutGroup);
+		   if (layoutGroup != null) {
+			   setNextAddress(getLayoutAddress(layoutGroup, rep));
+		   }
+
+		   // else if an explicit address is set for this regset, then use it  
+		   else if (regSetAddress != null) {
 			   //System.out.println("OutputBuilder addRegSet: --- rep=" + rep + ", regSetAddress=" + regSetAddress + ", incAddress=" + addressIncrement  + ", nextAddress=" + nextAddress);
 			   
 			   // compute relative address by adding to parent base
@@ -423,9 +446,7 @@ public abstract class OutputBuilder {
 				   updateNextAddressModulus(addressModulus);  // adjust the base address if a modulus is defined
 				   // get estimated size from model and check that base addr is aligned with size
 				   if (ExtParameters.useJsAddressAlignment()) {
-					   RegNumber alignBytes = regSetProperties.getExtractInstance().getRegComp().getAlignedSize();
-					   alignBytes.setNumBase(NumBase.Hex);
-					   alignBytes.setNumFormat(NumFormat.Address);
+					   RegNumber alignBytes = regSetProperties.getExtractInstance().getRegComp().getAlignedSize();  // model value is read-only (hex address format)
 					   if ((alignBytes != null) && alignBytes.isNonZero()) { 
 
 						   //System.out.println("OutputBuilder addRegSet: regset=" + this.getInstancePath() + ", align==" + alignBytes + ", addr=" + nextAddress + ", rep=" + regProperties.getRepCount());
@@ -433,11 +454,11 @@ public abstract class OutputBuilder {
 						   if (!nextAddress.isModulus(alignBytes) && !regSetProperties.isExternalDecode()) {
 							   // if an external and not root external, just display a warn message
 							   if (regSetProperties.isExternal() && !regSetProperties.isRootExternal()) {
-								   if  (!ExtParameters.suppressAlignmentWarnings()) 
+								   if  (showAlignmentWarnings()) 
 									   Ordt.warnMessage("base address for external register set " + regSetProperties.getInstancePath() + " is not " + alignBytes + "B aligned.");
 							   }
 							   else {
-								   if  (!ExtParameters.suppressAlignmentWarnings()) 
+								   if  (showAlignmentWarnings()) 
 									   Ordt.warnMessage("base address for register set " + regSetProperties.getInstancePath() + " shifted to be " + alignBytes + "B aligned.");
 								   updateNextAddressModulus(new RegNumber(alignBytes));  // adjust the address to align register set					   
 								   
@@ -589,6 +610,21 @@ public abstract class OutputBuilder {
 
 	/** set the base address of a register group (internal or external) */
 	private void updateRegBaseAddress() {
+		   // use precomputed address if model layout has been computed
+		   AddressLayout.Group layoutGroup = findLayoutGroup(regProperties);
+		   regProperties.setLayoutGroup(layoutGroup);
+		   if (layoutGroup != null) setNextAddress(getLayoutAddress(layoutGroup, regProperties.getRepNum()));
+		   else computeRegBaseAddress();
+
+		   regProperties.setBaseAddress(nextAddress);  // save the address of this reg
+		   // compute the relative base address (vs parent regset base address)
+		   RegNumber relAddress = new RegNumber(regProperties.getBaseAddress());  // start with current
+		   relAddress.subtract(getRegSetParentAddress());  // subtract parent base from current
+		   regProperties.setRelativeBaseAddress(relAddress);  // store in reg properties		   
+	}
+
+	/** compute the base address of a register group from the running address, adjusting for alignment */
+	private void computeRegBaseAddress() {
 		   RegNumber regAddress = regProperties.getExtractInstance().getAddress();
 		   RegNumber addressModulus = regProperties.getExtractInstance().getAddressModulus(); 
 		   RegNumber addressShift = regProperties.getExtractInstance().getAddressShift(); 
@@ -633,7 +669,7 @@ public abstract class OutputBuilder {
 		   //System.out.println("OutputBuilder updateRegBaseAddress: wide reg=" + this.getInstancePath() + " with width=" + regBytes + " at addr=" + nextAddress + ", ext=" + regProperties.isExternal()+ ", rep=" + regProperties.getRepCount());
 		   // if this reg isn't in an external decoder and misaligned, then align it
 		   if (!nextAddress.isModulus(alignBytes) && !regProperties.isExternalDecode()) {
-			   if (!ExtParameters.suppressAlignmentWarnings()) {
+			   if (showAlignmentWarnings()) {
 				   if (isFirstReplicatedExternal) 
 					   Ordt.warnMessage("base address for external " + regBytes + "B register group " + regProperties.getInstancePath() + " shifted to be " + alignBytes + "B aligned.");
 				   else if (isFirstReplicatedInternal) 
@@ -646,13 +682,39 @@ public abstract class OutputBuilder {
 			   // if an external and not root external, just display a warn message
 			   if (!doNotShift) updateNextAddressModulus(new RegNumber(alignBytes));  // adjust the address to align register					   
 		   }
+	}
 
-		   // ----
-		   regProperties.setBaseAddress(nextAddress);  // save the address of this reg
-		   // compute the relative base address (vs parent regset base address)
-		   RegNumber relAddress = new RegNumber(regProperties.getBaseAddress());  // start with current
-		   relAddress.subtract(getRegSetParentAddress());  // subtract parent base from current
-		   regProperties.setRelativeBaseAddress(relAddress);  // store in reg properties		   
+	/** return the precomputed model address layout used by this builder or null if addresses are computed by the builder.
+	 *  Builders visiting each external register do not reserve root external address ranges, so compute their own addresses */
+	protected AddressLayout getAddressLayout() {
+		return visitEachExternalRegister()? null : AddressLayout.getLayout(model);
+	}
+
+	/** return false if alignment warnings are suppressed or have already been issued when computing the model layout */
+	private boolean showAlignmentWarnings() {
+		return !ExtParameters.suppressAlignmentWarnings() && (AddressLayout.getLayout(model) == null);
+	}
+
+	/** find the precomputed layout of a reg/regset in the active regset rep
+	 *  @return the layout group or null if the builder should compute the address */
+	private AddressLayout.Group findLayoutGroup(AddressableInstanceProperties properties) {
+		AddressLayout layout = getAddressLayout();
+		if (layout == null) return null;
+		AddressLayout.Group group;
+		if (regSetPropertyStack.isEmpty()) group = layout.getRoot().getChild(0, properties.getExtractInstance());
+		else {
+			RegSetProperties parent = regSetPropertyStack.peek();
+			if (parent.getLayoutGroup() == null) return null;
+			group = parent.getLayoutGroup().getChild(parent.getRepNum(), properties.getExtractInstance());
+		}
+		return ((group != null) && (properties.getRepNum() < group.getRepCount()))? group : null;
+	}
+
+	/** get the absolute address of a rep in a precomputed layout group */
+	private RegNumber getLayoutAddress(AddressLayout.Group group, int rep) {
+		RegNumber address = group.getOffset(rep);
+		address.add(getRegSetParentAddress());
+		return address;
 	}
 
 	/** get the base address of the top regset on the stack */
@@ -727,6 +789,13 @@ public abstract class OutputBuilder {
 		instancePropertyStack.push(inst);
 	}
 	
+	/** push an instance that was already updated by pushInstance of another builder onto instanceStack
+	 *  (used by MulticastBuilder to push copies of primary builder instances)
+	 */
+	void pushInstanceCopy(InstanceProperties inst) {
+		instancePropertyStack.push(inst);
+	}
+	
 	/** pop an instance from instanceStack
 	 */
 	public  InstanceProperties popInstance() {
@@ -961,7 +1030,7 @@ public abstract class OutputBuilder {
 	
 	/** set next address value */
 	protected  void setNextAddress(RegNumber regAddress) {
-		nextAddress.setValue(regAddress.getValue());  // update value but keep format
+		nextAddress.setValue(regAddress);  // update value but keep format
 	}
 
 	/** get base address of root in this builder  */
@@ -971,7 +1040,7 @@ public abstract class OutputBuilder {
 	
 	/** set base address of root in this builder */
 	protected  void setBaseAddress(RegNumber regAddress) {
-		baseAddress.setValue(regAddress.getValue());  // update value but keep format
+		baseAddress.setValue(regAddress);  // update value but keep format
 	}
 	
 	/** get externalBaseAddress
@@ -1086,6 +1155,7 @@ public abstract class OutputBuilder {
 		// otherwise use computed regset size
 		if (incr == null) incr = getRegSetSize(allowPrecomputedSize);
 		else {
+			incr = new RegNumber(incr);  // copy so model value is not modified
 			incr.setNumFormat(NumFormat.Address);
 			incr.setNumBase(NumBase.Hex);
 		}
@@ -1156,11 +1226,21 @@ public abstract class OutputBuilder {
 		nextAddress.roundUpToModulus(addressModulus);
 	}
 
+	/** add visit and output line counts of this builder to a run stats phase */
+	public void addStatsCounts(RunStats.Phase phase) {
+		phase.setCount("registers", regVisitCount);
+		phase.setCount("fields", fieldVisitCount);
+		phase.setCount("regsets", regSetVisitCount);
+		phase.setCount("replicated_reps", repVisitCount);
+		phase.setCount("output_lines", outputLineCount);
+	}
+
 	//---------------------------- message/output stmt generation  ----------------------------------------
 
 	/** write a stmt to the specified BufferedWriter */
 	public  void writeStmt(BufferedWriter bw, int indentLevel, String stmt) {
 		   //System.out.println("OutputBuilder: bufnull=" + (bufferedWriter == null) + ", indent=" + ",Stmt=" + stmt);
+		   outputLineCount++;
 		   try {
 			bw.write(Utils.repeat(' ', indentLevel*2) + stmt +"\n");
 		} catch (IOException e) {
@@ -1234,6 +1314,22 @@ public abstract class OutputBuilder {
     	}
 	}
 	
+	/** write output to a caller supplied writer - writer is flushed but not closed.  This can be
+	 *  overridden by child builders that need additional setup or that only support file output
+	 * @param writer - destination of output
+	 * @param commentPrefix - comment chars for this output type */
+	public void write(Writer writer, String commentPrefix) {
+		BufferedWriter bw = new BufferedWriter(writer);
+		bufferedWriter = bw;
+		writeHeader(commentPrefix);
+		write(bw);
+		try {
+			bw.flush();
+		} catch (IOException e) {
+			Ordt.errorExit("Write of output failed. " + e.getMessage());
+		}
+	}
+	
 	/** write a file header to specified BufferedWriter
 	 * @param commentPrefix
 	 */
@@ -1283,7 +1379,7 @@ public abstract class OutputBuilder {
     		}
 
     		FileWriter fw = new FileWriter(outFile.getAbsoluteFile());
-    		BufferedWriter bw = new BufferedWriter(fw);
+    		BufferedWriter bw = new OutputFileWriter(fw, outFile.getPath(), description);
     		return bw;
 
     	} catch (IOException e) {
@@ -1303,5 +1399,29 @@ public abstract class OutputBuilder {
     	}
     }
 
-		
-}
\ No newline at end of file
+
+    /** buffered writer recording a flight recorder event for the file write */
+    private static class OutputFileWriter extends BufferedWriter {
+    	private OrdtEvent.FileWrite event = new OrdtEvent.FileWrite();
+    	private boolean closed = false;
+
+    	private OutputFileWriter(FileWriter fw, String fileName, String description) {
+    		super(fw);
+    		event.setInstancePath(fileName).setOutputType(description);
+    		event.begin();
+    	}
+
+    	@Override
+    	public void write(String str, int off, int len) throws IOException {
+    		super.write(str, off, len);
+    		event.addCharacters(len);
+    	}
+
+    	@Override
+    	public void close() throws IOException {
+    		super.close();
+    		if (!closed) event.commit();
+    		closed = true;
+    	}
+    }
+}
\ No newline at end of file
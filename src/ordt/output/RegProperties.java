@@ -49,8 +49,28 @@ public class RegProperties extends AddressableInstanceProperties {
 		super(regInst);  // init instance, id, external
 		this.fieldOffsetsFromZero = fieldOffsetsFromZero;
 	}
-	
-	// TODO - add clone constructor and display for regprops
+
+	public RegProperties(RegProperties oldInstance) {
+		super(oldInstance);
+		this.regWidth = oldInstance.getRegWidth();
+		this.category = oldInstance.category;
+		this.filledBits = oldInstance.filledBits;
+		this.fieldCount = oldInstance.fieldCount;
+		if (oldInstance.availableBits != null) this.availableBits = oldInstance.availableBits.clone();  // updated as fields are added
+		this.fieldSetOffset = oldInstance.fieldSetOffset;
+		this.fieldOffsetsFromZero = oldInstance.fieldOffsetsFromZero;
+		this.aliasedId = oldInstance.aliasedId;
+		this.hasInterruptFields = oldInstance.hasInterruptFields;
+		this.hasInterruptOutputDefined = oldInstance.hasInterruptOutputDefined;
+		this.hasHaltOutputDefined = oldInstance.hasHaltOutputDefined;
+		this.isSwReadable = oldInstance.isSwReadable;
+		this.isSwWriteable = oldInstance.isSwWriteable;
+		this.isMem = oldInstance.isMem;
+		this.cppModPrune = oldInstance.cppModPrune;
+		this.jspecAttributes = oldInstance.jspecAttributes;
+	}
+
+	// TODO - add display for regprops
 	/** extract properties from the calling instance */
     @Override
 	public void extractProperties(PropertyList pList) {
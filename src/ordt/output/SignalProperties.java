@@ -26,6 +26,17 @@ public class SignalProperties extends InstanceProperties {
 		super(regInst);  // init instance, id
 	}
 	
+	public SignalProperties(SignalProperties oldInstance) {
+		super(oldInstance);
+		this.signalWidth = oldInstance.getSignalWidth();
+		this.lowIndex = oldInstance.getLowIndex();
+		setRhsReference(oldInstance.isRhsReference());
+		setDefaultReset(oldInstance.isDefaultReset());
+		setLogicReset(oldInstance.isLogicReset());
+		setActiveLow(oldInstance.isActiveLow());
+		this.assignExpr = oldInstance.getAssignExpr();
+	}
+
 	/** extract properties from the calling instance */
     @Override
 	public void extractProperties(PropertyList pList) {
@@ -5,11 +5,13 @@ package ordt.output.cppmod;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Stack;
 
+import ordt.extract.Ordt;
 import ordt.extract.RegModelIntf;
 import ordt.output.FieldProperties;
 import ordt.output.OutputBuilder;
@@ -28,12 +30,17 @@ public class CppModBuilder extends OutputBuilder {
     //---------------------------- constructor ----------------------------------
 
     public CppModBuilder(RegModelIntf model) {
+	    this(model, true);
+    }
+
+    /** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+    public CppModBuilder(RegModelIntf model, boolean generateOutput) {
 	    this.model = model;  // store the model ref
 	    setVisitEachReg(false);   // only need to call once for replicated reg groups
 	    setVisitEachRegSet(false);   // only need to call once for replicated reg set groups
 	    setVisitExternalRegisters(true);  // we will visit externals 
 	    setVisitEachExternalRegister(false);	    // handle externals as a group
-	    model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+	    if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
     }
 
     /** load C++ reserved words to be escaped */
@@ -201,6 +208,12 @@ public class CppModBuilder extends OutputBuilder {
 	public void write(BufferedWriter bw) {
 	}
 	
+	/** c++ output is multiple files so a single writer is not supported */
+	@Override
+	public void write(Writer writer, String commentPrefix) {
+		Ordt.errorExit("C++ model output requires an output directory");
+	}
+	
 	/** write c++ output to specified output file(s)  
 	 * @param outName - output file or directory
 	 * @param description - text description of file generated
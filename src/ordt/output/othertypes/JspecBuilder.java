@@ -31,6 +31,11 @@ public class JspecBuilder extends OutputBuilder {
     //---------------------------- constructor ----------------------------------
 
     public JspecBuilder(RegModelIntf model) {
+	    this(model, true);
+    }
+
+    /** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+    public JspecBuilder(RegModelIntf model, boolean generateOutput) {
 	    this.model = model;  // store the model ref
 	    setVisitEachReg(false);   // only need to call once for replicated reg groups
 	    setVisitEachRegSet(false);   // only need to call once for replicated reg set groups
@@ -45,7 +50,7 @@ public class JspecBuilder extends OutputBuilder {
                 return -1;
             }
         });
-	    model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+	    if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
     }
 
     /** load jspec reserved words */
@@ -116,7 +121,7 @@ public class JspecBuilder extends OutputBuilder {
 				outputList.add(new OutputLine(indentLvl, ""));					
 			}
 		}
-		else { System.err.println("register "+ regProperties.getInstancePath() + " is neither readable nor writeable"); System.exit(0); }
+		else Ordt.errorExit("register " + regProperties.getInstancePath() + " is neither readable nor writeable");
 	}
 
 	@Override
@@ -277,7 +282,7 @@ public class JspecBuilder extends OutputBuilder {
 			outputList.add(new OutputLine(indentLvl, "superset_check = " + regProperties.getJspecSupersetCheck() + ";"));
 
 		// set reg width
-		if (regProperties.getRegWidth() != ExtParameters.getMinDataSize())
+		if (regProperties.getRegWidth().intValue() != ExtParameters.getMinDataSize().intValue())
 			outputList.add(new OutputLine(indentLvl, "register_width = " + regProperties.getRegWidth() + ";"));
 		// get repcount for this reg
 		int repCount = regProperties.getExtractInstance().getRepCount();
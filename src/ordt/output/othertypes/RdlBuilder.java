@@ -31,13 +31,18 @@ public class RdlBuilder extends OutputBuilder {
     //---------------------------- constructor ----------------------------------
 
     public RdlBuilder(RegModelIntf model) {
+	    this(model, true);
+    }
+
+    /** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+    public RdlBuilder(RegModelIntf model, boolean generateOutput) {
 	    this.model = model;  // store the model ref
 	    setVisitEachReg(false);   // only need to call once for replicated reg groups
 	    setVisitEachRegSet(false);   // only need to call once for replicated reg set groups
 	    setVisitExternalRegisters(true);  // we will visit externals 
 	    setVisitEachExternalRegister(false);	    // handle externals as a group
 	    setEscapedIds();
-	    model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+	    if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
     }
 
 	//---------------------------- OutputBuilder methods to load jspec structures ----------------------------------------
@@ -194,7 +199,7 @@ public class RdlBuilder extends OutputBuilder {
 		if (ExtParameters.rdlOutputJspecAttributes() && regProperties.getJspecAttributes() != null)
 	        outputList.add(new OutputLine(indentLvl, "js_attributes = \"" + regProperties.getJspecAttributes() + "\";")); 
 		// add regwidth if not default
-		if (regProperties.getRegWidth() != ExtParameters.getMinDataSize())
+		if (regProperties.getRegWidth().intValue() != ExtParameters.getMinDataSize().intValue())
 			outputList.add(new OutputLine(indentLvl, "regwidth = " + regProperties.getRegWidth() + ";"));
 		//  display enums defs in this reg
 		buildEnumDefs(regProperties.getExtractInstance().getRegComp());
@@ -26,13 +26,18 @@ public class RegListBuilder extends OutputBuilder {  // TODO handle alias fields
 	//---------------------------- constructors ----------------------------------
 	
 	public RegListBuilder(RegModelIntf model) {
+		this(model, true);
+	}
+
+	/** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+	public RegListBuilder(RegModelIntf model, boolean generateOutput) {
 		setBaseBuilderID();   // set unique ID of this instance
 		this.model = model;
 	    setVisitEachReg(true);   // gen code for each reg
 	    setVisitEachRegSet(true);   // gen code for each reg set
 	    setVisitExternalRegisters(ExtParameters.reglistDisplayExternalRegs());  //visit externals also?
 	    setVisitEachExternalRegister(true);	    // treat external regs exactly as internals
-		model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+		if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
 	}
 	
 	//---------------------------- OutputBuilder methods to load verilog structures ----------------------------------------
@@ -26,12 +26,17 @@ public class XmlBuilder extends OutputBuilder {
     //---------------------------- constructor ----------------------------------
 
     public XmlBuilder(RegModelIntf model) {
+	    this(model, true);
+    }
+
+    /** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+    public XmlBuilder(RegModelIntf model, boolean generateOutput) {
 	    this.model = model;  // store the model ref
 	    setVisitEachReg(false);   // only need to call once for replicated reg groups
 	    setVisitEachRegSet(false);   // only need to call once for replicated reg set groups
 	    setVisitExternalRegisters(true);  // we will visit externals 
 	    setVisitEachExternalRegister(false);	    // handle externals as a group
-	    model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+	    if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
     }
 
 	//---------------------------- OutputBuilder methods to create xml structures ----------------------------------------
@@ -5,13 +5,16 @@ package ordt.output.systemverilog;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
 import ordt.extract.Ordt;
 import ordt.extract.ModInstance;
 import ordt.extract.RegModelIntf;
+import ordt.extract.OrdtEvent;
 import ordt.extract.RegNumber;
+import ordt.extract.RunStats;
 import ordt.extract.RegNumber.NumBase;
 import ordt.extract.RegNumber.NumFormat;
 import ordt.output.FieldProperties;
@@ -32,12 +35,12 @@ import ordt.parameters.ExtParameters.SVDecodeInterfaceTypes;
 public class SystemVerilogBuilder extends OutputBuilder {
 	
 	private String modulePrefix = null;  // module name prefix for nested addressmaps
-	protected static boolean legacyVerilog = false;  // by default generate output with system verilog constructs (only valid in write stage)
+	protected boolean legacyVerilog = false;  // by default generate output with system verilog constructs (only valid in write stage)
 	
 	// clk names	
 	protected static final String defaultClk = "clk";	
-	protected static String decodeClk = ExtParameters.systemverilogUseGatedLogicClk() ? "uclk" : defaultClk;	
-	protected static String logicClk = ExtParameters.systemverilogUseGatedLogicClk() ? "gclk" : defaultClk;	
+	protected String decodeClk = ExtParameters.systemverilogUseGatedLogicClk() ? "uclk" : defaultClk;	
+	protected String logicClk = ExtParameters.systemverilogUseGatedLogicClk() ? "gclk" : defaultClk;	
 
 	// reset names
 	protected String defaultReset = "reset";  
@@ -48,7 +51,7 @@ public class SystemVerilogBuilder extends OutputBuilder {
 	private boolean resetsLocked = false;  // set to true before first reg instance
 	private boolean isTestBuilder = false;  // true if modules are generated for test only (eg via generate_external_regs) 
 	
-	private static ValidAddressRanges addressRanges;
+	private ValidAddressRanges addressRanges;  // address ranges of this builder tree (shared with child builders)
 	
 	// define io locations
 	protected static final Integer HW = 1;
@@ -94,12 +97,13 @@ public class SystemVerilogBuilder extends OutputBuilder {
 	
 	// constructor for addressmap children
 	public SystemVerilogBuilder(SystemVerilogBuilder parentBuilder, boolean isTestModule) {
-		setNewBuilderID();   // set unique ID of this instance
+		setNewBuilderID(parentBuilder);   // set unique ID of this instance
 		this.model = parentBuilder.model;    // inherit parent model
+		this.addressRanges = parentBuilder.addressRanges;  // share address range list with parent
 	    setVisitEachReg(true);   // gen code for each reg
 	    setVisitEachRegSet(true);   // gen code for each reg set
 	    setVisitExternalRegisters(false);  // do not visit externals - only ext root will be visited
-		setLegacyVerilog(SystemVerilogBuilder.isLegacyVerilog());  // cascade state for systemverilog construct gen
+		setLegacyVerilog(parentBuilder.isLegacyVerilog());  // cascade state for systemverilog construct gen
 		initIOLists();  // setup IO lists for logic, decode, and top modules
 	    // inherit name prefixes from parent
 	    this.setModulePrefix(parentBuilder.getModuleName());
@@ -133,7 +137,11 @@ public class SystemVerilogBuilder extends OutputBuilder {
 	    // now generate output starting at this regmap
 		//System.out.println("SystemVerilogBuilder - regset inst id=" + regSetProperties.getId() + ", inst stack top=" + instancePropertyStack.peek().getId());
 	    ModInstance mapInstance = regSetProperties.getExtractInstance();
+	    OrdtEvent event = new OrdtEvent.ChildAddrMap().setInstancePath(regSetProperties.getInstancePath()).setOutputType(isTestModule? "systemverilog test" : "systemverilog");
+	    RunStats.Phase phase = RunStats.startPhase("systemverilog child " + regSetProperties.getInstancePath(), event);
 		mapInstance.getRegComp().generateOutput(mapInstance, this);   // generate output structures recursively starting at new adressmap root
+		addStatsCounts(phase);
+		phase.end();
 		//System.out.println("--- VerilogBuilder - creating child, inst=" + mapInstance.getFullId() + ", base addr=" + getBaseAddress());
 		//mapInstance.getRegComp().display(null);
 	}
@@ -155,15 +163,16 @@ public class SystemVerilogBuilder extends OutputBuilder {
 		top.useIOList(pioSigList, PIO); 
 	}
 	
-	/** set legacyVerilog
+	/** set legacyVerilog in this builder and all child addrmap builders
 	 *  @param boolean legacyVerilog value to set
 	 */
-	public static void setLegacyVerilog(boolean legacy) {
+	public void setLegacyVerilog(boolean legacy) {
 		legacyVerilog = legacy;
+		for (SystemVerilogBuilder childBuilder: childAddrMaps) childBuilder.setLegacyVerilog(legacy);
 	}
 	
 	/** return true if ouput will be legacy verilog */
-	public static boolean isLegacyVerilog() {
+	public boolean isLegacyVerilog() {
 	   return legacyVerilog;	
 	}
 	
@@ -1296,15 +1305,10 @@ public class SystemVerilogBuilder extends OutputBuilder {
 	@Override
 	public void write(String outName, String description, String commentPrefix) {		
 		// before starting write, check that this addrmap is valid
-		int mapSize = this.getAddressWidth(getCurrentMapSize());
-		if (mapSize < 1) Ordt.errorExit("Minimum allowed address map size is " + (this.getMinRegByteWidth() * 2) + "B (addrmap=" + getAddressMapName() + ")");
+		prepareWrite();
 
 		// determine if a single output file or multiple
 		boolean multipleOutputFiles = outName.endsWith("/");
-   	    
-		//genPioInterfaceSignals();   // add the pio interface and internal decoder signals
-		//addressRanges.list();                     
-		addressRanges.writeGapComments();
 
 		// if multiple file output generate one ea for top, logic, decode
 		if (multipleOutputFiles) {
@@ -1350,6 +1354,25 @@ public class SystemVerilogBuilder extends OutputBuilder {
 		}
 	}
 	
+	/** write all modules to a caller supplied writer - writer is flushed but not closed
+	 * @param writer - destination of output
+	 * @param commentPrefix - comment chars for this file type */
+	@Override
+	public void write(Writer writer, String commentPrefix) {
+		prepareWrite();
+		super.write(writer, commentPrefix);
+	}
+	
+	/** check that this addrmap is valid and add address gap comments before output is written */
+	private void prepareWrite() {
+		int mapSize = this.getAddressWidth(getCurrentMapSize());
+		if (mapSize < 1) Ordt.errorExit("Minimum allowed address map size is " + (this.getMinRegByteWidth() * 2) + "B (addrmap=" + getAddressMapName() + ")");
+   	    
+		//genPioInterfaceSignals();   // add the pio interface and internal decoder signals
+		//addressRanges.list();                     
+		addressRanges.writeGapComments();
+	}
+	
 	/** write top module output to specified output file  
 	 * @param outName - output file or directory
 	 * @param description - text description of file generated
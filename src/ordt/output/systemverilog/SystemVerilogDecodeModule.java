@@ -2304,7 +2304,7 @@ public class SystemVerilogDecodeModule extends SystemVerilogModule {
 		
 		writeStmt(indentLevel, "");
 		writeStmt(indentLevel, "//------- address decode");
-		if (SystemVerilogBuilder.isLegacyVerilog()) writeStmt(indentLevel++, "always @ (*) begin");  
+		if (builder.isLegacyVerilog()) writeStmt(indentLevel++, "always @ (*) begin");  
 		else writeStmt(indentLevel++, "always_comb begin");
 		// init internal ack outputs to 0
 		writeStmt(indentLevel, "pio_internal_ack = 1'b0;");  
@@ -17,7 +17,7 @@ import ordt.parameters.ExtParameters;
  *  
  * uses the following builder methods:
  *   writeStmt(s)
- *   static isLegacyVerilog()
+ *   isLegacyVerilog()
  *   + SystemVerilogRegisters
  * */
 public class SystemVerilogModule {
@@ -445,7 +445,7 @@ public class SystemVerilogModule {
 		Iterator<String> it = defList.iterator();
 		while (it.hasNext()) {
 			String elem = it.next();
-			    if (SystemVerilogBuilder.isLegacyVerilog()) builder.writeStmt(indentLevel, "wire  " + elem + ";");  
+			    if (builder.isLegacyVerilog()) builder.writeStmt(indentLevel, "wire  " + elem + ";");  
 			    else builder.writeStmt(indentLevel, "logic  " + elem + ";");  
 		}		   	
 		builder.writeStmt(indentLevel, "");  		
@@ -459,7 +459,7 @@ public class SystemVerilogModule {
 		Iterator<String> it = defList.iterator();
 		while (it.hasNext()) {
 			String elem = it.next();
-			if (SystemVerilogBuilder.isLegacyVerilog()) builder.writeStmt(indentLevel, "reg  " + elem + ";");
+			if (builder.isLegacyVerilog()) builder.writeStmt(indentLevel, "reg  " + elem + ";");
 			else builder.writeStmt(indentLevel, "logic  " + elem + ";");  
 		}		   	
 		builder.writeStmt(indentLevel, "");  		
@@ -484,7 +484,7 @@ public class SystemVerilogModule {
 	
 	/** write cover group stmts  */
 	public  void writeCoverGroups(int indentLevel) {
-		if (!SystemVerilogBuilder.isLegacyVerilog()) {
+		if (!builder.isLegacyVerilog()) {
 			coverGroups.write(indentLevel);  // write for each covergroup
 		}
 	}
@@ -526,7 +526,7 @@ public class SystemVerilogModule {
 		List<SystemVerilogIOSignal> childList = this.getInputOutputList();
 		if (childList.isEmpty()) return;
 	    String baseAddrStr = this.addBaseAddrParameter() ? " #(BASE_ADDR) " : " ";
-	    if (SystemVerilogBuilder.isLegacyVerilog()) {
+	    if (builder.isLegacyVerilog()) {
 			builder.writeStmt(indentLevel++, this.getName() + baseAddrStr + instName + " (");   // more elements so use comma
 			Iterator<SystemVerilogIOSignal> it = childList.iterator();
 			Boolean anotherElement = it.hasNext();
@@ -18,7 +18,7 @@ import ordt.extract.Ordt;
  *   writeStmt(..)
  *   resolveAsSignalOrField(sigName) - TODO, move these to module vs builder?
  *   checkSignalName(sigName, newName)
- *   static isLegacyVerilog()
+ *   isLegacyVerilog()
  */
 public class SystemVerilogRegisters {
 
@@ -188,7 +188,7 @@ public class SystemVerilogRegisters {
 			// write combinatorial assignment block   
 			if (!combinAssignList.isEmpty()) {
 				builder.writeStmt(indentLevel, "//------- combinatorial assigns for " + name); 
-				if (SystemVerilogBuilder.isLegacyVerilog()) builder.writeStmt(indentLevel++, "always @ (*) begin");  
+				if (builder.isLegacyVerilog()) builder.writeStmt(indentLevel++, "always @ (*) begin");  
 				else builder.writeStmt(indentLevel++, "always_comb begin");  
 				Iterator<String> it = combinAssignList.iterator();
 				while (it.hasNext()) {
@@ -205,7 +205,7 @@ public class SystemVerilogRegisters {
 			// write synchronous assignment block
 			if (!regAssignList.isEmpty()) {
 				builder.writeStmt(indentLevel, "//------- reg assigns for " + name);
-				if (SystemVerilogBuilder.isLegacyVerilog()) builder.writeStmt(indentLevel++, "always @ (posedge " + clkName + ") begin");  
+				if (builder.isLegacyVerilog()) builder.writeStmt(indentLevel++, "always @ (posedge " + clkName + ") begin");  
 				else builder.writeStmt(indentLevel++, "always_ff @ (posedge " + clkName + ") begin");  
 				boolean hasResets = writeRegResets(indentLevel, resetAssignList);
 				writeRegAssigns(indentLevel, hasResets, regAssignList);
@@ -45,19 +45,24 @@ public class UVMRegsBuilder extends OutputBuilder {
 	private Stack<Boolean> regSetHasCallback = new Stack<Boolean>();  // stack of flags indicating block needs add_callback overridden
 	
 	// search state for use in field callbacks
-	private static int lastCBDepth = -1;
-	private static String lastCBRegSetPath = "<null>";
-	private static String lastCBReg = "<null>";
+	private int lastCBDepth = -1;
+	private String lastCBRegSetPath = "<null>";
+	private String lastCBReg = "<null>";
 
     //---------------------------- constructor ----------------------------------
 
     public UVMRegsBuilder(RegModelIntf model) {
+	    this(model, true);
+    }
+
+    /** create builder, walking the model only if generateOutput is set (else calls are driven by a MulticastBuilder) */
+    public UVMRegsBuilder(RegModelIntf model, boolean generateOutput) {
 	    this.model = model;  // store the model ref
 	    setVisitEachReg(false);   // only need to call once for replicated reg groups
 	    setVisitEachRegSet(false);   // only need to call once for replicated reg set groups
 	    setVisitExternalRegisters(true);  // we will visit externals 
 	    setVisitEachExternalRegister(false);	    // handle externals as a group
-	    model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
+	    if (generateOutput) model.getRoot().generateOutput(null, this);   // generate output structures recursively starting at model root
     }
 
     /** load systemverilog reserved words to be escaped */
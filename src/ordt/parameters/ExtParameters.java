@@ -51,11 +51,16 @@ public class ExtParameters extends ExtParmsBaseListener  {
 	// list of model annotation commands
 	private static List<AnnotateCommand> annotations = new ArrayList<AnnotateCommand>();
 	
+	// parameter assignments in order of occurrence (allows parameter state to be restored without reparsing)
+	private static List<String[]> assignments = new ArrayList<String[]>();
+	
 	public ExtParameters() {
 	}
 	
 	/** initialize all parameters */
 	public static void init() {
+		annotations.clear();
+		assignments.clear();
 		
 		// ---- global defaults
 		params.put("min_data_size", new ExtIntegerParameter("min_data_size", 32) {  // special handling for min_data_size
@@ -216,10 +221,7 @@ public class ExtParameters extends ExtParmsBaseListener  {
         	//System.out.println(tree.toStringTree());
         	ParseTreeWalker walker = new ParseTreeWalker(); // create standard
         	walker.walk(inParms, tree); // initiate walk of tree with listener
-        	if (parser.getNumberOfSyntaxErrors() > 0) {
-        		Ordt.errorExit("Parameter file parser errors detected.");  
-        		System.exit(8);
-        	}
+        	if (parser.getNumberOfSyntaxErrors() > 0) Ordt.errorExit("Parameter file parser errors detected.");
         	
         	//root.display(true);
 
@@ -333,6 +335,7 @@ public class ExtParameters extends ExtParmsBaseListener  {
 	 */
 	public static void assignParameter(String name, String value) {
 		//System.out.println("ExtParameters assignParameter: " + name + " = " + value);
+		assignments.add(new String[] {name, value});
 
         // first check list of std-typed parameters
 		if (params.containsKey(name)) params.get(name).set(value);
@@ -391,6 +394,11 @@ public class ExtParameters extends ExtParmsBaseListener  {
 		return annotations;
 	}
 
+	/** return {name, value} parameter assignments made since init */
+	public static List<String[]> getAssignments() {
+		return assignments;
+	}
+
 	/** get leafAddressSize
 	 *  @return the leafAddressSize
 	 */
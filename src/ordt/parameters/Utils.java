@@ -3,9 +3,7 @@
  */
 package ordt.parameters;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import ordt.extract.NumLiteral;
 import ordt.extract.Ordt;
 
 /** utilities class */
@@ -88,40 +86,10 @@ public class Utils {
 	/** create an (non negative) integer from string input of various forms (vlog, addr, int) 
      **/
 	public static Integer numStrToInteger (String numStr) {
-		if ((numStr == null) || (numStr.length()<1)) return null;
-		// check for plain integers
-		Pattern p = Pattern.compile("^(\\d+)$");
-		Matcher m = p.matcher(numStr);
-		if (m.matches()) {
-		  return strToInteger(m.group(1));
-		}
-		// check for hex number
-		p = Pattern.compile("^0x([\\d_[a-f][A-F]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			String num = m.group(1).replace("_","");  // remove underscores
-			  return strToInteger(num, 16);
-		}
-		// check for bin number
-		p = Pattern.compile("^0b([_[0-1]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			String num = m.group(1).replace("_","");  // remove underscores
-			  return strToInteger(num, 2);
-		}
-		// check for verilog number
-		p = Pattern.compile("^(\\d+)\\s*'\\s*([bdoh])\\s*([\\d_[a-f][A-F]]+)$");
-		m = p.matcher(numStr);
-		if (m.matches()) {
-			String base = m.group(2);
-			String num = m.group(3).replace("_","");  // remove underscores
-			if ("h".equals(base)) return strToInteger(num, 16);
-			else if ("d".equals(base)) return strToInteger(num);
-			else if ("o".equals(base)) return strToInteger(num, 8);
-			else if ("b".equals(base)) return strToInteger(num, 2);
-		}
+		NumLiteral literal = NumLiteral.scan(numStr);
+		if (literal == null) return null;
 		//else System.err.println("Utils numStrToInteger: string match failed s=" + numStr);
-		return null;
+		return strToInteger(literal.getDigits(), literal.getRadix());
 	}
 
 	/** generate string of spaces of specified length */
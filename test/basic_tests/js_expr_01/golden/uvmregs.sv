@@ -0,0 +1,197 @@
+//   Ordt 160621.01 autogenerated file 
+//   Input: test.js
+//   Parms: test.parms
+//   Date: Sat Oct 17 09:22:00 UTC 2026
+//
+
+import uvm_pkg::*;
+import uvm_reg_jrdl_pkg::*;
+
+// port_cfg register
+class reg_expr_test_ports_port_cfg extends uvm_reg_rdl;
+  string m_rdl_tag;
+  rand uvm_reg_field_rdl mask;
+  rand uvm_reg_field_rdl mode;
+  rand uvm_reg_field_rdl cnt;
+  rand uvm_reg_field_rdl sel;
+  
+  function new(string name = "reg_expr_test_ports_port_cfg");
+    super.new(name, 32, build_coverage(UVM_NO_COVERAGE));
+  endfunction: new
+  
+  virtual function void build();
+    string rdl_reg_name;
+    this.mask = new("mask");
+    this.mask.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.mask.configure(this, 11, 0, "RW", 0, 11'h3d, 1, 1, 0);
+    this.mode = new("mode");
+    this.mode.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.mode.configure(this, 3, 11, "RW", 0, 3'h5, 1, 1, 0);
+    this.cnt = new("cnt");
+    this.cnt.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.cnt.configure(this, 4, 14, "RW", 0, 4'h8, 1, 1, 0);
+    this.sel = new("sel");
+    this.sel.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.sel.configure(this, 8, 18, "RW", 0, 8'h10, 1, 1, 0);
+    
+    rdl_reg_name = get_rdl_name("rg_");
+    add_hdl_path_slice({rdl_reg_name, "mask"}, 0, 11);
+    add_hdl_path_slice({rdl_reg_name, "mode"}, 11, 3);
+    add_hdl_path_slice({rdl_reg_name, "cnt"}, 14, 4);
+    add_hdl_path_slice({rdl_reg_name, "sel"}, 18, 8);
+  endfunction: build
+  
+  virtual function void add_callbacks();
+  endfunction: add_callbacks
+  
+endclass : reg_expr_test_ports_port_cfg
+
+// port_stat register
+class reg_expr_test_ports_port_stat extends uvm_reg_rdl;
+  string m_rdl_tag;
+  rand uvm_reg_field_rdl err;
+  rand uvm_reg_field_rdl last;
+  
+  function new(string name = "reg_expr_test_ports_port_stat");
+    super.new(name, 32, build_coverage(UVM_NO_COVERAGE));
+  endfunction: new
+  
+  virtual function void build();
+    string rdl_reg_name;
+    this.err = new("err");
+    this.err.set_rdl_access_info(1, 0, 1, 0, 0, 0);
+    this.err.configure(this, 3, 0, "RO", 0, 3'h5e, 1, 0, 0);
+    this.last = new("last");
+    this.last.set_rdl_access_info(1, 0, 1, 0, 0, 0);
+    this.last.configure(this, 8, 3, "RO", 0, 8'h20, 1, 0, 0);
+    
+    rdl_reg_name = get_rdl_name("rg_");
+    add_hdl_path_slice({rdl_reg_name, "err"}, 0, 3);
+    add_hdl_path_slice({rdl_reg_name, "last"}, 3, 8);
+  endfunction: build
+  
+  virtual function void add_callbacks();
+  endfunction: add_callbacks
+  
+endclass : reg_expr_test_ports_port_stat
+
+// ports register_set
+class block_expr_test_ports extends uvm_reg_block_rdl;
+  rand reg_expr_test_ports_port_cfg port_cfg[8];
+  rand reg_expr_test_ports_port_stat port_stat;
+  
+  function new(string name = "block_expr_test_ports");
+    super.new(name);
+  endfunction: new
+  
+  virtual function void build();
+    this.default_map = create_map("", 0, 16, UVM_LITTLE_ENDIAN, 1);
+    foreach (this.port_cfg[i]) begin
+      this.port_cfg[i] = new($psprintf("port_cfg [%0d]",i));
+      this.port_cfg[i].configure(this, null, "");
+      this.port_cfg[i].set_rdl_tag($psprintf("port_cfg_%0d_",i));
+      this.port_cfg[i].set_reg_test_info(0, 0, 0);
+      this.port_cfg[i].build();
+      this.default_map.add_reg(this.port_cfg[i], `UVM_REG_ADDR_WIDTH'h0+i*`UVM_REG_ADDR_WIDTH'h4, "RW", 0);
+    end
+    this.port_stat = new("port_stat");
+    this.port_stat.configure(this, null, "");
+    this.port_stat.set_rdl_tag("port_stat_");
+    this.port_stat.set_reg_test_info(0, 0, 0);
+    this.port_stat.build();
+    this.default_map.add_reg(this.port_stat, `UVM_REG_ADDR_WIDTH'h20, "RO", 0);
+  endfunction: build
+  
+  `uvm_object_utils(block_expr_test_ports)
+endclass : block_expr_test_ports
+
+// big_reg register
+class reg_expr_test_big_reg extends uvm_reg_rdl;
+  string m_rdl_tag;
+  rand uvm_reg_field_rdl ovf;
+  rand uvm_reg_field_rdl big;
+  
+  function new(string name = "reg_expr_test_big_reg");
+    super.new(name, 128, build_coverage(UVM_NO_COVERAGE));
+  endfunction: new
+  
+  virtual function void build();
+    string rdl_reg_name;
+    this.ovf = new("ovf");
+    this.ovf.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.ovf.configure(this, 48, 0, "RW", 0, 48'h300, 1, 1, 0);
+    this.big = new("big");
+    this.big.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.big.configure(this, 72, 52, "RW", 0, 72'h100000000000000005, 1, 1, 0);
+    
+    rdl_reg_name = get_rdl_name("rg_");
+    add_hdl_path_slice({rdl_reg_name, "ovf"}, 0, 48);
+    add_hdl_path_slice({rdl_reg_name, "big"}, 52, 72);
+  endfunction: build
+  
+  virtual function void add_callbacks();
+  endfunction: add_callbacks
+  
+endclass : reg_expr_test_big_reg
+
+// ovf_reg register
+class reg_expr_test_ovf_reg extends uvm_reg_rdl;
+  string m_rdl_tag;
+  rand uvm_reg_field_rdl wide;
+  
+  function new(string name = "reg_expr_test_ovf_reg");
+    super.new(name, 128, build_coverage(UVM_NO_COVERAGE));
+  endfunction: new
+  
+  virtual function void build();
+    string rdl_reg_name;
+    this.wide = new("wide");
+    this.wide.set_rdl_access_info(1, 1, 1, 0, 0, 0);
+    this.wide.configure(this, 96, 0, "RW", 0, 96'hffffffffffff0000000001, 1, 1, 1);
+    
+    rdl_reg_name = get_rdl_name("rg_");
+    add_hdl_path_slice({rdl_reg_name, "wide"}, 0, 96);
+  endfunction: build
+  
+  virtual function void add_callbacks();
+  endfunction: add_callbacks
+  
+endclass : reg_expr_test_ovf_reg
+
+// Base block
+class block_expr_test extends uvm_reg_block_rdl;
+  rand block_expr_test_ports ports;
+  rand reg_expr_test_big_reg big_reg;
+  rand reg_expr_test_ovf_reg ovf_reg;
+  
+  function new(string name = "block_expr_test");
+    super.new(name);
+  endfunction: new
+  
+  virtual function void build();
+    this.default_map = create_map("", `UVM_REG_ADDR_WIDTH'h0, 16, UVM_LITTLE_ENDIAN, 1);
+    this.set_rdl_address_map(1);
+    this.set_rdl_address_map_hdl_path({`EXPR_TEST_PIO_INSTANCE_PATH, ".pio_logic"});
+    this.ports = block_expr_test_ports::type_id::create("ports",, get_full_name());
+    this.ports.configure(this, "");
+    this.ports.set_rdl_tag("ports_");
+    this.ports.build();
+    this.default_map.add_submap(this.ports.default_map, `UVM_REG_ADDR_WIDTH'h1040);
+    this.big_reg = new("big_reg");
+    this.big_reg.configure(this, null, "");
+    this.big_reg.set_rdl_tag("big_reg_");
+    this.big_reg.set_reg_test_info(0, 0, 0);
+    this.big_reg.build();
+    this.default_map.add_reg(this.big_reg, `UVM_REG_ADDR_WIDTH'h2000, "RW", 0);
+    this.ovf_reg = new("ovf_reg");
+    this.ovf_reg.configure(this, null, "");
+    this.ovf_reg.set_rdl_tag("ovf_reg_");
+    this.ovf_reg.set_reg_test_info(0, 0, 0);
+    this.ovf_reg.build();
+    this.default_map.add_reg(this.ovf_reg, `UVM_REG_ADDR_WIDTH'h2010, "RW", 0);
+    set_hdl_path_root({`EXPR_TEST_PIO_INSTANCE_PATH, ".pio_logic"});
+    this.add_callbacks();
+  endfunction: build
+  
+  `uvm_object_utils(block_expr_test)
+endclass : block_expr_test
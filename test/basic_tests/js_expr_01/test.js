@@ -0,0 +1,76 @@
+// numeric expression test - constants, parens, shifts, exponent, associativity, WIDTH(), > 64 bit values
+
+constant BASE_ADDR "Base address" {integer[16] = 0x1000;};
+constant NUM_PORTS "Number of ports" {integer[4] = 4;};
+constant PORT_BITS "Port field width" {integer[8] = 2 + 3 * 2;};
+constant BIG_RESET "Reset value wider than 64 bits" {integer[72] = (1 << 68) + 0x5;};
+constant OVF_RESET "Product wider than 64 bits" {integer[96] = 0xffffffffffff * 0x10000000000;};
+
+register_set expr_test "Numeric expression test" {
+
+  address = 0x0;
+  register_width = 32;
+
+  register_set ports "ports register_set" {
+    address = BASE_ADDR + (NUM_PORTS << 4);
+
+    register port_cfg "port_cfg register" {
+      address = 0x0;
+      repeat = NUM_PORTS * 2;
+      integer sel[PORT_BITS] "sel field" param {
+        access_mode = READ_WRITE;
+        reset = 0x40 >> 2;
+      };
+      integer cnt[WIDTH(NUM_PORTS)] "cnt field" param {
+        access_mode = READ_WRITE;
+        reset = 2 ^ 3;
+      };
+      integer mode[(((1 + 1) * 2) - 1)] "mode field" param {
+        access_mode = READ_WRITE;
+        reset = 10 - 2 - 3;
+      };
+      integer mask[WIDTH(BASE_ADDR) - NUM_PORTS - 1] "mask field" param {
+        access_mode = READ_WRITE;
+        reset = 0x7f & 0x3c | 0x100 - 0xff;
+      };
+    };
+
+    register port_stat "port_stat register" {
+      address = (NUM_PORTS * 2) << 2;
+      access_mode = READ_ONLY;
+      integer last[(3 + 1) * (1 + 1)] "last field" param {
+        access_mode = READ_ONLY;
+        reset = 1 + 1 << 4;
+      };
+      integer err[24 / 4 / 2] "err field" param {
+        access_mode = READ_ONLY;
+        reset = 100 - 10 + 5 - 1;
+      };
+    };
+
+    register_set_size = 2 ^ 6;
+  };
+
+  register big_reg "big_reg register" {
+    address = 0x2000;
+    register_width = 128;
+    integer big[WIDTH(BIG_RESET)] "big field" param {
+      access_mode = READ_WRITE;
+      reset = BIG_RESET;
+    };
+    nop[(1 << 3) - 8 + 4];
+    integer ovf[WIDTH(OVF_RESET) / 2] "ovf field" param {
+      access_mode = READ_WRITE;
+      reset = (BIG_RESET >> 60) * 3;
+    };
+  };
+
+  register ovf_reg "ovf_reg register" {
+    address = 0x2010;
+    register_width = 128;
+    integer wide[96] "wide field" param {
+      access_mode = READ_WRITE;
+      reset = OVF_RESET + 1;
+    };
+  };
+};